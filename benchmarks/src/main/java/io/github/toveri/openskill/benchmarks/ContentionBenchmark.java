@@ -0,0 +1,68 @@
+package io.github.toveri.openskill.benchmarks;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.models.Model;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of many threads rating and predicting their own matches with one shared model instance.
+ * Compare with {@code -t 1} to see how well the shared model scales.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@Threads(8)
+public class ContentionBenchmark {
+    @State(Scope.Benchmark)
+    public static class SharedModel {
+        @Param({"PlackettLuce", "ThurstoneMostellerFull"})
+        public String model;
+
+        Model instance;
+
+        @Setup
+        public void setup() {
+            instance = Fixture.model(model);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadMatch {
+        @Param({"1v1", "5v5", "4x4"})
+        public String shape;
+
+        Fixture fixture;
+
+        @Setup
+        public void setup(ThreadParams threadParams) {
+            fixture = new Fixture(shape, "ranks", threadParams.getThreadIndex());
+        }
+    }
+
+    @Benchmark
+    public Match rate(SharedModel shared, ThreadMatch match) {
+        return shared.instance.rate(match.fixture.match, match.fixture.options);
+    }
+
+    @Benchmark
+    public List<Double> predictWin(SharedModel shared, ThreadMatch match) {
+        return shared.instance.predictWin(match.fixture.match);
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.toveri.openskill.benchmarks;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.RateOptions;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.BradleyTerryFull;
+import io.github.toveri.openskill.models.BradleyTerryPart;
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.models.PlackettLuce;
+import io.github.toveri.openskill.models.ThurstoneMostellerFull;
+import io.github.toveri.openskill.models.ThurstoneMostellerPart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A match of a given shape and outcome, both as objects and as flat arrays, built the same way for every benchmark.
+ */
+final class Fixture {
+    final Match match;
+    final RateOptions options;
+    final double[] mu;
+    final double[] sigma;
+    final int[] teamOffsets;
+    final int teamCount;
+    final double[] ranks;
+    final boolean lowerIsBetter;
+
+    /**
+     * Create the fixture.
+     * @param shape The shape of the match: 1v1, 5v5, 4x4, 8x1 or ffa100.
+     * @param outcome The outcome of the match: ranks, ties or scores.
+     * @param seed The seed of the random ratings and scores.
+     */
+    Fixture(String shape, String outcome, long seed) {
+        int[] teamSizes = switch (shape) {
+            case "1v1" -> new int[]{1, 1};
+            case "5v5" -> new int[]{5, 5};
+            case "4x4" -> new int[]{4, 4, 4, 4};
+            case "8x1" -> filled(8, 1);
+            case "ffa100" -> filled(100, 1);
+            default -> throw new IllegalArgumentException(shape);
+        };
+        Random random = new Random(seed);
+        teamCount = teamSizes.length;
+        teamOffsets = new int[teamCount + 1];
+        for (int i = 0; i < teamCount; i++) {
+            teamOffsets[i + 1] = teamOffsets[i] + teamSizes[i];
+        }
+        mu = new double[teamOffsets[teamCount]];
+        sigma = new double[mu.length];
+        List<List<Rating>> teams = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            List<Rating> team = new ArrayList<>(teamSizes[i]);
+            for (int j = teamOffsets[i]; j < teamOffsets[i + 1]; j++) {
+                mu[j] = 25 + random.nextGaussian() * 5;
+                sigma[j] = 2 + random.nextDouble() * 6.333;
+                team.add(new Rating(mu[j], sigma[j]));
+            }
+            teams.add(team);
+        }
+        match = new Match(teams);
+        ranks = new double[teamCount];
+        List<Double> rankList = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            ranks[i] = switch (outcome) {
+                case "ranks" -> i + 1;
+                // Every other team shares its rank with the next one.
+                case "ties" -> i / 2 + 1;
+                case "scores" -> random.nextInt(50);
+                default -> throw new IllegalArgumentException(outcome);
+            };
+            rankList.add(ranks[i]);
+        }
+        lowerIsBetter = !outcome.equals("scores");
+        options = new RateOptions(rankList, lowerIsBetter);
+    }
+
+    /**
+     * Create a model by its class name.
+     * @param name The simple class name of the model.
+     * @return The model with default options.
+     */
+    static Model model(String name) {
+        return switch (name) {
+            case "PlackettLuce" -> new PlackettLuce();
+            case "BradleyTerryFull" -> new BradleyTerryFull();
+            case "BradleyTerryPart" -> new BradleyTerryPart();
+            case "ThurstoneMostellerFull" -> new ThurstoneMostellerFull();
+            case "ThurstoneMostellerPart" -> new ThurstoneMostellerPart();
+            default -> throw new IllegalArgumentException(name);
+        };
+    }
+
+    private static int[] filled(int count, int value) {
+        int[] values = new int[count];
+        Arrays.fill(values, value);
+        return values;
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.toveri.openskill.benchmarks;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.models.Workspace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of rating and predicting a match, for every model, team shape and outcome.
+ * Run with {@code -prof gc} to also measure the allocation per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class ModelBenchmark {
+    @Param({"PlackettLuce", "BradleyTerryFull", "BradleyTerryPart", "ThurstoneMostellerFull", "ThurstoneMostellerPart"})
+    public String model;
+    @Param({"1v1", "5v5", "4x4", "8x1", "ffa100"})
+    public String shape;
+    @Param({"ranks", "ties", "scores"})
+    public String outcome;
+
+    private Model instance;
+    private Fixture fixture;
+    private Workspace workspace;
+    private double[] mu;
+    private double[] sigma;
+
+    @Setup
+    public void setup() {
+        instance = Fixture.model(model);
+        fixture = new Fixture(shape, outcome, 42);
+        workspace = new Workspace();
+        mu = new double[fixture.mu.length];
+        sigma = new double[fixture.sigma.length];
+    }
+
+    @Benchmark
+    public Match rate() {
+        return instance.rate(fixture.match, fixture.options);
+    }
+
+    @Benchmark
+    public double[] rateArrays() {
+        // The arrays are rated in place, so start from the same ratings every time.
+        System.arraycopy(fixture.mu, 0, mu, 0, mu.length);
+        System.arraycopy(fixture.sigma, 0, sigma, 0, sigma.length);
+        instance.rate(mu, sigma, fixture.teamOffsets, fixture.teamCount, fixture.ranks, fixture.lowerIsBetter,
+                workspace);
+        return mu;
+    }
+
+    @Benchmark
+    public List<Double> predictWin() {
+        return instance.predictWin(fixture.match);
+    }
+
+    @Benchmark
+    public double predictDraw() {
+        return instance.predictDraw(fixture.match);
+    }
+
+    @Benchmark
+    public List<List<Double>> predictRank() {
+        return instance.predictRank(fixture.match);
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.toveri.openskill.benchmarks;
+
+import io.github.toveri.openskill.models.BradleyTerryFull;
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.models.ModelOptions;
+import io.github.toveri.openskill.models.ModelOptionsBuilder;
+import io.github.toveri.openskill.models.Workspace;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.CompilerControl;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of rating the fixed shapes of a match in order with Bradley-Terry full pairing, through the flat-array
+ * path of the model and through a kernel specialized for each shape.
+ * Each specialized kernel is the general kernel forcibly inlined with the count of teams and the team size as
+ * constants, so every loop has a fixed trip count the JIT may fully unroll, and it reads no team offsets.
+ * This measures if kernels per shape would pay off over reusing the team offsets of a shape on the flat-array path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1)
+@State(Scope.Thread)
+public class ShapeBenchmark {
+    @Param({"1v1", "5v5", "4x4", "8x1"})
+    public String shape;
+
+    private Model model;
+    private Fixture fixture;
+    private Workspace workspace;
+    private double betaSq;
+    private double tauSq;
+    private double kappa;
+    private double[] mu;
+    private double[] sigma;
+
+    @Setup
+    public void setup() {
+        ModelOptions options = new ModelOptionsBuilder().build();
+        model = new BradleyTerryFull(options);
+        fixture = new Fixture(shape, "ranks", 42);
+        workspace = new Workspace();
+        betaSq = options.beta() * options.beta();
+        tauSq = options.tau() * options.tau();
+        kappa = options.kappa();
+        mu = new double[fixture.mu.length];
+        sigma = new double[fixture.sigma.length];
+    }
+
+    @Benchmark
+    public double[] flatArrays() {
+        System.arraycopy(fixture.mu, 0, mu, 0, mu.length);
+        System.arraycopy(fixture.sigma, 0, sigma, 0, sigma.length);
+        model.rate(mu, sigma, fixture.teamOffsets, fixture.teamCount, fixture.ranks, fixture.lowerIsBetter,
+                workspace);
+        return mu;
+    }
+
+    @Benchmark
+    public double[] specialized() {
+        System.arraycopy(fixture.mu, 0, mu, 0, mu.length);
+        System.arraycopy(fixture.sigma, 0, sigma, 0, sigma.length);
+        switch (shape) {
+            case "1v1" -> rate1v1(mu, sigma);
+            case "5v5" -> rate5v5(mu, sigma);
+            case "4x4" -> rate4x4(mu, sigma);
+            default -> rate8x1(mu, sigma);
+        }
+        return mu;
+    }
+
+    private void rate1v1(double[] mu, double[] sigma) {
+        rate(mu, sigma, 2, 1);
+    }
+
+    private void rate5v5(double[] mu, double[] sigma) {
+        rate(mu, sigma, 2, 5);
+    }
+
+    private void rate4x4(double[] mu, double[] sigma) {
+        rate(mu, sigma, 4, 4);
+    }
+
+    private void rate8x1(double[] mu, double[] sigma) {
+        rate(mu, sigma, 8, 1);
+    }
+
+    /**
+     * Rate a match of teams of equal size placed in their order, as the model does with the default gamma function.
+     */
+    @CompilerControl(CompilerControl.Mode.INLINE)
+    private void rate(double[] mu, double[] sigma, int teamCount, int teamSize) {
+        double[] teamMu = new double[teamCount];
+        double[] teamSigmaSq = new double[teamCount];
+        for (int i = 0; i < teamCount; i++) {
+            for (int j = i * teamSize; j < (i + 1) * teamSize; j++) {
+                sigma[j] = Math.sqrt((sigma[j] * sigma[j]) + tauSq);
+                teamMu[i] += mu[j];
+                teamSigmaSq[i] += (sigma[j] * sigma[j]);
+            }
+        }
+        for (int i = 0; i < teamCount; i++) {
+            double omega = 0.0;
+            double delta = 0.0;
+            double sigmaI = Math.sqrt(teamSigmaSq[i]);
+            for (int q = 0; q < teamCount; q++) {
+                if (q == i) {
+                    continue;
+                }
+                double cIq = Math.sqrt(teamSigmaSq[i] + teamSigmaSq[q] + (2 * betaSq));
+                double pIq = 1 / (1 + Math.exp((teamMu[q] - teamMu[i]) / cIq));
+                double sigmaSqOverCIq = teamSigmaSq[i] / cIq;
+                double s = q > i ? 1.0 : 0.0;
+                omega += sigmaSqOverCIq * (s - pIq);
+                delta += ((sigmaI / cIq * sigmaSqOverCIq) / cIq) * pIq * (1 - pIq);
+            }
+            for (int j = i * teamSize; j < (i + 1) * teamSize; j++) {
+                double share = (sigma[j] * sigma[j]) / teamSigmaSq[i];
+                mu[j] += share * omega;
+                sigma[j] *= Math.sqrt(Math.max(kappa, 1 - share * delta));
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.toveri.openskill.service;
+
+import io.github.toveri.openskill.leaderboard.LeaderboardEntry;
+import io.github.toveri.openskill.stream.MatchEvent;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The compact binary format of the rating service, of little endian fixed width numbers.
+ * Every body starts with the count of items, also for requests and responses of exactly one match.
+ * A match is its time, a byte of flags (1 if it has ranks, 2 if higher ranks are better), the count of teams,
+ * the size of each team, the id of each player and, if flagged, the rank of each team.
+ * A rated match is its count of players, followed by the id, mean value and standard deviation of each player.
+ * A prediction is its count of teams, the win probability of each team and the draw probability.
+ * A leaderboard entry is the id, rank, mean value, standard deviation and ordinal of the player.
+ */
+final class BinaryCodec implements Codec {
+    static final String CONTENT_TYPE = "application/octet-stream";
+    static final int HAS_RANKS = 1;
+    static final int HIGHER_IS_BETTER = 2;
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public List<MatchEvent> readMatches(byte[] body, boolean batch) {
+        ByteBuffer in = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            int count = in.getInt();
+            if (count < 0 || (!batch && count != 1)) {
+                throw new IllegalArgumentException("Expected " + (batch ? "a count of" : "one") + " match.");
+            }
+            List<MatchEvent> matches = new ArrayList<>(Math.min(count, body.length));
+            for (int m = 0; m < count; m++) {
+                long time = in.getLong();
+                int flags = in.get();
+                int teamCount = in.getInt();
+                if (teamCount < 0 || teamCount > in.remaining() / 4) {
+                    throw new IllegalArgumentException("Invalid count of teams: " + teamCount);
+                }
+                int[] teamSizes = new int[teamCount];
+                long playerCount = 0;
+                for (int i = 0; i < teamCount; i++) {
+                    teamSizes[i] = in.getInt();
+                    playerCount += teamSizes[i];
+                }
+                if (playerCount < 0 || playerCount > in.remaining() / 8) {
+                    throw new IllegalArgumentException("Invalid count of players: " + playerCount);
+                }
+                long[] players = new long[(int) playerCount];
+                for (int j = 0; j < players.length; j++) {
+                    players[j] = in.getLong();
+                }
+                double[] ranks = null;
+                if ((flags & HAS_RANKS) != 0) {
+                    ranks = new double[teamCount];
+                    for (int i = 0; i < teamCount; i++) {
+                        ranks[i] = in.getDouble();
+                    }
+                }
+                matches.add(new MatchEvent(time, players, teamSizes, ranks, (flags & HIGHER_IS_BETTER) == 0));
+            }
+            return matches;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The body ends within a match.");
+        }
+    }
+
+    @Override
+    public byte[] writeRatedMatches(List<RatedMatch> matches, boolean batch) {
+        int size = 4;
+        for (RatedMatch match : matches) {
+            size += 4 + 24 * match.players().length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(matches.size());
+        for (RatedMatch match : matches) {
+            out.putInt(match.players().length);
+            for (int j = 0; j < match.players().length; j++) {
+                out.putLong(match.players()[j]);
+                out.putDouble(match.mu()[j]);
+                out.putDouble(match.sigma()[j]);
+            }
+        }
+        return out.array();
+    }
+
+    @Override
+    public byte[] writePredictions(List<Prediction> predictions, boolean batch) {
+        int size = 4;
+        for (Prediction prediction : predictions) {
+            size += 4 + 8 * prediction.winProbabilities().length + 8;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(predictions.size());
+        for (Prediction prediction : predictions) {
+            out.putInt(prediction.winProbabilities().length);
+            for (double probability : prediction.winProbabilities()) {
+                out.putDouble(probability);
+            }
+            out.putDouble(prediction.drawProbability());
+        }
+        return out.array();
+    }
+
+    @Override
+    public byte[] writeEntries(List<LeaderboardEntry> entries) {
+        ByteBuffer out = ByteBuffer.allocate(4 + 36 * entries.size()).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(entries.size());
+        for (LeaderboardEntry entry : entries) {
+            out.putLong(entry.id());
+            out.putInt(entry.rank());
+            out.putDouble(entry.mu());
+            out.putDouble(entry.sigma());
+            out.putDouble(entry.ordinal());
+        }
+        return out.array();
+    }
+
+    /**
+     * Write matches as a request body, as sent by clients such as the load test.
+     * @param matches The matches.
+     * @return The body of the request.
+     */
+    static byte[] writeMatches(List<MatchEvent> matches) {
+        int size = 4;
+        for (MatchEvent match : matches) {
+            size += 13 + 4 * match.teamSizes().length + 8 * match.players().length
+                    + (match.ranks() != null ? 8 * match.ranks().length : 0);
+        }
+        ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(matches.size());
+        for (MatchEvent match : matches) {
+            out.putLong(match.time());
+            out.put((byte) ((match.ranks() != null ? HAS_RANKS : 0) | (match.lowerIsBetter() ? 0 : HIGHER_IS_BETTER)));
+            out.putInt(match.teamSizes().length);
+            for (int teamSize : match.teamSizes()) {
+                out.putInt(teamSize);
+            }
+            for (long id : match.players()) {
+                out.putLong(id);
+            }
+            if (match.ranks() != null) {
+                for (double rank : match.ranks()) {
+                    out.putDouble(rank);
+                }
+            }
+        }
+        return out.array();
+    }
+}
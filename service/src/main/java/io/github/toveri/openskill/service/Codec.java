@@ -0,0 +1,49 @@
+package io.github.toveri.openskill.service;
+
+import io.github.toveri.openskill.leaderboard.LeaderboardEntry;
+import io.github.toveri.openskill.stream.MatchEvent;
+
+import java.util.List;
+
+/**
+ * Reads the requests and writes the responses of the rating service in one format.
+ * Malformed requests are rejected with an {@link IllegalArgumentException}.
+ */
+interface Codec {
+    /**
+     * Get the media type of the format.
+     * @return The media type.
+     */
+    String contentType();
+
+    /**
+     * Read the matches of a request.
+     * @param body The body of the request.
+     * @param batch If the request holds any count of matches, or exactly one.
+     * @return The matches.
+     */
+    List<MatchEvent> readMatches(byte[] body, boolean batch);
+
+    /**
+     * Write the ratings of rated matches.
+     * @param matches The rated matches.
+     * @param batch If the response is for a batch request, or for exactly one match.
+     * @return The body of the response.
+     */
+    byte[] writeRatedMatches(List<RatedMatch> matches, boolean batch);
+
+    /**
+     * Write the predictions of matches.
+     * @param predictions The predictions.
+     * @param batch If the response is for a batch request, or for exactly one match.
+     * @return The body of the response.
+     */
+    byte[] writePredictions(List<Prediction> predictions, boolean batch);
+
+    /**
+     * Write leaderboard entries.
+     * @param entries The entries, highest rank first.
+     * @return The body of the response.
+     */
+    byte[] writeEntries(List<LeaderboardEntry> entries);
+}
@@ -0,0 +1,314 @@
+package io.github.toveri.openskill.service;
+
+import io.github.toveri.openskill.leaderboard.LeaderboardEntry;
+import io.github.toveri.openskill.stream.MatchEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The JSON format of the rating service.
+ * A match is an object such as {@code {"time": 1, "players": [1, 2, 3], "teamSizes": [1, 2], "ranks": [2, 1],
+ * "lowerIsBetter": true}}, where the time defaults to now, the ranks to the given order and lower is better to true.
+ * Batch requests and responses are arrays of what single ones hold.
+ * The matches are read straight into arrays by a small parser of just this shape, so no JSON library is needed.
+ */
+final class JsonCodec implements Codec {
+    static final String CONTENT_TYPE = "application/json";
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public List<MatchEvent> readMatches(byte[] body, boolean batch) {
+        Parser parser = new Parser(new String(body, StandardCharsets.UTF_8));
+        List<MatchEvent> matches = new ArrayList<>();
+        if (batch) {
+            parser.expect('[');
+            if (!parser.consume(']')) {
+                do {
+                    matches.add(parser.readMatch());
+                } while (parser.consume(','));
+                parser.expect(']');
+            }
+        } else {
+            matches.add(parser.readMatch());
+        }
+        parser.expectEnd();
+        return matches;
+    }
+
+    @Override
+    public byte[] writeRatedMatches(List<RatedMatch> matches, boolean batch) {
+        StringBuilder out = new StringBuilder();
+        writeList(out, matches, batch, (sb, match) -> {
+            sb.append("{\"players\":[");
+            for (int j = 0; j < match.players().length; j++) {
+                if (j > 0) {
+                    sb.append(',');
+                }
+                sb.append("{\"id\":").append(match.players()[j])
+                        .append(",\"mu\":").append(match.mu()[j])
+                        .append(",\"sigma\":").append(match.sigma()[j])
+                        .append('}');
+            }
+            sb.append("]}");
+        });
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] writePredictions(List<Prediction> predictions, boolean batch) {
+        StringBuilder out = new StringBuilder();
+        writeList(out, predictions, batch, (sb, prediction) -> {
+            sb.append("{\"winProbabilities\":[");
+            for (int i = 0; i < prediction.winProbabilities().length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(prediction.winProbabilities()[i]);
+            }
+            sb.append("],\"drawProbability\":").append(prediction.drawProbability()).append('}');
+        });
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] writeEntries(List<LeaderboardEntry> entries) {
+        StringBuilder out = new StringBuilder();
+        writeList(out, entries, true, (sb, entry) -> sb.append("{\"id\":").append(entry.id())
+                .append(",\"rank\":").append(entry.rank())
+                .append(",\"mu\":").append(entry.mu())
+                .append(",\"sigma\":").append(entry.sigma())
+                .append(",\"ordinal\":").append(entry.ordinal())
+                .append('}'));
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write matches as a request body, as sent by clients such as the load test.
+     * @param matches The matches.
+     * @param batch If the request is for a batch, or for exactly one match.
+     * @return The body of the request.
+     */
+    static byte[] writeMatches(List<MatchEvent> matches, boolean batch) {
+        StringBuilder out = new StringBuilder();
+        writeList(out, matches, batch, (sb, match) -> {
+            sb.append("{\"time\":").append(match.time()).append(",\"players\":[");
+            for (int j = 0; j < match.players().length; j++) {
+                sb.append(j > 0 ? "," : "").append(match.players()[j]);
+            }
+            sb.append("],\"teamSizes\":[");
+            for (int i = 0; i < match.teamSizes().length; i++) {
+                sb.append(i > 0 ? "," : "").append(match.teamSizes()[i]);
+            }
+            sb.append(']');
+            if (match.ranks() != null) {
+                sb.append(",\"ranks\":[");
+                for (int i = 0; i < match.ranks().length; i++) {
+                    sb.append(i > 0 ? "," : "").append(match.ranks()[i]);
+                }
+                sb.append(']');
+            }
+            sb.append(",\"lowerIsBetter\":").append(match.lowerIsBetter()).append('}');
+        });
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static <T> void writeList(StringBuilder out, List<T> items, boolean batch, Writer<T> writer) {
+        if (!batch) {
+            writer.write(out, items.get(0));
+            return;
+        }
+        out.append('[');
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            writer.write(out, items.get(i));
+        }
+        out.append(']');
+    }
+
+    /**
+     * Writes one item as JSON.
+     * @param <T> The type of the item.
+     */
+    @FunctionalInterface
+    private interface Writer<T> {
+        void write(StringBuilder out, T item);
+    }
+
+    /**
+     * A parser of match objects, failing with an {@link IllegalArgumentException} on anything else.
+     */
+    private static final class Parser {
+        private final String text;
+        private int position;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        MatchEvent readMatch() {
+            long time = System.currentTimeMillis();
+            long[] players = null;
+            int[] teamSizes = null;
+            double[] ranks = null;
+            boolean lowerIsBetter = true;
+            expect('{');
+            if (!consume('}')) {
+                do {
+                    String key = readString();
+                    expect(':');
+                    switch (key) {
+                        case "time" -> time = (long) readNumber();
+                        case "players" -> players = readLongs();
+                        case "teamSizes" -> {
+                            long[] sizes = readLongs();
+                            teamSizes = new int[sizes.length];
+                            for (int i = 0; i < sizes.length; i++) {
+                                if (sizes[i] < 0 || sizes[i] > Integer.MAX_VALUE) {
+                                    throw error("Invalid team size " + sizes[i]);
+                                }
+                                teamSizes[i] = (int) sizes[i];
+                            }
+                        }
+                        case "ranks" -> ranks = readNullableDoubles();
+                        case "lowerIsBetter" -> lowerIsBetter = readBoolean();
+                        default -> throw error("Unknown field " + key);
+                    }
+                } while (consume(','));
+                expect('}');
+            }
+            if (players == null || teamSizes == null) {
+                throw error("A match needs players and teamSizes");
+            }
+            return new MatchEvent(time, players, teamSizes, ranks, lowerIsBetter);
+        }
+
+        long[] readLongs() {
+            expect('[');
+            long[] values = new long[8];
+            int count = 0;
+            if (!consume(']')) {
+                do {
+                    if (count == values.length) {
+                        values = Arrays.copyOf(values, count * 2);
+                    }
+                    values[count++] = readLong();
+                } while (consume(','));
+                expect(']');
+            }
+            return Arrays.copyOf(values, count);
+        }
+
+        double[] readNullableDoubles() {
+            skipWhitespace();
+            if (text.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+            expect('[');
+            double[] values = new double[8];
+            int count = 0;
+            if (!consume(']')) {
+                do {
+                    if (count == values.length) {
+                        values = Arrays.copyOf(values, count * 2);
+                    }
+                    values[count++] = readNumber();
+                } while (consume(','));
+                expect(']');
+            }
+            return Arrays.copyOf(values, count);
+        }
+
+        boolean readBoolean() {
+            skipWhitespace();
+            if (text.startsWith("true", position)) {
+                position += 4;
+                return true;
+            }
+            if (text.startsWith("false", position)) {
+                position += 5;
+                return false;
+            }
+            throw error("Expected a boolean");
+        }
+
+        long readLong() {
+            String token = numberToken();
+            try {
+                return Long.parseLong(token);
+            } catch (NumberFormatException e) {
+                throw error("Expected an integer");
+            }
+        }
+
+        double readNumber() {
+            String token = numberToken();
+            try {
+                return Double.parseDouble(token);
+            } catch (NumberFormatException e) {
+                throw error("Expected a number");
+            }
+        }
+
+        String readString() {
+            expect('"');
+            int end = text.indexOf('"', position);
+            if (end < 0) {
+                throw error("Unterminated string");
+            }
+            String value = text.substring(position, end);
+            position = end + 1;
+            return value;
+        }
+
+        boolean consume(char c) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) {
+            if (!consume(c)) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (position != text.length()) {
+                throw error("Unexpected content");
+            }
+        }
+
+        private String numberToken() {
+            skipWhitespace();
+            int start = position;
+            while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            return text.substring(start, position);
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + position + ".");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.toveri.openskill.service;
+
+import io.github.toveri.openskill.metrics.Histogram;
+import io.github.toveri.openskill.models.PlackettLuce;
+import io.github.toveri.openskill.stream.MatchEvent;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A load test of the batch rating endpoint over localhost, in the binary format.
+ * Clients on virtual threads each send batches of random matches between a pool of players,
+ * and the throughput of matches and the latency percentiles of the requests are reported at the end.
+ * A client that fails to send a request stops, and its remaining requests are counted as failed.
+ * Without a port, a server is started in the same process on a free port.
+ * <p>
+ * Arguments: {@code [port|0] [clients=16] [requests=200] [batchSize=256] [teamSize=5] [players=100000]}.
+ */
+public final class LoadTest {
+    private LoadTest() {}
+
+    /**
+     * Run the load test.
+     * @param args The port of the server, or 0 to start one, followed by the counts described above.
+     * @throws Exception If the server could not be started or the clients were interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = argument(args, 0, 0);
+        int clients = argument(args, 1, 16);
+        int requests = argument(args, 2, 200);
+        int batchSize = argument(args, 3, 256);
+        int teamSize = argument(args, 4, 5);
+        int players = argument(args, 5, 100_000);
+        RatingServer server = port == 0 ? new RatingServer(new PlackettLuce(), 0) : null;
+        URI uri = URI.create("http://localhost:" + (server != null ? server.port() : port) + "/rate/batch");
+        Histogram latency = new Histogram();
+        AtomicLong failures = new AtomicLong();
+        List<Future<?>> results = new ArrayList<>(clients);
+        long start = System.nanoTime();
+        try (HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                SplittableRandom random = new SplittableRandom(c);
+                results.add(executor.submit(() -> {
+                    for (int r = 0; r < requests; r++) {
+                        byte[] body = BinaryCodec.writeMatches(matches(random, batchSize, teamSize, players));
+                        HttpRequest request = HttpRequest.newBuilder(uri)
+                                .header("Content-Type", BinaryCodec.CONTENT_TYPE)
+                                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                                .build();
+                        long sent = System.nanoTime();
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        latency.record(System.nanoTime() - sent);
+                        if (response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    System.err.println("A client failed: " + e.getCause());
+                }
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        // Requests that were never answered, or never sent after their client failed, count as failed too.
+        failures.addAndGet((long) clients * requests - latency.count());
+        long matchCount = ((long) clients * requests - failures.get()) * batchSize;
+        System.out.printf("%d requests of %d matches in %.2f s, %d failed%n",
+                (long) clients * requests, batchSize, seconds, failures.get());
+        System.out.printf("Throughput: %.0f matches/s, %.0f requests/s%n",
+                matchCount / seconds, latency.count() / seconds);
+        System.out.printf("Latency: mean %.2f ms, p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                latency.mean() / 1e6, latency.valueAtPercentile(50) / 1e6, latency.valueAtPercentile(99) / 1e6,
+                latency.valueAtPercentile(99.9) / 1e6, latency.max() / 1e6);
+    }
+
+    private static List<MatchEvent> matches(SplittableRandom random, int count, int teamSize, int players) {
+        List<MatchEvent> matches = new ArrayList<>(count);
+        long time = System.currentTimeMillis();
+        for (int m = 0; m < count; m++) {
+            long[] ids = new long[2 * teamSize];
+            for (int j = 0; j < ids.length; j++) {
+                ids[j] = distinct(random, ids, j, players);
+            }
+            double[] ranks = {random.nextInt(2), random.nextInt(2)};
+            matches.add(new MatchEvent(time, ids, new int[]{teamSize, teamSize}, ranks, true));
+        }
+        return matches;
+    }
+
+    private static long distinct(SplittableRandom random, long[] ids, int count, int players) {
+        while (true) {
+            long id = random.nextInt(players);
+            boolean taken = false;
+            for (int j = 0; j < count && !taken; j++) {
+                taken = ids[j] == id;
+            }
+            if (!taken) {
+                return id;
+            }
+        }
+    }
+
+    private static int argument(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+}
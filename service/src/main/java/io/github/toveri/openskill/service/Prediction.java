@@ -0,0 +1,10 @@
+package io.github.toveri.openskill.service;
+
+/**
+ * The predicted outcome of a match.
+ *
+ * @param winProbabilities The probability of each team to win.
+ * @param drawProbability  The probability of a draw.
+ */
+record Prediction(double[] winProbabilities, double drawProbability) {
+}
@@ -0,0 +1,11 @@
+package io.github.toveri.openskill.service;
+
+/**
+ * The ratings of the players of a match after it was rated.
+ *
+ * @param players The ids of the players of all teams, team after team.
+ * @param mu      The mean value of each player.
+ * @param sigma   The standard deviation of each player.
+ */
+record RatedMatch(long[] players, double[] mu, double[] sigma) {
+}
@@ -0,0 +1,237 @@
+package io.github.toveri.openskill.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.models.PlackettLuce;
+import io.github.toveri.openskill.stream.MatchEvent;
+import org.hipparchus.exception.MathIllegalArgumentException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A lightweight local HTTP server of the rating service, handling every exchange on its own virtual thread.
+ * <ul>
+ *     <li>{@code POST /rate} and {@code POST /rate/batch} rate one or many matches, and respond with the new ratings
+ *     of their players.</li>
+ *     <li>{@code POST /predict} and {@code POST /predict/batch} predict one or many matches.</li>
+ *     <li>{@code GET /leaderboard/top?count=} and {@code GET /leaderboard/around?id=&before=&after=} get leaderboard
+ *     entries.</li>
+ * </ul>
+ * Requests are read in JSON, or in the binary format when their content type is {@code application/octet-stream},
+ * and responses are written in the format of the request, or for GET requests in the accepted one.
+ * Malformed or invalid requests are answered with status 400, and any other failure with status 500.
+ * A batch pays the cost of the exchange once for all its matches, so send hundreds of matches a request
+ * when throughput matters.
+ */
+public final class RatingServer implements AutoCloseable {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int MAX_ENTRIES = 1000;
+    private static final Codec JSON = new JsonCodec();
+    private static final Codec BINARY = new BinaryCodec();
+
+    private final RatingService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Create and start a server on the loopback address.
+     * @param model The model to rate and predict matches with.
+     * @param port The port to listen on, or 0 for any free port.
+     * @throws IOException If the server could not be bound.
+     */
+    public RatingServer(Model model, int port) throws IOException {
+        this(model, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * Create and start a server.
+     * @param model The model to rate and predict matches with.
+     * @param address The address to listen on.
+     * @throws IOException If the server could not be bound.
+     */
+    public RatingServer(Model model, InetSocketAddress address) throws IOException {
+        this.service = new RatingService(model);
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/rate", handler("POST", this::rate));
+        server.createContext("/predict", handler("POST", this::predict));
+        server.createContext("/leaderboard", handler("GET", this::leaderboard));
+        server.start();
+    }
+
+    /**
+     * Get the port the server listens on.
+     * @return The port.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stop the server, waiting for the exchanges in progress to finish.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    /**
+     * Run a server with the default model until the process is stopped.
+     * @param args The port to listen on, 8080 by default.
+     * @throws IOException If the server could not be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        RatingServer server = new RatingServer(new PlackettLuce(), port);
+        System.out.println("Rating service listening on port " + server.port() + ".");
+    }
+
+    private byte[] rate(HttpExchange exchange, Codec codec, boolean batch) throws IOException {
+        List<MatchEvent> matches = codec.readMatches(readBody(exchange), batch);
+        return codec.writeRatedMatches(service.rate(matches), batch);
+    }
+
+    private byte[] predict(HttpExchange exchange, Codec codec, boolean batch) throws IOException {
+        List<MatchEvent> matches = codec.readMatches(readBody(exchange), batch);
+        return codec.writePredictions(service.predict(matches), batch);
+    }
+
+    private byte[] leaderboard(HttpExchange exchange, Codec codec, boolean batch) {
+        URI uri = exchange.getRequestURI();
+        Map<String, String> query = query(uri);
+        return switch (uri.getPath()) {
+            case "/leaderboard/top" -> codec.writeEntries(service.top(count(query, "count", 10)));
+            case "/leaderboard/around" -> codec.writeEntries(service.around(
+                    parseLong(query, "id"), count(query, "before", 5), count(query, "after", 5)));
+            default -> null;
+        };
+    }
+
+    private static HttpHandler handler(String method, Endpoint endpoint) {
+        return exchange -> {
+            try (exchange) {
+                if (!method.equals(exchange.getRequestMethod())) {
+                    exchange.getResponseHeaders().set("Allow", method);
+                    respond(exchange, 405, "Method not allowed.");
+                    return;
+                }
+                String path = exchange.getRequestURI().getPath();
+                String context = exchange.getHttpContext().getPath();
+                boolean batch = path.equals(context + "/batch");
+                if (!batch && !path.equals(context) && !"GET".equals(method)) {
+                    respond(exchange, 404, "Not found.");
+                    return;
+                }
+                Codec codec = codec(exchange, method);
+                byte[] body;
+                try {
+                    body = endpoint.handle(exchange, codec, batch);
+                } catch (IllegalArgumentException | MathIllegalArgumentException e) {
+                    respond(exchange, 400, e.getMessage());
+                    return;
+                } catch (RuntimeException e) {
+                    respond(exchange, 500, "Internal error.");
+                    return;
+                }
+                if (body == null) {
+                    respond(exchange, 404, "Not found.");
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Type", codec.contentType());
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        };
+    }
+
+    private static Codec codec(HttpExchange exchange, String method) {
+        String type = exchange.getRequestHeaders().getFirst("GET".equals(method) ? "Accept" : "Content-Type");
+        return type != null && type.startsWith(BinaryCodec.CONTENT_TYPE) ? BINARY : JSON;
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> query(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = uri.getQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int split = parameter.indexOf('=');
+                if (split > 0) {
+                    parameters.put(parameter.substring(0, split), parameter.substring(split + 1));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    private static int count(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        long count = parseLong(query, name);
+        if (count < 0 || count > MAX_ENTRIES) {
+            throw new IllegalArgumentException("The " + name + " must be from 0 to " + MAX_ENTRIES + ".");
+        }
+        return (int) count;
+    }
+
+    private static long parseLong(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter " + name + ".");
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid parameter " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Handles the exchanges of one endpoint.
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+        /**
+         * Handle an exchange.
+         * @param exchange The exchange.
+         * @param codec The format of the exchange.
+         * @param batch If the request is for a batch.
+         * @return The body of the response, or null if there is no such resource.
+         * @throws IOException If the request could not be read.
+         */
+        byte[] handle(HttpExchange exchange, Codec codec, boolean batch) throws IOException;
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.toveri.openskill.service;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.MatchPrediction;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.batch.DependencyScheduler;
+import io.github.toveri.openskill.leaderboard.Leaderboard;
+import io.github.toveri.openskill.leaderboard.LeaderboardEntry;
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.store.RatingRegistry;
+import io.github.toveri.openskill.stream.MatchEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The operations of the rating service, independent of how they are requested.
+ * The ratings are held in a registry that keeps a leaderboard up to date as players are rated.
+ * The matches of a batch are rated in parallel, where matches sharing a player are rated one at a time in their order.
+ */
+final class RatingService {
+    private static final int STRIPE_COUNT = 64;
+
+    private final Model model;
+    private final Leaderboard leaderboard;
+    private final RatingRegistry registry;
+    private final DependencyScheduler scheduler;
+
+    /**
+     * Create a service without any ratings.
+     * @param model The model to rate and predict matches with.
+     */
+    RatingService(Model model) {
+        this.model = model;
+        this.leaderboard = new Leaderboard();
+        this.registry = new RatingRegistry(model, STRIPE_COUNT, leaderboard);
+        this.scheduler = new DependencyScheduler();
+    }
+
+    /**
+     * Rate matches in their order.
+     * @param matches The matches to rate.
+     * @return The ratings of the players of each match, right after it was rated.
+     * @throws IllegalArgumentException If any of the matches is invalid, in which case none is rated.
+     */
+    List<RatedMatch> rate(List<MatchEvent> matches) {
+        validate(matches);
+        int count = matches.size();
+        int[] keyOffsets = new int[count + 1];
+        for (int i = 0; i < count; i++) {
+            keyOffsets[i + 1] = keyOffsets[i] + matches.get(i).players().length;
+        }
+        long[] keys = new long[keyOffsets[count]];
+        for (int i = 0; i < count; i++) {
+            long[] players = matches.get(i).players();
+            System.arraycopy(players, 0, keys, keyOffsets[i], players.length);
+        }
+        RatedMatch[] rated = new RatedMatch[count];
+        scheduler.run(count, keyOffsets, keys, i -> rated[i] = rate(matches.get(i)));
+        return Arrays.asList(rated);
+    }
+
+    /**
+     * Predict the outcome of matches with the current ratings, where unknown players have the default rating.
+     * @param matches The matches to predict, of which the times are ignored.
+     * @return The prediction of each match.
+     * @throws IllegalArgumentException If any of the matches is invalid or has fewer than two teams.
+     */
+    List<Prediction> predict(List<MatchEvent> matches) {
+        validate(matches);
+        for (int i = 0; i < matches.size(); i++) {
+            if (matches.get(i).teamSizes().length < 2) {
+                throw new IllegalArgumentException("Match " + i + " has fewer than two teams to predict.");
+            }
+        }
+        List<Prediction> predictions = new ArrayList<>(matches.size());
+        for (MatchEvent event : matches) {
+            Match match = new Match(event.teamSizes().length);
+            int j = 0;
+            for (int size : event.teamSizes()) {
+                List<Rating> team = new ArrayList<>(size);
+                for (int k = 0; k < size; k++) {
+                    Rating rating = registry.get(event.players()[j++]);
+                    team.add(rating != null ? rating : model.rating());
+                }
+                match.getTeams().add(team);
+            }
+            MatchPrediction prediction = model.predict(match);
+            double[] winProbabilities = new double[prediction.winProbabilities().size()];
+            for (int i = 0; i < winProbabilities.length; i++) {
+                winProbabilities[i] = prediction.winProbabilities().get(i);
+            }
+            predictions.add(new Prediction(winProbabilities, prediction.drawProbability()));
+        }
+        return predictions;
+    }
+
+    /**
+     * Get the highest ranked players.
+     * @param count The maximum count of players.
+     * @return The entries of the players, highest rank first.
+     */
+    List<LeaderboardEntry> top(int count) {
+        return leaderboard.top(count);
+    }
+
+    /**
+     * Get the players ranked around a player.
+     * @param id The id of the player.
+     * @param before The maximum count of higher ranked players.
+     * @param after The maximum count of lower ranked players.
+     * @return The entries of the players, highest rank first, or an empty list if the player has no rating.
+     */
+    List<LeaderboardEntry> around(long id, int before, int after) {
+        return leaderboard.around(id, before, after);
+    }
+
+    private RatedMatch rate(MatchEvent match) {
+        long[] players = match.players();
+        double[] mu = new double[players.length];
+        double[] sigma = new double[players.length];
+        // The ratings are given as written, before a concurrent match of the same players could change them.
+        registry.rate(players, match.teamSizes(), match.ranks(), match.lowerIsBetter(), match.time(), mu, sigma);
+        return new RatedMatch(players, mu, sigma);
+    }
+
+    private static void validate(List<MatchEvent> matches) {
+        for (int i = 0; i < matches.size(); i++) {
+            if (!matches.get(i).isValid()) {
+                throw new IllegalArgumentException("Match " + i + " is invalid.");
+            }
+        }
+    }
+}
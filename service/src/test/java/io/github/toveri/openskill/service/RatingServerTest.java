@@ -0,0 +1,154 @@
+package io.github.toveri.openskill.service;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.PlackettLuce;
+import io.github.toveri.openskill.store.RatingRegistry;
+import io.github.toveri.openskill.stream.MatchEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RatingServerTest {
+    private static final double DELTA = 1e-12;
+
+    private final PlackettLuce model = new PlackettLuce();
+    private RatingServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = new RatingServer(model, 0);
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stop() {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    void testRateBatchBinary() throws Exception {
+        RatingRegistry expected = new RatingRegistry(model);
+        Random random = new Random(3);
+        List<MatchEvent> matches = new ArrayList<>();
+        for (int m = 0; m < 300; m++) {
+            long[] players = {random.nextInt(40), 40 + random.nextInt(40), 80 + random.nextInt(40)};
+            double[] ranks = {random.nextInt(3), random.nextInt(3)};
+            matches.add(new MatchEvent(m + 1, players, new int[]{1, 2}, ranks, m % 2 == 0));
+            expected.rate(players, new int[]{1, 2}, ranks, m % 2 == 0, m + 1);
+        }
+        HttpResponse<byte[]> response = post("/rate/batch", BinaryCodec.CONTENT_TYPE,
+                BinaryCodec.writeMatches(matches));
+        assertEquals(200, response.statusCode());
+        ByteBuffer in = ByteBuffer.wrap(response.body()).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(300, in.getInt());
+        for (int m = 0; m < 300; m++) {
+            assertEquals(3, in.getInt());
+            for (int j = 0; j < 3; j++) {
+                assertEquals(matches.get(m).players()[j], in.getLong());
+                in.getDouble();
+                in.getDouble();
+            }
+        }
+        // The last rating of each player is the one in the registry rated in order.
+        HttpResponse<byte[]> top = get("/leaderboard/top?count=120", BinaryCodec.CONTENT_TYPE);
+        ByteBuffer entries = ByteBuffer.wrap(top.body()).order(ByteOrder.LITTLE_ENDIAN);
+        int count = entries.getInt();
+        assertEquals(expected.size(), count);
+        for (int i = 0; i < count; i++) {
+            long id = entries.getLong();
+            assertEquals(i + 1, entries.getInt());
+            Rating rating = expected.get(id);
+            assertAll(
+                    () -> assertEquals(rating.mu, entries.getDouble(), DELTA),
+                    () -> assertEquals(rating.sigma, entries.getDouble(), DELTA)
+            );
+            entries.getDouble();
+        }
+    }
+
+    @Test
+    void testRateAndPredictJson() throws Exception {
+        HttpResponse<byte[]> rated = post("/rate", JsonCodec.CONTENT_TYPE,
+                "{\"time\": 5, \"players\": [1, 2], \"teamSizes\": [1, 1], \"ranks\": [1, 2]}"
+                        .getBytes(StandardCharsets.UTF_8));
+        Rating winner = model.rating();
+        Rating loser = model.rating();
+        model.rateInPlace(new Match(winner, loser));
+        assertAll(
+                () -> assertEquals(200, rated.statusCode()),
+                () -> assertEquals("{\"players\":[{\"id\":1,\"mu\":" + winner.mu + ",\"sigma\":" + winner.sigma
+                        + "},{\"id\":2,\"mu\":" + loser.mu + ",\"sigma\":" + loser.sigma + "}]}", text(rated))
+        );
+        HttpResponse<byte[]> predicted = post("/predict/batch", JsonCodec.CONTENT_TYPE,
+                "[{\"players\": [1, 2], \"teamSizes\": [1, 1]}, {\"players\": [2, 3], \"teamSizes\": [1, 1]}]"
+                        .getBytes(StandardCharsets.UTF_8));
+        List<Double> first = model.predictWin(new Match(winner, loser));
+        List<Double> second = model.predictWin(new Match(loser, model.rating()));
+        assertAll(
+                () -> assertEquals(200, predicted.statusCode()),
+                () -> assertTrue(text(predicted).startsWith("[{\"winProbabilities\":[" + first.get(0) + ","
+                        + first.get(1) + "]")),
+                () -> assertTrue(text(predicted).contains("{\"winProbabilities\":[" + second.get(0) + ","
+                        + second.get(1) + "]"))
+        );
+        HttpResponse<byte[]> around = get("/leaderboard/around?id=2&before=1&after=0", JsonCodec.CONTENT_TYPE);
+        assertTrue(text(around).matches("\\[\\{\"id\":1,\"rank\":1,.*},\\{\"id\":2,\"rank\":2,.*}]"));
+    }
+
+    @Test
+    void testRejectsInvalidRequests() throws Exception {
+        assertAll(
+                () -> assertEquals(400, post("/rate", JsonCodec.CONTENT_TYPE,
+                        "{\"players\": [1, 2], \"teamSizes\": [1]}".getBytes(StandardCharsets.UTF_8)).statusCode()),
+                () -> assertEquals(400, post("/rate/batch", JsonCodec.CONTENT_TYPE,
+                        "[{\"players\": [1, 2]".getBytes(StandardCharsets.UTF_8)).statusCode()),
+                () -> assertEquals(400, post("/predict", BinaryCodec.CONTENT_TYPE, new byte[]{1, 0}).statusCode()),
+                () -> assertEquals(400, post("/rate", JsonCodec.CONTENT_TYPE,
+                        "{\"players\": [1, 1], \"teamSizes\": [1, 1]}".getBytes(StandardCharsets.UTF_8)).statusCode()),
+                () -> assertEquals(400, post("/rate", JsonCodec.CONTENT_TYPE,
+                        "{\"players\": [1], \"teamSizes\": [4294967297]}".getBytes(StandardCharsets.UTF_8))
+                        .statusCode()),
+                () -> assertEquals(400, post("/predict", JsonCodec.CONTENT_TYPE,
+                        "{\"players\": [1, 2], \"teamSizes\": [2]}".getBytes(StandardCharsets.UTF_8)).statusCode()),
+                () -> assertEquals(405, get("/rate", JsonCodec.CONTENT_TYPE).statusCode()),
+                () -> assertEquals(404, get("/leaderboard/bottom", JsonCodec.CONTENT_TYPE).statusCode())
+        );
+    }
+
+    private HttpResponse<byte[]> post(String path, String contentType, byte[] body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path)).header("Accept", accept).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.port() + path);
+    }
+
+    private static String text(HttpResponse<byte[]> response) {
+        return new String(response.body(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.toveri.openskill.models;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The pair loop kernel using the incubating Vector API, evaluating as many opponents q per step as there are lanes.
+ * Only loaded through {@link PairKernel#VECTOR} when the jdk.incubator.vector module is present.
+ * Lanes are summed in a different order than the scalar loops, so results are equal up to floating point rounding.
+ */
+final class VectorPairKernel implements PairKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void bradleyTerryFull(Workspace workspace, int teamCount, double betaSq) {
+        double[] teamMu = workspace.teamMu;
+        double[] teamSigmaSq = workspace.teamSigmaSq;
+        double[] teamRank = workspace.teamRank;
+        DoubleVector one = DoubleVector.broadcast(SPECIES, 1.0);
+        DoubleVector half = DoubleVector.broadcast(SPECIES, 0.5);
+        DoubleVector zero = DoubleVector.zero(SPECIES);
+        for (int i = 0; i < teamCount; i++) {
+            DoubleVector muI = DoubleVector.broadcast(SPECIES, teamMu[i]);
+            DoubleVector sigmaSqI = DoubleVector.broadcast(SPECIES, teamSigmaSq[i]);
+            DoubleVector sigmaI = DoubleVector.broadcast(SPECIES, Math.sqrt(teamSigmaSq[i]));
+            DoubleVector rankI = DoubleVector.broadcast(SPECIES, teamRank[i]);
+            DoubleVector omega = zero;
+            DoubleVector delta = zero;
+            for (int q = 0; q < teamCount; q += SPECIES.length()) {
+                VectorMask<Double> mask = pairMask(i, q, teamCount);
+                DoubleVector muQ = DoubleVector.fromArray(SPECIES, teamMu, q, mask);
+                DoubleVector sigmaSqQ = DoubleVector.fromArray(SPECIES, teamSigmaSq, q, mask);
+                DoubleVector rankQ = DoubleVector.fromArray(SPECIES, teamRank, q, mask);
+                DoubleVector cIq = sigmaSqI.add(sigmaSqQ).add(2 * betaSq).lanewise(VectorOperators.SQRT);
+                DoubleVector pIq = one.div(one.add(muQ.sub(muI).div(cIq).lanewise(VectorOperators.EXP)));
+                DoubleVector sigmaSqOverCIq = sigmaSqI.div(cIq);
+                DoubleVector s = zero
+                        .blend(one, rankQ.compare(VectorOperators.GT, rankI))
+                        .blend(half, rankQ.compare(VectorOperators.EQ, rankI));
+                DoubleVector gamma = sigmaI.div(cIq);
+                omega = omega.add(sigmaSqOverCIq.mul(s.sub(pIq)), mask);
+                delta = delta.add(gamma.mul(sigmaSqOverCIq).div(cIq).mul(pIq).mul(one.sub(pIq)), mask);
+            }
+            workspace.omega[i] = omega.reduceLanes(VectorOperators.ADD);
+            workspace.delta[i] = delta.reduceLanes(VectorOperators.ADD);
+        }
+    }
+
+    private static VectorMask<Double> pairMask(int i, int q, int teamCount) {
+        VectorMask<Double> mask = SPECIES.indexInRange(q, teamCount);
+        if (i >= q && i < q + SPECIES.length()) {
+            // A team is not paired with itself.
+            mask = mask.andNot(VectorMask.fromLong(SPECIES, 1L << (i - q)));
+        }
+        return mask;
+    }
+}
@@ -73,9 +73,20 @@ public class Common {
      * @return A number.
      */
     public static double v(double x, double t) {
+        return v(StandardNormal.EXACT, x, t);
+    }
+
+    /**
+     * The function V defined in the Weng-Lin paper.
+     * @param normal The standard normal distribution functions to use.
+     * @param x A number.
+     * @param t A number.
+     * @return A number.
+     */
+    public static double v(StandardNormal normal, double x, double t) {
         double xt = x - t;
-        double denom = Statistics.phiMajor(xt);
-        return denom > 0 ? Statistics.phiMinor(xt) / denom : -xt;
+        double denom = normal.phiMajor(xt);
+        return denom > 0 ? normal.phiMinor(xt) / denom : -xt;
     }
 
     /**
@@ -85,10 +96,21 @@ public class Common {
      * @return A number.
      */
     public static double w(double x, double t) {
+        return w(StandardNormal.EXACT, x, t);
+    }
+
+    /**
+     * The function W defined in the Weng-Lin paper.
+     * @param normal The standard normal distribution functions to use.
+     * @param x A number.
+     * @param t A number.
+     * @return A number.
+     */
+    public static double w(StandardNormal normal, double x, double t) {
         double xt = x - t;
-        double denom = Statistics.phiMajor(xt);
+        double denom = normal.phiMajor(xt);
         if (denom > 0) {
-            return v(x, t) * (v(x, t) + xt);
+            return v(normal, x, t) * (v(normal, x, t) + xt);
         }
         return x < 0 ? 1 : 0;
     }
@@ -100,10 +122,21 @@ public class Common {
      * @return A number.
      */
     public static double vt(double x, double t) {
+        return vt(StandardNormal.EXACT, x, t);
+    }
+
+    /**
+     * The function Ṽ defined in the Weng-Lin paper.
+     * @param normal The standard normal distribution functions to use.
+     * @param x A number.
+     * @param t A number.
+     * @return A number.
+     */
+    public static double vt(StandardNormal normal, double x, double t) {
         double xx = Math.abs(x);
-        double denom = Statistics.phiMajor(t - xx) - Statistics.phiMajor(-t - xx);
+        double denom = normal.phiMajor(t - xx) - normal.phiMajor(-t - xx);
         if (denom > 0) {
-            double a = Statistics.phiMinor(-t - xx) - Statistics.phiMinor(t - xx);
+            double a = normal.phiMinor(-t - xx) - normal.phiMinor(t - xx);
             return (x < 0 ? -a : a) / denom;
         }
         return x < 0 ? -x - t : -x + t;
@@ -116,13 +149,97 @@ public class Common {
      * @return A number.
      */
     public static double wt(double x, double t) {
+        return wt(StandardNormal.EXACT, x, t);
+    }
+
+    /**
+     * The function W̃ defined in the Weng-Lin paper.
+     * @param normal The standard normal distribution functions to use.
+     * @param x A number.
+     * @param t A number.
+     * @return A number.
+     */
+    public static double wt(StandardNormal normal, double x, double t) {
         double xx = Math.abs(x);
-        double denom = Statistics.phiMajor(t - xx) - Statistics.phiMajor(-t - xx);
-        return denom > 0 ? ((t - xx) * Statistics.phiMinor(t - xx) + (t + xx) * Statistics.phiMinor(-t - xx)) / denom
-                + vt(x, t) * vt(x, t)
+        double denom = normal.phiMajor(t - xx) - normal.phiMajor(-t - xx);
+        return denom > 0 ? ((t - xx) * normal.phiMinor(t - xx) + (t + xx) * normal.phiMinor(-t - xx)) / denom
+                + vt(normal, x, t) * vt(normal, x, t)
                 : 1.0;
     }
 
+    /**
+     * The functions V and W defined in the Weng-Lin paper, evaluated together.
+     * @param x A number.
+     * @param t A number.
+     * @param out The array to write V and W to, at index 0 and 1.
+     * @return If the denominator was positive, or false if the limit of the functions was used.
+     */
+    public static boolean vw(double x, double t, double[] out) {
+        return vw(StandardNormal.EXACT, x, t, out);
+    }
+
+    /**
+     * The functions V and W defined in the Weng-Lin paper, evaluated together.
+     * Equal to calling {@link #v(StandardNormal, double, double)} and {@link #w(StandardNormal, double, double)},
+     * but evaluating the normal distribution functions only once.
+     * @param normal The standard normal distribution functions to use.
+     * @param x A number.
+     * @param t A number.
+     * @param out The array to write V and W to, at index 0 and 1.
+     * @return If the denominator was positive, or false if the limit of the functions was used.
+     */
+    public static boolean vw(StandardNormal normal, double x, double t, double[] out) {
+        double xt = x - t;
+        double denom = normal.phiMajor(xt);
+        if (denom > 0) {
+            double v = normal.phiMinor(xt) / denom;
+            out[0] = v;
+            out[1] = v * (v + xt);
+            return true;
+        }
+        out[0] = -xt;
+        out[1] = x < 0 ? 1 : 0;
+        return false;
+    }
+
+    /**
+     * The functions Ṽ and W̃ defined in the Weng-Lin paper, evaluated together.
+     * @param x A number.
+     * @param t A number.
+     * @param out The array to write Ṽ and W̃ to, at index 0 and 1.
+     * @return If the denominator was positive, or false if the limit of the functions was used.
+     */
+    public static boolean vwt(double x, double t, double[] out) {
+        return vwt(StandardNormal.EXACT, x, t, out);
+    }
+
+    /**
+     * The functions Ṽ and W̃ defined in the Weng-Lin paper, evaluated together.
+     * Equal to calling {@link #vt(StandardNormal, double, double)} and {@link #wt(StandardNormal, double, double)},
+     * but evaluating the normal distribution functions only once.
+     * @param normal The standard normal distribution functions to use.
+     * @param x A number.
+     * @param t A number.
+     * @param out The array to write Ṽ and W̃ to, at index 0 and 1.
+     * @return If the denominator was positive, or false if the limit of the functions was used.
+     */
+    public static boolean vwt(StandardNormal normal, double x, double t, double[] out) {
+        double xx = Math.abs(x);
+        double denom = normal.phiMajor(t - xx) - normal.phiMajor(-t - xx);
+        if (denom > 0) {
+            double phiMinorUpper = normal.phiMinor(t - xx);
+            double phiMinorLower = normal.phiMinor(-t - xx);
+            double a = phiMinorLower - phiMinorUpper;
+            double vt = (x < 0 ? -a : a) / denom;
+            out[0] = vt;
+            out[1] = ((t - xx) * phiMinorUpper + (t + xx) * phiMinorLower) / denom + vt * vt;
+            return true;
+        }
+        out[0] = x < 0 ? -x - t : -x + t;
+        out[1] = 1.0;
+        return false;
+    }
+
     /**
      * A container for a pair of objects.
      * @param a Value a.
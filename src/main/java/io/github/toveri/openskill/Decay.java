@@ -0,0 +1,58 @@
+package io.github.toveri.openskill;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalArgumentException;
+
+/**
+ * Inflation of the standard deviation of inactive ratings, applied lazily from the time a rating was last active.
+ * Time is split into periods of equal length, and for every period boundary passed since the rating was active
+ * tau squared is added to its variance, which is what a job adding tau to every rating once per period would do.
+ * As the variances just add up, any count of periods is applied at once when the rating is read or rated.
+ * @param period The length of a period, in the unit of the times given.
+ * @param tau The standard deviation added per period.
+ */
+public record Decay(long period, double tau) {
+    /**
+     * Inflation of the standard deviation of inactive ratings.
+     * @param period The length of a period, in the unit of the times given.
+     * @param tau The standard deviation added per period.
+     */
+    public Decay {
+        if (period < 1) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, period, 1);
+        }
+    }
+
+    /**
+     * Count the period boundaries passed between two times.
+     * @param lastActive The time the rating was last active.
+     * @param time The time to count up to.
+     * @return The count of periods, or 0 if the time is not after the time last active.
+     */
+    public long periods(long lastActive, long time) {
+        return Math.max(0, Math.floorDiv(time, period) - Math.floorDiv(lastActive, period));
+    }
+
+    /**
+     * Inflate a standard deviation for the periods passed.
+     * @param sigma The standard deviation when last active.
+     * @param lastActive The time the rating was last active.
+     * @param time The time to inflate up to.
+     * @return The inflated standard deviation.
+     */
+    public double sigma(double sigma, long lastActive, long time) {
+        long periods = periods(lastActive, time);
+        return periods > 0 ? Math.sqrt((sigma * sigma) + periods * (tau * tau)) : sigma;
+    }
+
+    /**
+     * Inflate a rating for the periods passed.
+     * @param rating The rating when last active.
+     * @param lastActive The time the rating was last active.
+     * @param time The time to inflate up to.
+     * @return A new rating with the inflated standard deviation.
+     */
+    public Rating apply(Rating rating, long lastActive, long time) {
+        return new Rating(rating.mu, sigma(rating.sigma, lastActive, time));
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.toveri.openskill;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalArgumentException;
+
+/**
+ * Standard normal distribution functions using rational approximations.
+ * See {@link StandardNormal#FAST} for the accuracy.
+ */
+final class FastStandardNormal implements StandardNormal {
+    private static final double ONE_OVER_SQRT_2PI = 0.398942280401432677939946059934;
+    private static final double SQRT_32 = 5.656854249492380195206754896838;
+    private static final double[] A = {
+            2.2352520354606839287, 161.02823106855587881, 1067.6894854603709582, 18154.981253343561249,
+            0.065682337918207449113
+    };
+    private static final double[] B = {
+            47.20258190468824187, 976.09855173777669322, 10260.932208618978205, 45507.789335026729956
+    };
+    private static final double[] C = {
+            0.39894151208813466764, 8.8831497943883759412, 93.506656132177855979, 597.27027639480026226,
+            2494.5375852903726711, 6848.1904505362823326, 11602.651437647350124, 9842.7148383839780218,
+            1.0765576773720192317e-8
+    };
+    private static final double[] D = {
+            22.266688044328115691, 235.38790178262499861, 1519.377599407554805, 6485.558298266760755,
+            18615.571640885098091, 34900.952721145977266, 38912.003286093271411, 19685.429676859990727
+    };
+    private static final double[] P = {
+            0.21589853405795699, 0.1274011611602473639, 0.022235277870649807, 0.001421619193227893466,
+            2.9112874951168792e-5, 0.02307344176494017303
+    };
+    private static final double[] Q = {
+            1.28426009614491121, 0.468238212480865118, 0.0659881378689285515, 0.00378239633202758244,
+            7.29751555083966205e-5
+    };
+
+    @Override
+    public double phiMajor(double x) {
+        double y = Math.abs(x);
+        if (y <= 0.67448975) {
+            double xnum = 0.0;
+            double xden = 0.0;
+            if (y > 1.11e-16) {
+                double xsq = x * x;
+                xnum = A[4] * xsq;
+                xden = xsq;
+                for (int i = 0; i < 3; i++) {
+                    xnum = (xnum + A[i]) * xsq;
+                    xden = (xden + B[i]) * xsq;
+                }
+            }
+            return 0.5 + x * (xnum + A[3]) / (xden + B[3]);
+        }
+        double tail;
+        if (y <= SQRT_32) {
+            double xnum = C[8] * y;
+            double xden = y;
+            for (int i = 0; i < 7; i++) {
+                xnum = (xnum + C[i]) * y;
+                xden = (xden + D[i]) * y;
+            }
+            tail = expHalfSquare(y) * (xnum + C[7]) / (xden + D[7]);
+        } else if (y < 38.5) {
+            double xsq = 1.0 / (x * x);
+            double xnum = P[5] * xsq;
+            double xden = xsq;
+            for (int i = 0; i < 4; i++) {
+                xnum = (xnum + P[i]) * xsq;
+                xden = (xden + Q[i]) * xsq;
+            }
+            double temp = xsq * (xnum + P[4]) / (xden + Q[4]);
+            tail = expHalfSquare(y) * (ONE_OVER_SQRT_2PI - temp) / y;
+        } else if (Double.isNaN(x)) {
+            return x;
+        } else {
+            tail = 0.0;
+        }
+        // The approximations give the upper tail of |x|.
+        return x > 0 ? 1.0 - tail : tail;
+    }
+
+    @Override
+    public double phiMajorInverse(double x) {
+        if (x < 0 || x > 1) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.OUT_OF_RANGE_SIMPLE, x, 0, 1);
+        }
+        double q = x - 0.5;
+        if (Math.abs(q) <= 0.425) {
+            double r = 0.180625 - q * q;
+            return q * (((((((r * 2509.0809287301226727 + 33430.575583588128105) * r
+                    + 67265.770927008700853) * r + 45921.953931549871457) * r
+                    + 13731.693765509461125) * r + 1971.5909503065514427) * r
+                    + 133.14166789178437745) * r + 3.387132872796366608)
+                    / (((((((r * 5226.495278852545925 + 28729.085735721942674) * r
+                    + 39307.89580009271061) * r + 21213.794301586595867) * r
+                    + 5394.1960214247511077) * r + 687.1870074920579083) * r
+                    + 42.313330701600911252) * r + 1.0);
+        }
+        double r = q < 0 ? x : 1 - x;
+        if (r == 0) {
+            return q < 0 ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        r = Math.sqrt(-Math.log(r));
+        double value;
+        if (r <= 5.0) {
+            r -= 1.6;
+            value = (((((((r * 7.7454501427834140764e-4 + 0.0227238449892691845833) * r
+                    + 0.24178072517745061177) * r + 1.27045825245236838258) * r
+                    + 3.64784832476320460504) * r + 5.7694972214606914055) * r
+                    + 4.6303378461565452959) * r + 1.42343711074968357734)
+                    / (((((((r * 1.05075007164441684324e-9 + 5.475938084995344946e-4) * r
+                    + 0.0151986665636164571966) * r + 0.14810397642748007459) * r
+                    + 0.68976733498510000455) * r + 1.6763848301838038494) * r
+                    + 2.05319162663775882187) * r + 1.0);
+        } else {
+            r -= 5.0;
+            value = (((((((r * 2.01033439929228813265e-7 + 2.71155556874348757815e-5) * r
+                    + 0.0012426609473880784386) * r + 0.026532189526576123093) * r
+                    + 0.29656057182850489123) * r + 1.7848265399172913358) * r
+                    + 5.4637849111641143699) * r + 6.6579046435011037772)
+                    / (((((((r * 2.04426310338993978564e-15 + 1.4215117583164458887e-7) * r
+                    + 1.8463183175100546818e-5) * r + 7.868691311456132591e-4) * r
+                    + 0.0148753612908506148525) * r + 0.13692988092273580531) * r
+                    + 0.59983220655588793769) * r + 1.0);
+        }
+        return q < 0 ? -value : value;
+    }
+
+    @Override
+    public double phiMinor(double x) {
+        return ONE_OVER_SQRT_2PI * Math.exp(-0.5 * x * x);
+    }
+
+    private static double expHalfSquare(double y) {
+        // Split y squared in an exact and a small part, to keep the precision of exp(-y^2 / 2) in the tails.
+        double ySplit = Math.floor(y * 16) / 16;
+        double rest = (y - ySplit) * (y + ySplit);
+        return Math.exp(-ySplit * ySplit * 0.5) * Math.exp(-rest * 0.5);
+    }
+}
@@ -7,6 +7,12 @@ import java.util.List;
  */
 @FunctionalInterface
 public interface Gamma {
+    /**
+     * The default gamma function, the square root of the team's sigma squared over c.
+     * The models recognize it and evaluate it inline.
+     */
+    PrimitiveGamma DEFAULT = (c, k, mu, sigmaSq, ratingMu, ratingSigma, from, to, rank) -> Math.sqrt(sigmaSq) / c;
+
     /**
      * The function that controls how fast variance is reduced.
      * @param c The value for c.
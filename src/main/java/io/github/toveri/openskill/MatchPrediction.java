@@ -0,0 +1,16 @@
+package io.github.toveri.openskill;
+
+import java.util.List;
+
+/**
+ * The predictions for a match, as predicted together by a model.
+ * @param winProbabilities The probability for each team's win.
+ * @param drawProbability The probability for a draw.
+ * @param rankPredictions Each team's most probable rank and that probability.
+ */
+public record MatchPrediction(
+        List<Double> winProbabilities,
+        double drawProbability,
+        List<List<Double>> rankPredictions
+) {
+}
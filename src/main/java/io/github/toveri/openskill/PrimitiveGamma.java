@@ -0,0 +1,40 @@
+package io.github.toveri.openskill;
+
+import java.util.List;
+
+/**
+ * A gamma function reading the ratings of the team from flat arrays, so the models need not create any ratings.
+ * Functions that only depend on the team's aggregates can ignore the arrays.
+ */
+@FunctionalInterface
+public interface PrimitiveGamma extends Gamma {
+    /**
+     * The function that controls how fast variance is reduced.
+     * The ratings of the team are found from index from up to (excluding) to.
+     * @param c The value for c.
+     * @param k The count of teams.
+     * @param mu The mean value.
+     * @param sigmaSq The value for standard deviation squared.
+     * @param ratingMu The mean values of the ratings.
+     * @param ratingSigma The standard deviations of the ratings.
+     * @param from The index of the first rating of the team.
+     * @param to The index after the last rating of the team.
+     * @param rank The rank of the team.
+     * @return The gamma value.
+     */
+    double gamma(double c, int k, double mu, double sigmaSq, double[] ratingMu, double[] ratingSigma, int from, int to,
+                 double rank);
+
+    @Override
+    default double gamma(double c, int k, double mu, double sigmaSq, List<Rating> team, double rank) {
+        int size = team.size();
+        double[] ratingMu = new double[size];
+        double[] ratingSigma = new double[size];
+        for (int j = 0; j < size; j++) {
+            Rating rating = team.get(j);
+            ratingMu[j] = rating.mu;
+            ratingSigma[j] = rating.sigma;
+        }
+        return gamma(c, k, mu, sigmaSq, ratingMu, ratingSigma, 0, size, rank);
+    }
+}
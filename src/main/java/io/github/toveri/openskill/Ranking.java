@@ -0,0 +1,153 @@
+package io.github.toveri.openskill;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalArgumentException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ranking of values on primitive arrays, where ties get the minimum rank (as in 1, 2, 2, 4).
+ * Input that is already sorted, the common case, is detected and ranked in linear time.
+ */
+public final class Ranking {
+    private static final int CACHED_RANKS = 64;
+    private static final List<List<Double>> defaultRanks = createDefaultRanks();
+
+    private Ranking() {}
+
+    /**
+     * Rank the values, so the lowest value gets rank 1, and ties get the lowest rank of the tie.
+     * @param values The values to rank.
+     * @return The rank of each value.
+     */
+    public static List<Double> rank(List<Double> values) {
+        int count = values.size();
+        double[] valuesArray = new double[count];
+        boolean increasing = true;
+        for (int i = 0; i < count; i++) {
+            valuesArray[i] = values.get(i);
+            if (Double.isNaN(valuesArray[i])) {
+                throw new MathIllegalArgumentException(LocalizedCoreFormats.NAN_NOT_ALLOWED);
+            }
+            increasing &= i == 0 || valuesArray[i - 1] < valuesArray[i];
+        }
+        if (increasing) {
+            return defaultRanks(count);
+        }
+        double[] ranks = new double[count];
+        rank(valuesArray, count, new int[count], new int[count], ranks);
+        List<Double> ranksList = new ArrayList<>(count);
+        for (double rank : ranks) {
+            ranksList.add(rank);
+        }
+        return Collections.unmodifiableList(ranksList);
+    }
+
+    /**
+     * Get the ranks 1 to count, as given to teams listed in order without ties.
+     * @param count The count of ranks.
+     * @return The list of ranks.
+     */
+    public static List<Double> defaultRanks(int count) {
+        if (count <= CACHED_RANKS) {
+            return defaultRanks.get(count);
+        }
+        List<Double> ranks = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            ranks.add((double) i);
+        }
+        return Collections.unmodifiableList(ranks);
+    }
+
+    /**
+     * Rank the first count values, so the lowest value gets rank 1, and ties get the lowest rank of the tie.
+     * @param values The values to rank.
+     * @param count The count of values to rank.
+     * @param order The array to write the indices of the values in sorted order to, ties in their given order.
+     * @param scratch Scratch space of at least count elements.
+     * @param ranks The array to write the rank of each value to.
+     */
+    public static void rank(double[] values, int count, int[] order, int[] scratch, double[] ranks) {
+        boolean increasing = true;
+        boolean nonDecreasing = true;
+        for (int i = 0; i < count; i++) {
+            if (Double.isNaN(values[i])) {
+                throw new MathIllegalArgumentException(LocalizedCoreFormats.NAN_NOT_ALLOWED);
+            }
+            order[i] = i;
+            if (i > 0) {
+                increasing &= values[i - 1] < values[i];
+                nonDecreasing &= values[i - 1] <= values[i];
+            }
+        }
+        if (increasing) {
+            for (int i = 0; i < count; i++) {
+                ranks[i] = i + 1;
+            }
+            return;
+        }
+        if (!nonDecreasing) {
+            sort(values, count, order, scratch);
+        }
+        for (int i = 0; i < count; i++) {
+            int index = order[i];
+            if (i > 0 && values[index] == values[order[i - 1]]) {
+                ranks[index] = ranks[order[i - 1]];
+            } else {
+                ranks[index] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Sort the indices of the first count values by value, keeping ties in their given order.
+     * This is a bottom up merge sort, where already sorted runs are merged in linear time.
+     * @param values The values to sort by.
+     * @param count The count of values to sort.
+     * @param order The indices to sort, usually 0 to count - 1.
+     * @param scratch Scratch space of at least count elements.
+     */
+    public static void sort(double[] values, int count, int[] order, int[] scratch) {
+        int[] from = order;
+        int[] to = scratch;
+        for (int width = 1; width < count; width *= 2) {
+            for (int lo = 0; lo < count; lo += 2 * width) {
+                int mid = Math.min(lo + width, count);
+                int hi = Math.min(lo + 2 * width, count);
+                if (mid == hi || values[from[mid - 1]] <= values[from[mid]]) {
+                    System.arraycopy(from, lo, to, lo, hi - lo);
+                    continue;
+                }
+                int l = lo;
+                int r = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (r >= hi || (l < mid && values[from[l]] <= values[from[r]])) {
+                        to[k] = from[l++];
+                    } else {
+                        to[k] = from[r++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != order) {
+            System.arraycopy(from, 0, order, 0, count);
+        }
+    }
+
+    private static List<List<Double>> createDefaultRanks() {
+        List<List<Double>> ranks = new ArrayList<>(CACHED_RANKS + 1);
+        for (int count = 0; count <= CACHED_RANKS; count++) {
+            Double[] values = new Double[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = (double) (i + 1);
+            }
+            ranks.add(List.of(values));
+        }
+        return ranks;
+    }
+}
@@ -69,6 +69,15 @@ public class Rating {
      * @return The ordinal value of the rating.
      */
     public double ordinal() {
-        return mu - Constants.Z * sigma;
+        return ordinal(Constants.Z);
+    }
+
+    /**
+     * Return the ordinal of the rating, the given count of standard deviations below the mean value.
+     * @param z The count of standard deviations.
+     * @return The ordinal value of the rating.
+     */
+    public double ordinal(double z) {
+        return mu - z * sigma;
     }
 }
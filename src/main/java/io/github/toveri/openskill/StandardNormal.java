@@ -0,0 +1,57 @@
+package io.github.toveri.openskill;
+
+/**
+ * The functions of a standard normal distribution, used to calculate rating updates and predictions.
+ * Models choose an implementation through their options, and default to {@link #EXACT}.
+ */
+public interface StandardNormal {
+    /**
+     * The general purpose Hipparchus implementation, as used by {@link Statistics}.
+     */
+    StandardNormal EXACT = new StandardNormal() {
+        @Override
+        public double phiMajor(double x) {
+            return Statistics.phiMajor(x);
+        }
+
+        @Override
+        public double phiMajorInverse(double x) {
+            return Statistics.phiMajorInverse(x);
+        }
+
+        @Override
+        public double phiMinor(double x) {
+            return Statistics.phiMinor(x);
+        }
+    };
+    /**
+     * A dedicated implementation using rational approximations, several times faster than {@link #EXACT}.
+     * The CDF uses the rational Chebyshev approximations of Cody (1969),
+     * and the inverse CDF algorithm AS 241 of Wichura (1988).
+     * Compared to {@link #EXACT}, the measured absolute error is at most 5.6e-16 for the CDF and 1.1e-16 for the PDF.
+     * The inverse CDF differs by at most 1.3e-8 for values from 1e-10 to 1 - 1e-10, which is mostly the error of
+     * {@link #EXACT} itself, and unlike it stays finite down to the smallest probabilities.
+     */
+    StandardNormal FAST = new FastStandardNormal();
+
+    /**
+     * The cumulative distribution function (CDF).
+     * @param x The input value to calculate.
+     * @return The calculated value.
+     */
+    double phiMajor(double x);
+
+    /**
+     * The inverse cumulative distribution function.
+     * @param x The input value to calculate.
+     * @return The calculated value.
+     */
+    double phiMajorInverse(double x);
+
+    /**
+     * The probability density function (PDF).
+     * @param x The value to calculate.
+     * @return The calculated value.
+     */
+    double phiMinor(double x);
+}
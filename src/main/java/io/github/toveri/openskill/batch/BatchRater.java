@@ -0,0 +1,82 @@
+package io.github.toveri.openskill.batch;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.RateOptions;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.Model;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Rates a list of matches in place, running matches without common ratings in parallel.
+ * A match waits for every earlier match sharing a rating object with it,
+ * so the ratings end up exactly as if the matches were rated in place one by one in order.
+ */
+public final class BatchRater {
+    private final Model model;
+    private final DependencyScheduler scheduler;
+
+    /**
+     * Create a batch rater using the common fork join pool.
+     * @param model The model to rate with.
+     */
+    public BatchRater(Model model) {
+        this(model, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a batch rater.
+     * @param model The model to rate with.
+     * @param pool The pool to rate matches on.
+     */
+    public BatchRater(Model model, ForkJoinPool pool) {
+        this.model = model;
+        this.scheduler = new DependencyScheduler(pool);
+    }
+
+    /**
+     * Rate the matches in place in the given order, using the default options.
+     * @param matches The matches to rate.
+     */
+    public void rateAll(List<Match> matches) {
+        rateAll(matches, null);
+    }
+
+    /**
+     * Rate the matches in place in the given order.
+     * @param matches The matches to rate.
+     * @param options The options of each match, with null elements for the default options, or null for all.
+     */
+    public void rateAll(List<Match> matches, List<RateOptions> options) {
+        int matchCount = matches.size();
+        int[] keyOffsets = new int[matchCount + 1];
+        for (int i = 0; i < matchCount; i++) {
+            int ratingCount = 0;
+            for (List<Rating> team : matches.get(i).getTeams()) {
+                ratingCount += team.size();
+            }
+            keyOffsets[i + 1] = keyOffsets[i] + ratingCount;
+        }
+        // Ratings are told apart by identity, as that is what rating in place updates.
+        Map<Rating, Long> ids = new IdentityHashMap<>();
+        long[] keys = new long[keyOffsets[matchCount]];
+        int k = 0;
+        for (Match match : matches) {
+            for (List<Rating> team : match.getTeams()) {
+                for (Rating rating : team) {
+                    Long id = ids.get(rating);
+                    if (id == null) {
+                        id = (long) ids.size();
+                        ids.put(rating, id);
+                    }
+                    keys[k++] = id;
+                }
+            }
+        }
+        scheduler.run(matchCount, keyOffsets, keys,
+                i -> model.rateInPlace(matches.get(i), options != null ? options.get(i) : null));
+    }
+}
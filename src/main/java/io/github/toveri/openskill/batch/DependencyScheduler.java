@@ -0,0 +1,172 @@
+package io.github.toveri.openskill.batch;
+
+import io.github.toveri.openskill.internal.LongIntMap;
+
+import java.util.Arrays;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs an ordered list of tasks in parallel, where each task waits for the earlier tasks it conflicts with.
+ * Every task has a set of keys, such as the players of a match, and two tasks conflict when they share a key.
+ * Tasks that conflict run one at a time in their given order, so the result is the same as running them all in order.
+ */
+public final class DependencyScheduler {
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a scheduler running tasks on the common fork join pool.
+     */
+    public DependencyScheduler() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a scheduler running tasks on the given pool.
+     * @param pool The pool to run tasks on.
+     */
+    public DependencyScheduler(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Run the tasks, and wait for all of them to finish.
+     * Task i has the keys from {@code keyOffsets[i]} up to {@code keyOffsets[i + 1]}.
+     * If a task throws, no more tasks are started, and once the tasks already running have finished,
+     * the first exception is rethrown with any later ones suppressed.
+     * @param taskCount The count of tasks.
+     * @param keyOffsets The offset of the keys of each task, and the end of the last task's keys.
+     * @param keys The keys of all tasks.
+     * @param task The task to run, given its index.
+     */
+    public void run(int taskCount, int[] keyOffsets, long[] keys, IntConsumer task) {
+        if (taskCount == 0) {
+            return;
+        }
+        Graph graph = Graph.build(taskCount, keyOffsets, keys);
+        Root root = new Root(graph, task);
+        pool.invoke(root);
+        Throwable failure = root.failure.get();
+        if (failure instanceof RuntimeException e) {
+            throw e;
+        }
+        if (failure instanceof Error e) {
+            throw e;
+        }
+        if (failure != null) {
+            throw new IllegalStateException(failure);
+        }
+    }
+
+    /**
+     * The tasks each task has to finish before, as compressed rows, the count of tasks each one waits for,
+     * and the tasks waiting for none.
+     */
+    private record Graph(int taskCount, int[] successorOffsets, int[] successors, AtomicIntegerArray pending,
+                         int[] sources) {
+        static Graph build(int taskCount, int[] keyOffsets, long[] keys) {
+            LongIntMap lastTask = new LongIntMap(keyOffsets[taskCount]);
+            int[] lastSuccessor = new int[taskCount];
+            Arrays.fill(lastSuccessor, -1);
+            int[] edgeFrom = new int[Math.max(16, taskCount)];
+            int[] edgeTo = new int[edgeFrom.length];
+            int edgeCount = 0;
+            int[] pending = new int[taskCount];
+            int[] successorCounts = new int[taskCount + 1];
+            for (int i = 0; i < taskCount; i++) {
+                for (int k = keyOffsets[i]; k < keyOffsets[i + 1]; k++) {
+                    int previous = lastTask.put(keys[k], i);
+                    // Depending on the last earlier task of every key orders all earlier tasks of that key.
+                    if (previous < 0 || previous == i || lastSuccessor[previous] == i) {
+                        continue;
+                    }
+                    lastSuccessor[previous] = i;
+                    if (edgeCount == edgeFrom.length) {
+                        edgeFrom = Arrays.copyOf(edgeFrom, edgeCount * 2);
+                        edgeTo = Arrays.copyOf(edgeTo, edgeCount * 2);
+                    }
+                    edgeFrom[edgeCount] = previous;
+                    edgeTo[edgeCount] = i;
+                    edgeCount++;
+                    pending[i]++;
+                    successorCounts[previous + 1]++;
+                }
+            }
+            for (int i = 0; i < taskCount; i++) {
+                successorCounts[i + 1] += successorCounts[i];
+            }
+            int[] successors = new int[edgeCount];
+            int[] fill = Arrays.copyOf(successorCounts, taskCount);
+            for (int e = 0; e < edgeCount; e++) {
+                successors[fill[edgeFrom[e]]++] = edgeTo[e];
+            }
+            int sourceCount = 0;
+            int[] sources = new int[taskCount];
+            for (int i = 0; i < taskCount; i++) {
+                if (pending[i] == 0) {
+                    sources[sourceCount++] = i;
+                }
+            }
+            return new Graph(taskCount, successorCounts, successors, new AtomicIntegerArray(pending),
+                    Arrays.copyOf(sources, sourceCount));
+        }
+    }
+
+    private static final class Root extends CountedCompleter<Void> {
+        private final Graph graph;
+        private final IntConsumer task;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Root(Graph graph, IntConsumer task) {
+            this.graph = graph;
+            this.task = task;
+        }
+
+        @Override
+        public void compute() {
+            // Completed by the last task, as each task and this one decrements the count once.
+            setPendingCount(graph.taskCount);
+            for (int source : graph.sources) {
+                new Node(this, source).fork();
+            }
+            tryComplete();
+        }
+    }
+
+    private static final class Node extends CountedCompleter<Void> {
+        private final Root root;
+        private final int index;
+
+        Node(Root root, int index) {
+            super(root);
+            this.root = root;
+            this.index = index;
+        }
+
+        @Override
+        public void compute() {
+            // The graph is still walked after a failure, skipping the tasks, so the root only completes once every
+            // task that did start has finished.
+            if (root.failure.get() == null) {
+                try {
+                    root.task.accept(index);
+                } catch (Throwable e) {
+                    if (!root.failure.compareAndSet(null, e)) {
+                        root.failure.get().addSuppressed(e);
+                    }
+                }
+            }
+            Graph graph = root.graph;
+            for (int e = graph.successorOffsets[index]; e < graph.successorOffsets[index + 1]; e++) {
+                int successor = graph.successors[e];
+                if (graph.pending.decrementAndGet(successor) == 0) {
+                    new Node(root, successor).fork();
+                }
+            }
+            tryComplete();
+        }
+    }
+}
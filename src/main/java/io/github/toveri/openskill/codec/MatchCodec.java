@@ -0,0 +1,195 @@
+package io.github.toveri.openskill.codec;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.RateOptions;
+import io.github.toveri.openskill.Rating;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalArgumentException;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Writes matches, their rate options and rated results to byte buffers in a flat binary layout,
+ * to be read back without copying through a {@link MatchView}.
+ * A record is a header of its flags, count of teams and count of ratings, followed by the size of each team,
+ * the mean value of every rating, the standard deviation of every rating and, if flagged, the rank of each team.
+ * Numbers are little endian and of fixed width, so any value of a record can be read directly.
+ * Rated results are written as the match that was returned, without ranks.
+ * In quantized mode the mean values and standard deviations are written as floats, halving the space the ratings take
+ * for a relative error of about 1e-7, well below the uncertainty of any rating.
+ * A codec is immutable and thread safe.
+ */
+public final class MatchCodec {
+    static final int QUANTIZED = 1;
+    static final int HAS_RANKS = 2;
+    static final int HIGHER_IS_BETTER = 4;
+    static final int HEADER_SIZE = 12;
+    static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle FLOAT = MethodHandles.byteBufferViewVarHandle(float[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle DOUBLE = MethodHandles.byteBufferViewVarHandle(double[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final boolean quantized;
+
+    /**
+     * Create a codec writing ratings at full precision.
+     */
+    public MatchCodec() {
+        this(false);
+    }
+
+    /**
+     * Create a codec.
+     * @param quantized If ratings are written as floats instead of doubles.
+     */
+    public MatchCodec(boolean quantized) {
+        this.quantized = quantized;
+    }
+
+    /**
+     * Get if ratings are written as floats instead of doubles.
+     * @return If the codec is quantized.
+     */
+    public boolean isQuantized() {
+        return quantized;
+    }
+
+    /**
+     * Calculate the size of a record.
+     * @param teamCount The count of teams.
+     * @param ratingCount The count of ratings of all teams.
+     * @param hasRanks If the record has ranks.
+     * @return The size in bytes.
+     */
+    public int size(int teamCount, int ratingCount, boolean hasRanks) {
+        return size(teamCount, ratingCount, hasRanks, quantized);
+    }
+
+    /**
+     * Calculate the size of the record of a match.
+     * @param match The match.
+     * @param options The options of the match, or null if it has none.
+     * @return The size in bytes.
+     */
+    public int size(Match match, RateOptions options) {
+        int ratingCount = 0;
+        for (List<Rating> team : match.getTeams()) {
+            ratingCount += team.size();
+        }
+        return size(match.teamCount(), ratingCount, options != null);
+    }
+
+    /**
+     * Write a match without options, such as a rated result, at the position of the buffer, and advance it.
+     * @param out The buffer to write to.
+     * @param match The match.
+     */
+    public void write(ByteBuffer out, Match match) {
+        write(out, match, null);
+    }
+
+    /**
+     * Write a match and its options at the position of the buffer, and advance it.
+     * @param out The buffer to write to.
+     * @param match The match.
+     * @param options The options of the match, or null if it has none.
+     */
+    public void write(ByteBuffer out, Match match, RateOptions options) {
+        int teamCount = match.teamCount();
+        if (options != null && options.ranks().size() != teamCount) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH,
+                    options.ranks().size(), teamCount);
+        }
+        int ratingCount = 0;
+        for (List<Rating> team : match.getTeams()) {
+            ratingCount += team.size();
+        }
+        int size = size(teamCount, ratingCount, options != null);
+        int offset = reserve(out, size);
+        writeHeader(out, offset, teamCount, ratingCount, options != null, options == null || options.lowerIsBetter());
+        int muOffset = offset + HEADER_SIZE + 4 * teamCount;
+        int sigmaOffset = muOffset + ratingCount * (quantized ? 4 : 8);
+        int j = 0;
+        for (int i = 0; i < teamCount; i++) {
+            List<Rating> team = match.getTeam(i);
+            INT.set(out, offset + HEADER_SIZE + 4 * i, team.size());
+            for (Rating rating : team) {
+                writeRating(out, muOffset, sigmaOffset, j++, rating.mu, rating.sigma);
+            }
+        }
+        if (options != null) {
+            int rankOffset = sigmaOffset + ratingCount * (quantized ? 4 : 8);
+            for (int i = 0; i < teamCount; i++) {
+                DOUBLE.set(out, rankOffset + 8 * i, (double) options.ranks().get(i));
+            }
+        }
+        out.position(offset + size);
+    }
+
+    /**
+     * Write a match of flat arrays, as rated by the allocation free rate method of a model,
+     * at the position of the buffer, and advance it.
+     * The ratings of team i are found from index teamOffsets[i] up to (excluding) teamOffsets[i + 1].
+     * @param out The buffer to write to.
+     * @param mu The mean values of all ratings.
+     * @param sigma The standard deviations of all ratings.
+     * @param teamOffsets The index of the first rating of each team, followed by the rating count.
+     * @param teamCount The count of teams.
+     * @param ranks The rank or score of each team, or null for none.
+     * @param lowerIsBetter If lower ranks is better or not.
+     */
+    public void write(ByteBuffer out, double[] mu, double[] sigma, int[] teamOffsets, int teamCount,
+                      double[] ranks, boolean lowerIsBetter) {
+        int ratingCount = teamOffsets[teamCount];
+        int size = size(teamCount, ratingCount, ranks != null);
+        int offset = reserve(out, size);
+        writeHeader(out, offset, teamCount, ratingCount, ranks != null, lowerIsBetter);
+        for (int i = 0; i < teamCount; i++) {
+            INT.set(out, offset + HEADER_SIZE + 4 * i, teamOffsets[i + 1] - teamOffsets[i]);
+        }
+        int muOffset = offset + HEADER_SIZE + 4 * teamCount;
+        int sigmaOffset = muOffset + ratingCount * (quantized ? 4 : 8);
+        for (int j = 0; j < ratingCount; j++) {
+            writeRating(out, muOffset, sigmaOffset, j, mu[j], sigma[j]);
+        }
+        if (ranks != null) {
+            int rankOffset = sigmaOffset + ratingCount * (quantized ? 4 : 8);
+            for (int i = 0; i < teamCount; i++) {
+                DOUBLE.set(out, rankOffset + 8 * i, ranks[i]);
+            }
+        }
+        out.position(offset + size);
+    }
+
+    static int size(int teamCount, int ratingCount, boolean hasRanks, boolean quantized) {
+        return HEADER_SIZE + 4 * teamCount + ratingCount * (quantized ? 8 : 16) + (hasRanks ? 8 * teamCount : 0);
+    }
+
+    private static int reserve(ByteBuffer out, int size) {
+        if (out.remaining() < size) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_LARGE, size, out.remaining());
+        }
+        return out.position();
+    }
+
+    private void writeHeader(ByteBuffer out, int offset, int teamCount, int ratingCount, boolean hasRanks,
+                             boolean lowerIsBetter) {
+        int flags = (quantized ? QUANTIZED : 0) | (hasRanks ? HAS_RANKS : 0) | (lowerIsBetter ? 0 : HIGHER_IS_BETTER);
+        INT.set(out, offset, flags);
+        INT.set(out, offset + 4, teamCount);
+        INT.set(out, offset + 8, ratingCount);
+    }
+
+    private void writeRating(ByteBuffer out, int muOffset, int sigmaOffset, int j, double mu, double sigma) {
+        if (quantized) {
+            FLOAT.set(out, muOffset + 4 * j, (float) mu);
+            FLOAT.set(out, sigmaOffset + 4 * j, (float) sigma);
+        } else {
+            DOUBLE.set(out, muOffset + 8 * j, mu);
+            DOUBLE.set(out, sigmaOffset + 8 * j, sigma);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package io.github.toveri.openskill.codec;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.RateOptions;
+import io.github.toveri.openskill.Rating;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalArgumentException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.github.toveri.openskill.codec.MatchCodec.DOUBLE;
+import static io.github.toveri.openskill.codec.MatchCodec.FLOAT;
+import static io.github.toveri.openskill.codec.MatchCodec.INT;
+
+/**
+ * A flyweight view of a record written by a {@link MatchCodec}, reading its values straight from the buffer.
+ * A view is wrapped around one record after the other, so decoding allocates nothing per match or rating,
+ * and the ratings can be copied into the flat arrays of the allocation free rate method of a model.
+ * The buffer must not change while it is viewed.
+ * A view is not thread safe.
+ */
+public final class MatchView {
+    private ByteBuffer buffer;
+    private int offset;
+    private int flags;
+    private int teamCount;
+    private int ratingCount;
+    private int muOffset;
+    private int sigmaOffset;
+    private int rankOffset;
+    private int size;
+
+    /**
+     * Wrap the view around the record at the position of the buffer, and advance the buffer past it.
+     * @param buffer The buffer to view.
+     * @return This view.
+     */
+    public MatchView next(ByteBuffer buffer) {
+        wrap(buffer, buffer.position());
+        buffer.position(offset + size);
+        return this;
+    }
+
+    /**
+     * Wrap the view around a record of the buffer.
+     * @param buffer The buffer to view.
+     * @param offset The index of the record in the buffer.
+     * @return This view.
+     */
+    public MatchView wrap(ByteBuffer buffer, int offset) {
+        int limit = buffer.limit();
+        if (offset < 0 || limit - offset < MatchCodec.HEADER_SIZE) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.OUT_OF_RANGE_SIMPLE, offset, 0,
+                    limit - MatchCodec.HEADER_SIZE);
+        }
+        int flags = (int) INT.get(buffer, offset);
+        int teamCount = (int) INT.get(buffer, offset + 4);
+        int ratingCount = (int) INT.get(buffer, offset + 8);
+        if (teamCount < 0) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, teamCount, 0);
+        }
+        if (ratingCount < 0) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, ratingCount, 0);
+        }
+        boolean quantized = (flags & MatchCodec.QUANTIZED) != 0;
+        long recordSize = MatchCodec.HEADER_SIZE + 4L * teamCount + ratingCount * (quantized ? 8L : 16L)
+                + ((flags & MatchCodec.HAS_RANKS) != 0 ? 8L * teamCount : 0);
+        if (recordSize > limit - offset) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_LARGE, recordSize, limit - offset);
+        }
+        long teamSizeSum = 0;
+        for (int i = 0; i < teamCount; i++) {
+            int teamSize = (int) INT.get(buffer, offset + MatchCodec.HEADER_SIZE + 4 * i);
+            if (teamSize < 0) {
+                throw new MathIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, teamSize, 0);
+            }
+            teamSizeSum += teamSize;
+        }
+        if (teamSizeSum != ratingCount) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH, teamSizeSum, ratingCount);
+        }
+        this.buffer = buffer;
+        this.offset = offset;
+        this.flags = flags;
+        this.teamCount = teamCount;
+        this.ratingCount = ratingCount;
+        this.muOffset = offset + MatchCodec.HEADER_SIZE + 4 * teamCount;
+        this.sigmaOffset = muOffset + ratingCount * (quantized ? 4 : 8);
+        this.rankOffset = sigmaOffset + ratingCount * (quantized ? 4 : 8);
+        this.size = (int) recordSize;
+        return this;
+    }
+
+    /**
+     * Get the size of the viewed record.
+     * @return The size in bytes.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the count of teams.
+     * @return The count of teams.
+     */
+    public int teamCount() {
+        return teamCount;
+    }
+
+    /**
+     * Get the count of ratings of all teams.
+     * @return The count of ratings.
+     */
+    public int ratingCount() {
+        return ratingCount;
+    }
+
+    /**
+     * Get the count of ratings of a team.
+     * @param team The index of the team.
+     * @return The size of the team.
+     */
+    public int teamSize(int team) {
+        return (int) INT.get(buffer, offset + MatchCodec.HEADER_SIZE + 4 * checkTeam(team));
+    }
+
+    /**
+     * Get the mean value of a rating.
+     * @param index The index of the rating, counted over all teams in order.
+     * @return The mean value.
+     */
+    public double mu(int index) {
+        return value(muOffset, checkRating(index));
+    }
+
+    /**
+     * Get the standard deviation of a rating.
+     * @param index The index of the rating, counted over all teams in order.
+     * @return The standard deviation.
+     */
+    public double sigma(int index) {
+        return value(sigmaOffset, checkRating(index));
+    }
+
+    /**
+     * Get if the record has ranks.
+     * @return If the record has ranks.
+     */
+    public boolean hasRanks() {
+        return (flags & MatchCodec.HAS_RANKS) != 0;
+    }
+
+    /**
+     * Get the rank of a team.
+     * @param team The index of the team.
+     * @return The rank or score of the team, or the position of the team counted from 1 if the record has no ranks.
+     */
+    public double rank(int team) {
+        checkTeam(team);
+        return hasRanks() ? (double) DOUBLE.get(buffer, rankOffset + 8 * team) : team + 1;
+    }
+
+    /**
+     * Get if lower ranks is better.
+     * @return If lower ranks is better or not.
+     */
+    public boolean lowerIsBetter() {
+        return (flags & MatchCodec.HIGHER_IS_BETTER) == 0;
+    }
+
+    /**
+     * Get if the ratings are quantized to floats.
+     * @return If the ratings are quantized.
+     */
+    public boolean isQuantized() {
+        return (flags & MatchCodec.QUANTIZED) != 0;
+    }
+
+    /**
+     * Copy the record into the flat arrays of the allocation free rate method of a model.
+     * @param mu The array to copy the mean values to, of at least the count of ratings.
+     * @param sigma The array to copy the standard deviations to, of at least the count of ratings.
+     * @param teamOffsets The array to write the index of the first rating of each team to, followed by the count of
+     *                    ratings, of at least the count of teams plus one.
+     * @param ranks The array to copy the ranks to, of at least the count of teams, or null to skip them.
+     */
+    public void copyTo(double[] mu, double[] sigma, int[] teamOffsets, double[] ranks) {
+        for (int j = 0; j < ratingCount; j++) {
+            mu[j] = value(muOffset, j);
+            sigma[j] = value(sigmaOffset, j);
+        }
+        teamOffsets[0] = 0;
+        for (int i = 0; i < teamCount; i++) {
+            teamOffsets[i + 1] = teamOffsets[i] + (int) INT.get(buffer, offset + MatchCodec.HEADER_SIZE + 4 * i);
+        }
+        if (ranks != null) {
+            for (int i = 0; i < teamCount; i++) {
+                ranks[i] = rank(i);
+            }
+        }
+    }
+
+    /**
+     * Create a match of new ratings from the record.
+     * @return The match.
+     */
+    public Match toMatch() {
+        List<List<Rating>> teams = new ArrayList<>(teamCount);
+        int j = 0;
+        for (int i = 0; i < teamCount; i++) {
+            int teamSize = teamSize(i);
+            List<Rating> team = new ArrayList<>(teamSize);
+            for (int k = 0; k < teamSize; k++, j++) {
+                team.add(new Rating(value(muOffset, j), value(sigmaOffset, j)));
+            }
+            teams.add(team);
+        }
+        return new Match(teams);
+    }
+
+    /**
+     * Create the rate options of the record.
+     * @return The options, or null if the record has no ranks.
+     */
+    public RateOptions toRateOptions() {
+        if (!hasRanks()) {
+            return null;
+        }
+        List<Double> ranks = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            ranks.add(rank(i));
+        }
+        return new RateOptions(ranks, lowerIsBetter());
+    }
+
+    private double value(int valuesOffset, int index) {
+        return isQuantized()
+                ? (float) FLOAT.get(buffer, valuesOffset + 4 * index)
+                : (double) DOUBLE.get(buffer, valuesOffset + 8 * index);
+    }
+
+    private int checkTeam(int team) {
+        if (team < 0 || team >= teamCount) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.OUT_OF_RANGE_SIMPLE, team, 0, teamCount - 1);
+        }
+        return team;
+    }
+
+    private int checkRating(int index) {
+        if (index < 0 || index >= ratingCount) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.OUT_OF_RANGE_SIMPLE, index, 0,
+                    ratingCount - 1);
+        }
+        return index;
+    }
+}
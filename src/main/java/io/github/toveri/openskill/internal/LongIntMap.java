@@ -0,0 +1,76 @@
+package io.github.toveri.openskill.internal;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from long keys to non-negative int values, without boxing.
+ * It is shared by the packages of the library, and is not part of its API.
+ */
+public final class LongIntMap {
+    private static final int MISSING = -1;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    /**
+     * Create a map with room for the given count of keys before growing.
+     * @param expectedSize The expected count of keys.
+     */
+    public LongIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+    }
+
+    /**
+     * Set the value of the key.
+     * @param key The key to set.
+     * @param value The non-negative value to set.
+     * @return The previous value of the key, or -1 if there was none.
+     */
+    public int put(long key, int value) {
+        int slot = slot(keys, values, key);
+        int previous = values[slot];
+        keys[slot] = key;
+        values[slot] = value;
+        if (previous == MISSING && ++size * 2 > keys.length) {
+            grow();
+        }
+        return previous;
+    }
+
+    /**
+     * Get the value of the key.
+     * @param key The key to get.
+     * @return The value of the key, or -1 if there is none.
+     */
+    public int get(long key) {
+        return values[slot(keys, values, key)];
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(values, MISSING);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != MISSING) {
+                int slot = slot(keys, values, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int slot(long[] keys, int[] values, long key) {
+        int mask = keys.length - 1;
+        int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (values[slot] != MISSING && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
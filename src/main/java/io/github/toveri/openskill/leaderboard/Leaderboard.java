@@ -0,0 +1,424 @@
+package io.github.toveri.openskill.leaderboard;
+
+import io.github.toveri.openskill.Constants;
+import io.github.toveri.openskill.Decay;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.store.RatingListener;
+import io.github.toveri.openskill.store.RatingStore;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A thread safe leaderboard of players ranked by the ordinal of their rating, highest first,
+ * where players with equal ordinals are ranked by ascending id.
+ * The players are kept in an indexable skip list, where every link knows how many players it skips,
+ * so changing a rating and finding the rank of a player take O(log n), and reading k players O(log n + k).
+ * Queries share a read lock and changes take the write lock, so queries run while other threads keep rating.
+ * Attach it to a {@link io.github.toveri.openskill.store.RatingRegistry} as listener to follow every rating.
+ * The registry calls it after unlocking the players, so it keeps only the change of the highest version of each player,
+ * and the global write lock of the leaderboard is not held under the locks of the registry.
+ * With a decay, {@link #top(int, long)} ranks by the ratings inflated for inactivity at a given time.
+ * As inflation only lowers ordinals, it reads down the board only until no lower player can still reach the top,
+ * and the other queries rank by the ratings as they were when last played.
+ * When the decay lowers the top players below most of the board, that takes O(n log k) under the read lock,
+ * so a large board with a strong decay is better ranked at a time by keeping the inflated ratings up to date.
+ */
+public final class Leaderboard implements RatingListener {
+    private static final int MAX_LEVEL = 32;
+
+    private static final Comparator<LeaderboardEntry> WORST_FIRST = Comparator
+            .comparingDouble(LeaderboardEntry::ordinal)
+            .thenComparing(Comparator.comparingLong(LeaderboardEntry::id).reversed());
+
+    private final double z;
+    private final Decay decay;
+    private final Node head = new Node(0, 0, 0, 0, 0, 0, MAX_LEVEL);
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom(0x5EED);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int level = 1;
+    private int size;
+
+    /**
+     * Create an empty leaderboard ranking by the default ordinal.
+     */
+    public Leaderboard() {
+        this(Constants.Z);
+    }
+
+    /**
+     * Create an empty leaderboard.
+     * @param z The count of standard deviations below the mean value that the ordinal is taken at.
+     */
+    public Leaderboard(double z) {
+        this(z, null);
+    }
+
+    /**
+     * Create an empty leaderboard inflating the ratings of inactive players.
+     * @param z The count of standard deviations below the mean value that the ordinal is taken at.
+     * @param decay The inflation of inactive ratings, or null for none.
+     */
+    public Leaderboard(double z, Decay decay) {
+        this.z = z;
+        this.decay = decay;
+    }
+
+    /**
+     * Set the rating of a player, adding the player if it is not on the leaderboard.
+     * @param id The id of the player.
+     * @param rating The rating of the player.
+     */
+    public void update(long id, Rating rating) {
+        update(id, rating.mu, rating.sigma);
+    }
+
+    /**
+     * Set the rating of a player, adding the player if it is not on the leaderboard.
+     * @param id The id of the player.
+     * @param mu The mean value of the rating.
+     * @param sigma The standard deviation of the rating.
+     */
+    public void update(long id, double mu, double sigma) {
+        update(id, mu, sigma, RatingStore.NEVER_PLAYED);
+    }
+
+    /**
+     * Set the rating of a player and the time the player last played, adding the player if it is not on the
+     * leaderboard.
+     * @param id The id of the player.
+     * @param mu The mean value of the rating.
+     * @param sigma The standard deviation of the rating.
+     * @param lastPlayed The time the player last played, or {@link RatingStore#NEVER_PLAYED} if the player has not
+     * played.
+     */
+    public void update(long id, double mu, double sigma, long lastPlayed) {
+        update(id, mu, sigma, lastPlayed, 0);
+    }
+
+    @Override
+    public void ratingChanged(long id, double mu, double sigma, long lastPlayed, long version) {
+        update(id, mu, sigma, lastPlayed, version);
+    }
+
+    private void update(long id, double mu, double sigma, long lastPlayed, long version) {
+        double ordinal = mu - z * sigma;
+        lock.writeLock().lock();
+        try {
+            Node node = nodes.get(id);
+            if (node != null) {
+                // A change that arrives after a later one of the same player is stale, unless it has no version.
+                if (version != 0 && version <= node.version) {
+                    return;
+                }
+                version = Math.max(version, node.version);
+                if (node.ordinal == ordinal) {
+                    node.mu = mu;
+                    node.sigma = sigma;
+                    node.lastPlayed = lastPlayed;
+                    node.version = version;
+                    return;
+                }
+                unlink(node);
+            }
+            nodes.put(id, insert(id, mu, sigma, lastPlayed, version, ordinal));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a player from the leaderboard.
+     * @param id The id of the player.
+     * @return If the player was on the leaderboard.
+     */
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Node node = nodes.remove(id);
+            if (node == null) {
+                return false;
+            }
+            unlink(node);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the count of players on the leaderboard.
+     * @return The count of players.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the rank of a player.
+     * @param id The id of the player.
+     * @return The rank of the player starting at 1, or 0 if the player is not on the leaderboard.
+     */
+    public int rank(long id) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            return node != null ? rankOf(node) : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the entry of a player.
+     * @param id The id of the player.
+     * @return The entry of the player, or null if the player is not on the leaderboard.
+     */
+    public LeaderboardEntry get(long id) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            return node != null ? node.entry(rankOf(node)) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the highest ranked players.
+     * @param count The maximum count of players.
+     * @return The entries of the players, highest rank first.
+     */
+    public List<LeaderboardEntry> top(int count) {
+        return page(1, count);
+    }
+
+    /**
+     * Get the highest ranked players by their ratings inflated for inactivity at a time.
+     * Without decay this is the same as {@link #top(int)}.
+     * This reads the board from the top until the ordinals as last played fall below the k-th inflated ordinal,
+     * which is all of the board when the decay inflates the top players past the rest.
+     * @param count The maximum count of players.
+     * @param time The time to inflate the ratings up to.
+     * @return The entries of the players with the inflated ratings, highest rank first.
+     */
+    public List<LeaderboardEntry> top(int count, long time) {
+        if (decay == null) {
+            return top(count);
+        }
+        PriorityQueue<LeaderboardEntry> best = new PriorityQueue<>(WORST_FIRST);
+        lock.readLock().lock();
+        try {
+            for (Node node = head.next[0]; node != null && count > 0; node = node.next[0]) {
+                // The ordinal when last played bounds the inflated ordinal of this and every lower player.
+                if (best.size() == count && z >= 0 && node.ordinal < best.peek().ordinal()) {
+                    break;
+                }
+                double sigma = node.lastPlayed != RatingStore.NEVER_PLAYED
+                        ? decay.sigma(node.sigma, node.lastPlayed, time)
+                        : node.sigma;
+                LeaderboardEntry entry = new LeaderboardEntry(node.id, 0, node.mu, sigma, node.mu - z * sigma);
+                if (best.size() < count) {
+                    best.add(entry);
+                } else if (WORST_FIRST.compare(entry, best.peek()) > 0) {
+                    best.poll();
+                    best.add(entry);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        LeaderboardEntry[] ranked = new LeaderboardEntry[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            LeaderboardEntry entry = best.poll();
+            ranked[i] = new LeaderboardEntry(entry.id(), i + 1, entry.mu(), entry.sigma(), entry.ordinal());
+        }
+        return List.of(ranked);
+    }
+
+    /**
+     * Get the players from a rank on.
+     * @param fromRank The rank of the first player, starting at 1.
+     * @param count The maximum count of players.
+     * @return The entries of the players, highest rank first.
+     */
+    public List<LeaderboardEntry> page(int fromRank, int count) {
+        lock.readLock().lock();
+        try {
+            return collect(Math.max(1, fromRank), count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the players ranked around a player.
+     * @param id The id of the player.
+     * @param before The maximum count of players ranked above the player.
+     * @param after The maximum count of players ranked below the player.
+     * @return The entries of the players, highest rank first, or an empty list if the player is not on the leaderboard.
+     */
+    public List<LeaderboardEntry> around(long id, int before, int after) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(id);
+            if (node == null) {
+                return List.of();
+            }
+            int rank = rankOf(node);
+            int fromRank = Math.max(1, rank - before);
+            // Clamped to the players below, so a large count after does not overflow.
+            return collect(fromRank, rank - fromRank + 1 + Math.min(after, size - rank));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<LeaderboardEntry> collect(int fromRank, int count) {
+        if (fromRank > size || count <= 0) {
+            return List.of();
+        }
+        count = Math.min(count, size - fromRank + 1);
+        List<LeaderboardEntry> entries = new ArrayList<>(count);
+        Node node = nodeAt(fromRank);
+        for (int i = 0; i < count; i++) {
+            entries.add(node.entry(fromRank + i));
+            node = node.next[0];
+        }
+        return entries;
+    }
+
+    private Node nodeAt(int rank) {
+        Node x = head;
+        int traversed = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= rank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return x;
+    }
+
+    private int rankOf(Node node) {
+        Node x = head;
+        int rank = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i], node.ordinal, node.id) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return rank;
+    }
+
+    private Node insert(long id, double mu, double sigma, long lastPlayed, long version, double ordinal) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && compare(x.next[i], ordinal, id) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+        Node node = new Node(id, mu, sigma, lastPlayed, version, ordinal, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            // The links skip the same players as before, split at the new player.
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+        return node;
+    }
+
+    private void unlink(Node node) {
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i], node.ordinal, node.id) < 0) {
+                x = x.next[i];
+            }
+            if (x.next[i] == node) {
+                x.span[i] += node.span[i] - 1;
+                x.next[i] = node.next[i];
+            } else {
+                x.span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+    }
+
+    private int randomLevel() {
+        // Each level holds a quarter of the players of the level below.
+        int nodeLevel = 1;
+        while (nodeLevel < MAX_LEVEL && (random.nextInt() & 3) == 0) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+
+    private static int compare(Node node, double ordinal, long id) {
+        int c = Double.compare(ordinal, node.ordinal);
+        return c != 0 ? c : Long.compare(node.id, id);
+    }
+
+    /**
+     * A player in the skip list, linked to the next player of each of its levels.
+     */
+    private static final class Node {
+        final long id;
+        final double ordinal;
+        final Node[] next;
+        final int[] span;
+        double mu;
+        double sigma;
+        long lastPlayed;
+        long version;
+
+        Node(long id, double mu, double sigma, long lastPlayed, long version, double ordinal, int level) {
+            this.id = id;
+            this.mu = mu;
+            this.sigma = sigma;
+            this.lastPlayed = lastPlayed;
+            this.version = version;
+            this.ordinal = ordinal;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+
+        LeaderboardEntry entry(int rank) {
+            return new LeaderboardEntry(id, rank, mu, sigma, ordinal);
+        }
+    }
+}
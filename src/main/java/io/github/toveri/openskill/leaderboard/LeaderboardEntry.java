@@ -0,0 +1,13 @@
+package io.github.toveri.openskill.leaderboard;
+
+/**
+ * A player on a leaderboard.
+ *
+ * @param id      The id of the player.
+ * @param rank    The rank of the player, starting at 1 for the highest ordinal.
+ * @param mu      The mean value of the rating of the player.
+ * @param sigma   The standard deviation of the rating of the player.
+ * @param ordinal The ordinal of the rating the player is ranked by.
+ */
+public record LeaderboardEntry(long id, int rank, double mu, double sigma, double ordinal) {
+}
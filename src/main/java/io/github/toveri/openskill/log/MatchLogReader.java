@@ -0,0 +1,295 @@
+package io.github.toveri.openskill.log;
+
+import io.github.toveri.openskill.store.RatingStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the matches of a match log one at a time, as written by a {@link MatchLogWriter}.
+ * The log is memory mapped in windows, and the arrays of the current match are reused between matches of the same
+ * shape, so reading allocates nothing per match and a log of any size can be replayed.
+ * Only the matches flushed before the log was opened are read.
+ * A reader is not thread safe.
+ */
+public final class MatchLogReader implements Closeable {
+    private static final int WINDOW_SIZE = 1 << 28;
+    private static final int REMAP_MARGIN = 1 << 16;
+    private static final int CACHED_SIZES = 64;
+
+    private final FileChannel channel;
+    private long fileSize;
+    private final int windowSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int position;
+
+    // Two buffers per size, so a match is decoded into the one that the current match does not use.
+    private final long[][] playerBuffers = new long[2 * (CACHED_SIZES + 1)][];
+    private final int[][] teamSizeBuffers = new int[2 * (CACHED_SIZES + 1)][];
+    private final double[][] rankBuffers = new double[2 * (CACHED_SIZES + 1)][];
+    private int spare;
+    private long time;
+    private long[] players;
+    private int[] teamSizes;
+    private double[] ranks;
+    private boolean defaultRanks;
+    private boolean lowerIsBetter;
+    private boolean truncated;
+
+    private MatchLogReader(FileChannel channel, int windowSize) throws IOException {
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.windowSize = windowSize;
+        map(0);
+        if (fileSize < MatchLogWriter.HEADER_SIZE
+                || window.getLong(0) != MatchLogWriter.MAGIC
+                || window.getInt(8) != MatchLogWriter.FORMAT) {
+            throw new IOException("Not a match log.");
+        }
+        // A match written after the last flush is not part of the log yet.
+        long length = window.getLong(MatchLogWriter.LENGTH);
+        if (length < MatchLogWriter.HEADER_SIZE) {
+            throw new IOException("Not a match log.");
+        }
+        fileSize = Math.min(fileSize, length);
+        window.limit((int) Math.min(window.limit(), fileSize));
+        position = MatchLogWriter.HEADER_SIZE;
+    }
+
+    /**
+     * Open a match log for reading.
+     * @param path The path of the log.
+     * @return The reader, before the first match.
+     * @throws IOException If the log can not be opened, or is not a match log.
+     */
+    public static MatchLogReader open(Path path) throws IOException {
+        return open(path, WINDOW_SIZE);
+    }
+
+    static MatchLogReader open(Path path, int windowSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MatchLogReader(channel, windowSize);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Move to the next match of the log.
+     * @return If there was a next match, or false at the end of the log.
+     * @throws IOException If the log can not be read, or ends within a match.
+     */
+    public boolean next() throws IOException {
+        if (windowStart + position >= fileSize) {
+            return false;
+        }
+        if (window.limit() - position < Math.min(REMAP_MARGIN, windowSize / 2) && windowEnd() < fileSize) {
+            map(windowStart + position);
+        }
+        int start = position;
+        while (!decode()) {
+            // The match continues after the window, or the log was cut off while it was written.
+            if (windowEnd() >= fileSize || start == 0) {
+                throw new IOException("The match log ends within a match at " + (windowStart + start) + ".");
+            }
+            map(windowStart + start);
+            start = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Get the time the current match was played.
+     * @return The time of the match.
+     */
+    public long time() {
+        return time;
+    }
+
+    /**
+     * Get the players of the current match, valid until the next match is read.
+     * @return The ids of the players of all teams, team after team.
+     */
+    public long[] players() {
+        return players;
+    }
+
+    /**
+     * Get the team sizes of the current match, valid until the next match is read.
+     * @return The count of players of each team.
+     */
+    public int[] teamSizes() {
+        return teamSizes;
+    }
+
+    /**
+     * Get the ranks of the current match, valid until the next match is read.
+     * @return The rank or score of each team, or null for the given order.
+     */
+    public double[] ranks() {
+        return defaultRanks ? null : ranks;
+    }
+
+    /**
+     * Get if lower ranks are better in the current match.
+     * @return If lower ranks is better or not.
+     */
+    public boolean lowerIsBetter() {
+        return lowerIsBetter;
+    }
+
+    /**
+     * Rate the remaining matches of the log in order in the store, at the times they were played.
+     * @param store The store to rate the matches in.
+     * @return The count of matches rated.
+     * @throws IOException If the log can not be read.
+     */
+    public long replay(RatingStore store) throws IOException {
+        long count = 0;
+        while (next()) {
+            store.rate(players, teamSizes, ranks(), lowerIsBetter, time);
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * Decode the match at the position, if it ends within the window.
+     * @return If the match was read, or false if it continues after the window, which leaves the state unchanged.
+     */
+    private boolean decode() {
+        truncated = false;
+        long matchTime = time + unZigZag(readVarLong());
+        int flags = (int) readVarLong();
+        long teamCount = readVarLong();
+        // Every team size and player id takes at least a byte, so larger counts can not end within the window,
+        // and neither can the negative counts of a corrupt match.
+        if (truncated || teamCount < 0 || teamCount > window.limit() - position) {
+            return false;
+        }
+        int[] sizes = teamSizeBuffer((int) teamCount);
+        long playerCount = 0;
+        for (int i = 0; i < teamCount; i++) {
+            long size = readVarLong();
+            if (size < 0 || size > window.limit()) {
+                return false;
+            }
+            sizes[i] = (int) size;
+            playerCount += size;
+        }
+        if (truncated || playerCount > window.limit() - position) {
+            return false;
+        }
+        long[] ids = playerBuffer((int) playerCount);
+        long id = 0;
+        for (int j = 0; j < playerCount; j++) {
+            id += unZigZag(readVarLong());
+            ids[j] = id;
+        }
+        double[] matchRanks = rankBuffer((int) teamCount);
+        if ((flags & MatchLogWriter.INTEGRAL_RANKS) != 0) {
+            for (int i = 0; i < teamCount; i++) {
+                matchRanks[i] = unZigZag(readVarLong());
+            }
+        } else if ((flags & MatchLogWriter.HAS_RANKS) != 0) {
+            if (teamCount * 8 > window.limit() - position) {
+                return false;
+            }
+            for (int i = 0; i < teamCount; i++) {
+                matchRanks[i] = window.getDouble(position);
+                position += 8;
+            }
+        }
+        if (truncated) {
+            return false;
+        }
+        // Only a fully read match changes the state, so a match cut off by the window can be read again.
+        time = matchTime;
+        players = ids;
+        teamSizes = sizes;
+        ranks = matchRanks;
+        spare ^= 1;
+        defaultRanks = (flags & MatchLogWriter.HAS_RANKS) == 0;
+        lowerIsBetter = (flags & MatchLogWriter.HIGHER_IS_BETTER) == 0;
+        return true;
+    }
+
+    /**
+     * Read a variable length value, or mark the match as truncated if the value does not end within the window.
+     */
+    private long readVarLong() {
+        long value = 0;
+        int limit = window.limit();
+        for (int shift = 0; shift < 64 && position < limit; shift += 7) {
+            byte b = window.get(position++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        truncated = true;
+        return 0;
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowSize, fileSize - start));
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        position = 0;
+    }
+
+    private long windowEnd() {
+        return windowStart + window.limit();
+    }
+
+    private long[] playerBuffer(int count) {
+        if (count > CACHED_SIZES) {
+            return new long[count];
+        }
+        int index = 2 * count + spare;
+        if (playerBuffers[index] == null) {
+            playerBuffers[index] = new long[count];
+        }
+        return playerBuffers[index];
+    }
+
+    private int[] teamSizeBuffer(int count) {
+        if (count > CACHED_SIZES) {
+            return new int[count];
+        }
+        int index = 2 * count + spare;
+        if (teamSizeBuffers[index] == null) {
+            teamSizeBuffers[index] = new int[count];
+        }
+        return teamSizeBuffers[index];
+    }
+
+    private double[] rankBuffer(int count) {
+        if (count > CACHED_SIZES) {
+            return new double[count];
+        }
+        int index = 2 * count + spare;
+        if (rankBuffers[index] == null) {
+            rankBuffers[index] = new double[count];
+        }
+        return rankBuffers[index];
+    }
+}
@@ -0,0 +1,226 @@
+package io.github.toveri.openskill.log;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalArgumentException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends matches between players to a binary match log, to be replayed with a {@link MatchLogReader}.
+ * Each match is a record of its time, team sizes, player ids and ranks, where numbers are written as variable
+ * length integers, the time as the difference to the previous match and the player ids as differences within a match.
+ * Integral ranks take a byte or two each, and the default rank order none.
+ * The header keeps the length of the flushed matches and the time of the last one, so a writer continues a log
+ * without reading it, and drops a match that was cut off while it was written.
+ * A writer is not thread safe.
+ */
+public final class MatchLogWriter implements Closeable {
+    static final long MAGIC = 0x474F4C4D4C4B534FL;
+    static final int FORMAT = 2;
+    static final int LAST_TIME = 12;
+    static final int LENGTH = 20;
+    static final int HEADER_SIZE = 28;
+    static final int HAS_RANKS = 1;
+    static final int INTEGRAL_RANKS = 2;
+    static final int HIGHER_IS_BETTER = 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final double MAX_INTEGRAL = 1L << 53;
+
+    private final FileChannel channel;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private int position;
+    private long previousTime;
+    private long length;
+
+    private MatchLogWriter(FileChannel channel, long previousTime, long length) {
+        this.channel = channel;
+        this.previousTime = previousTime;
+        this.length = length;
+    }
+
+    /**
+     * Open a match log for appending, creating it if it does not exist.
+     * A match that was not fully flushed before the log was last closed is dropped.
+     * @param path The path of the log.
+     * @return The writer.
+     * @throws IOException If the log can not be opened, or is not a match log.
+     */
+    public static MatchLogWriter open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            MatchLogWriter writer;
+            if (channel.size() == 0) {
+                writer = new MatchLogWriter(channel, 0, HEADER_SIZE);
+                writer.writeHeader(true);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                int read = 0;
+                while (header.hasRemaining() && read >= 0) {
+                    read = channel.read(header, header.position());
+                }
+                long length = header.getLong(LENGTH);
+                if (header.hasRemaining() || header.getLong(0) != MAGIC || header.getInt(8) != FORMAT
+                        || length < HEADER_SIZE || length > channel.size()) {
+                    throw new IOException("Not a match log: " + path);
+                }
+                // The times are written as differences, so continue from the time of the last match.
+                writer = new MatchLogWriter(channel, header.getLong(LAST_TIME), length);
+                channel.truncate(length);
+            }
+            return writer;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append a match in the default rank order.
+     * @param time The time the match was played.
+     * @param players The ids of the players of all teams, team after team.
+     * @param teamSizes The count of players of each team.
+     * @throws IOException If the match can not be written.
+     */
+    public void write(long time, long[] players, int[] teamSizes) throws IOException {
+        write(time, players, teamSizes, null, true);
+    }
+
+    /**
+     * Append a match.
+     * @param time The time the match was played.
+     * @param players The ids of the players of all teams, team after team.
+     * @param teamSizes The count of players of each team.
+     * @param ranks The rank or score of each team, or null for the given order.
+     * @param lowerIsBetter If lower ranks is better or not.
+     * @throws IOException If the match can not be written.
+     */
+    public void write(long time, long[] players, int[] teamSizes, double[] ranks, boolean lowerIsBetter)
+            throws IOException {
+        long playerCount = 0;
+        for (int size : teamSizes) {
+            if (size < 0) {
+                throw new MathIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, size, 0);
+            }
+            playerCount += size;
+        }
+        if (playerCount != players.length) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH, players.length,
+                    playerCount);
+        }
+        if (ranks != null && ranks.length != teamSizes.length) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH, ranks.length,
+                    teamSizes.length);
+        }
+        int flags = lowerIsBetter ? 0 : HIGHER_IS_BETTER;
+        if (ranks != null) {
+            flags |= HAS_RANKS;
+            boolean integral = true;
+            for (double rank : ranks) {
+                integral &= rank == Math.rint(rank) && Math.abs(rank) < MAX_INTEGRAL;
+            }
+            if (integral) {
+                flags |= INTEGRAL_RANKS;
+            }
+        }
+        writeVarLong(zigZag(time - previousTime));
+        previousTime = time;
+        writeVarLong(flags);
+        writeVarLong(teamSizes.length);
+        for (int size : teamSizes) {
+            writeVarLong(size);
+        }
+        long previousId = 0;
+        for (long id : players) {
+            writeVarLong(zigZag(id - previousId));
+            previousId = id;
+        }
+        if ((flags & INTEGRAL_RANKS) != 0) {
+            for (double rank : ranks) {
+                writeVarLong(zigZag((long) rank));
+            }
+        } else if (ranks != null) {
+            for (double rank : ranks) {
+                writeLong(Double.doubleToRawLongBits(rank));
+            }
+        }
+    }
+
+    /**
+     * Write the buffered matches to the log and force them to the disk, and then write the header that covers them.
+     * @throws IOException If the matches can not be written.
+     */
+    public void flush() throws IOException {
+        writeBuffer();
+        // The matches reach the disk before the header covers them, so a crash never leaves it pointing past them.
+        channel.force(false);
+        writeHeader(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void ensure(int count) throws IOException {
+        if (position + count > BUFFER_SIZE) {
+            writeBuffer();
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        // Written after the length of the header, so it only counts once the header is written.
+        ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, position);
+        long end = length;
+        while (bytes.hasRemaining()) {
+            end += channel.write(bytes, end);
+        }
+        length = end;
+        position = 0;
+    }
+
+    private void writeHeader(boolean create) throws IOException {
+        header.clear();
+        header.putLong(0, MAGIC);
+        header.putInt(8, FORMAT);
+        header.putLong(LAST_TIME, previousTime);
+        header.putLong(LENGTH, length);
+        if (!create) {
+            header.position(LAST_TIME);
+        }
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeLong(long value) throws IOException {
+        ensure(8);
+        for (int i = 0; i < 8; i++) {
+            buffer[position++] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
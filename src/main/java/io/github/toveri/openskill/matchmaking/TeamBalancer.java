@@ -0,0 +1,343 @@
+package io.github.toveri.openskill.matchmaking;
+
+import io.github.toveri.openskill.Ranking;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.Model;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalArgumentException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Matchmaking that splits a pool of players into teams of given sizes,
+ * searching for the splits with the highest predicted draw probability as the fairest matches.
+ * The players are assigned one at a time while the summed mean values and variances of the teams are kept up to date,
+ * so no match is built for the candidates, and teams of equal size are interchangeable so only one order is searched.
+ * With two teams the draw probability only depends on the difference between the team means,
+ * so partial splits that can not get closer than the best splits found so far are pruned.
+ * The search is divided into tasks run in parallel on a fork join pool.
+ */
+public final class TeamBalancer {
+    private static final int TASKS_PER_THREAD = 8;
+    private static final double PRUNE_TOLERANCE = 1e-9;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Comparator<Candidate> BETTER_FIRST = Comparator
+            .comparingDouble(Candidate::score).reversed()
+            .thenComparing(Candidate::assignment, Arrays::compare);
+
+    private final Model model;
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a team balancer using the common fork join pool.
+     * @param model The model to predict draws with.
+     */
+    public TeamBalancer(Model model) {
+        this(model, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a team balancer.
+     * @param model The model to predict draws with.
+     * @param pool The pool to run the search on.
+     */
+    public TeamBalancer(Model model, ForkJoinPool pool) {
+        this.model = model;
+        this.pool = pool;
+    }
+
+    /**
+     * Find the splits of the players into teams with the highest draw probability.
+     * Splits with equal probability are ordered consistently, so the result does not depend on the parallelism.
+     * @param players The pool of players to split.
+     * @param teamSizes The size of each team, adding up to the count of players.
+     * @param limit The maximum count of splits to return.
+     * @return The best splits, the most balanced first.
+     */
+    public List<TeamSplit> balance(List<Rating> players, List<Integer> teamSizes, int limit) {
+        if (teamSizes.size() < 2) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, teamSizes.size(), 2);
+        }
+        if (limit < 1) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, limit, 1);
+        }
+        int sizeSum = 0;
+        for (int size : teamSizes) {
+            if (size < 1) {
+                throw new MathIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, size, 1);
+            }
+            sizeSum += size;
+        }
+        if (sizeSum != players.size()) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH, sizeSum, players.size());
+        }
+        Search search = new Search(model, players, teamSizes, limit);
+        List<int[]> prefixes = search.prefixes(pool.getParallelism() * TASKS_PER_THREAD);
+        PriorityQueue<Candidate> best = pool.invoke(new SearchTask(search, prefixes, 0, prefixes.size()));
+        List<Candidate> candidates = new ArrayList<>(best);
+        candidates.sort(BETTER_FIRST);
+        List<TeamSplit> splits = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            splits.add(search.toSplit(players, candidate));
+        }
+        return splits;
+    }
+
+    private record Candidate(double score, double difference, int[] assignment) {
+    }
+
+    /**
+     * The search shared by all tasks, with the players in descending order of mean value.
+     */
+    private static final class Search {
+        final Model model;
+        final int playerCount;
+        final int teamCount;
+        final int[] sizes;
+        final int limit;
+        final int[] order;
+        final double[] mu;
+        final double[] sigmaSq;
+        final double[] muPrefix;
+        final double tolerance;
+        // The smallest difference between two team means any task needs to beat, as double bits.
+        final AtomicLong threshold = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+
+        Search(Model model, List<Rating> players, List<Integer> teamSizes, int limit) {
+            this.model = model;
+            this.playerCount = players.size();
+            this.teamCount = teamSizes.size();
+            this.sizes = teamSizes.stream().mapToInt(Integer::intValue).toArray();
+            this.limit = limit;
+            double[] negatedMu = new double[playerCount];
+            order = new int[playerCount];
+            for (int i = 0; i < playerCount; i++) {
+                negatedMu[i] = -players.get(i).mu;
+                order[i] = i;
+            }
+            Ranking.sort(negatedMu, playerCount, order, new int[playerCount]);
+            mu = new double[playerCount];
+            sigmaSq = new double[playerCount];
+            muPrefix = new double[playerCount + 1];
+            double absSum = 0.0;
+            for (int p = 0; p < playerCount; p++) {
+                Rating rating = players.get(order[p]);
+                mu[p] = rating.mu;
+                sigmaSq[p] = rating.sigma * rating.sigma;
+                muPrefix[p + 1] = muPrefix[p] + rating.mu;
+                absSum += Math.abs(rating.mu);
+            }
+            tolerance = PRUNE_TOLERANCE * (1 + absSum);
+        }
+
+        List<int[]> prefixes(int target) {
+            List<int[]> prefixes = List.of(new int[0]);
+            Searcher searcher = new Searcher(this);
+            for (int depth = 0; depth < playerCount && prefixes.size() < target; depth++) {
+                List<int[]> next = new ArrayList<>(prefixes.size() * teamCount);
+                for (int[] prefix : prefixes) {
+                    searcher.replay(prefix);
+                    for (int t = 0; t < teamCount; t++) {
+                        if (searcher.canPlace(t)) {
+                            int[] extended = Arrays.copyOf(prefix, depth + 1);
+                            extended[depth] = t;
+                            next.add(extended);
+                        }
+                    }
+                }
+                prefixes = next;
+            }
+            return prefixes;
+        }
+
+        double sharedThreshold() {
+            return Double.longBitsToDouble(threshold.get());
+        }
+
+        void publishThreshold(double difference) {
+            // Non-negative doubles order the same as their bits.
+            threshold.accumulateAndGet(Double.doubleToLongBits(difference), Math::min);
+        }
+
+        TeamSplit toSplit(List<Rating> players, Candidate candidate) {
+            int[] teamOf = new int[playerCount];
+            for (int p = 0; p < playerCount; p++) {
+                teamOf[order[p]] = candidate.assignment[p];
+            }
+            List<List<Rating>> teams = new ArrayList<>(teamCount);
+            for (int t = 0; t < teamCount; t++) {
+                teams.add(new ArrayList<>(sizes[t]));
+            }
+            for (int i = 0; i < playerCount; i++) {
+                teams.get(teamOf[i]).add(players.get(i));
+            }
+            return new TeamSplit(teams, candidate.score);
+        }
+    }
+
+    /**
+     * The depth first search of one task, holding the aggregates of the partial split and the best splits found.
+     */
+    private static final class Searcher {
+        final Search search;
+        final double[] teamMu;
+        final double[] teamSigmaSq;
+        final int[] filled;
+        final int[] assignment;
+        final PriorityQueue<Candidate> best;
+
+        Searcher(Search search) {
+            this.search = search;
+            teamMu = new double[search.teamCount];
+            teamSigmaSq = new double[search.teamCount];
+            filled = new int[search.teamCount];
+            assignment = new int[search.playerCount];
+            // The limit may be far more than the splits there are, so the queue grows as it fills.
+            best = new PriorityQueue<>(Math.min(search.limit, INITIAL_CAPACITY) + 1, BETTER_FIRST.reversed());
+        }
+
+        void replay(int[] prefix) {
+            Arrays.fill(teamMu, 0.0);
+            Arrays.fill(teamSigmaSq, 0.0);
+            Arrays.fill(filled, 0);
+            for (int p = 0; p < prefix.length; p++) {
+                int t = prefix[p];
+                assignment[p] = t;
+                teamMu[t] += search.mu[p];
+                teamSigmaSq[t] += search.sigmaSq[p];
+                filled[t]++;
+            }
+        }
+
+        boolean canPlace(int t) {
+            if (filled[t] == search.sizes[t]) {
+                return false;
+            }
+            if (filled[t] == 0) {
+                // Only the first empty team of a size is used, as the others would give the same splits.
+                for (int u = 0; u < t; u++) {
+                    if (filled[u] == 0 && search.sizes[u] == search.sizes[t]) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        void search(int p) {
+            if (p == search.playerCount) {
+                evaluate();
+                return;
+            }
+            if (search.teamCount == 2 && cannotImprove(p)) {
+                return;
+            }
+            double mu = search.mu[p];
+            double sigmaSq = search.sigmaSq[p];
+            // With two teams, adding to the team with the lower mean first finds balanced splits early.
+            boolean reversed = search.teamCount == 2 && teamMu[1] < teamMu[0];
+            for (int k = 0; k < search.teamCount; k++) {
+                int t = reversed ? search.teamCount - 1 - k : k;
+                if (!canPlace(t)) {
+                    continue;
+                }
+                double previousMu = teamMu[t];
+                double previousSigmaSq = teamSigmaSq[t];
+                assignment[p] = t;
+                teamMu[t] = previousMu + mu;
+                teamSigmaSq[t] = previousSigmaSq + sigmaSq;
+                filled[t]++;
+                search(p + 1);
+                filled[t]--;
+                teamMu[t] = previousMu;
+                teamSigmaSq[t] = previousSigmaSq;
+            }
+        }
+
+        private boolean cannotImprove(int p) {
+            // The remaining players are sorted, so the first and last of them bound what the first team can get.
+            double[] muPrefix = search.muPrefix;
+            int n = search.playerCount;
+            int remaining = search.sizes[0] - filled[0];
+            double remainingSum = muPrefix[n] - muPrefix[p];
+            double maxSum = muPrefix[p + remaining] - muPrefix[p];
+            double minSum = muPrefix[n] - muPrefix[n - remaining];
+            double difference = teamMu[0] - teamMu[1];
+            double low = difference + 2 * minSum - remainingSum;
+            double high = difference + 2 * maxSum - remainingSum;
+            double bound = low > 0 ? low : high < 0 ? -high : 0.0;
+            return bound > threshold() + search.tolerance;
+        }
+
+        private double threshold() {
+            double shared = search.sharedThreshold();
+            return best.size() == search.limit ? Math.min(best.peek().difference, shared) : shared;
+        }
+
+        private void evaluate() {
+            double difference = 0.0;
+            if (search.teamCount == 2) {
+                difference = Math.abs(teamMu[0] - teamMu[1]);
+                if (difference > threshold() + search.tolerance) {
+                    return;
+                }
+            }
+            double score = search.model.predictDraw(teamMu, teamSigmaSq, search.teamCount, search.playerCount);
+            if (best.size() == search.limit) {
+                Candidate worst = best.peek();
+                if (score < worst.score
+                        || (score == worst.score && Arrays.compare(assignment, worst.assignment) >= 0)) {
+                    return;
+                }
+                best.poll();
+            }
+            best.add(new Candidate(score, difference, assignment.clone()));
+            if (search.teamCount == 2 && best.size() == search.limit) {
+                search.publishThreshold(best.peek().difference);
+            }
+        }
+    }
+
+    private static final class SearchTask extends RecursiveTask<PriorityQueue<Candidate>> {
+        private final Search search;
+        private final List<int[]> prefixes;
+        private final int from;
+        private final int to;
+
+        SearchTask(Search search, List<int[]> prefixes, int from, int to) {
+            this.search = search;
+            this.prefixes = prefixes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected PriorityQueue<Candidate> compute() {
+            if (to - from == 1) {
+                Searcher searcher = new Searcher(search);
+                int[] prefix = prefixes.get(from);
+                searcher.replay(prefix);
+                searcher.search(prefix.length);
+                return searcher.best;
+            }
+            int mid = (from + to) >>> 1;
+            SearchTask left = new SearchTask(search, prefixes, from, mid);
+            left.fork();
+            PriorityQueue<Candidate> best = new SearchTask(search, prefixes, mid, to).compute();
+            for (Candidate candidate : left.join()) {
+                best.add(candidate);
+                if (best.size() > search.limit) {
+                    best.poll();
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package io.github.toveri.openskill.matchmaking;
+
+import io.github.toveri.openskill.Rating;
+
+import java.util.List;
+
+/**
+ * A split of players into teams, as found by a {@link TeamBalancer}.
+ * @param teams The teams of the split, holding the given ratings in the order of the pool.
+ * @param drawProbability The predicted probability for a draw between the teams.
+ */
+public record TeamSplit(List<List<Rating>> teams, double drawProbability) {
+}
@@ -0,0 +1,119 @@
+package io.github.toveri.openskill.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free histogram of non negative values, with log linear buckets in the manner of an HDR histogram.
+ * Values below 32 have a bucket each, and every power of two above is split into 32 buckets,
+ * so a value is known within about 3 % at any magnitude, using a fixed amount of memory.
+ * Recording may happen concurrently with reading, in which case a reading may miss the latest values.
+ */
+public final class Histogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Create an empty histogram.
+     */
+    public Histogram() {}
+
+    /**
+     * Record a value.
+     * @param value The value, where negative values are recorded as zero.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts.getAndIncrement(index(value));
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Get the count of recorded values.
+     * @return The count of values.
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Get the largest recorded value.
+     * @return The largest value, or zero if there are none.
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Get the mean of the recorded values.
+     * @return The mean value, or zero if there are none.
+     */
+    public double mean() {
+        long count = count();
+        return count > 0 ? sum.sum() / (double) count : 0.0;
+    }
+
+    /**
+     * Get the value below or at which the given percentage of the recorded values are.
+     * The value is the largest value of its bucket, but at most the largest recorded value.
+     * @param percentile The percentage, from 0 to 100.
+     * @return The value at the percentile, or zero if there are none.
+     */
+    public long valueAtPercentile(double percentile) {
+        long count = count();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(100.0, percentile) / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(lowestValue(i + 1) - 1, max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Get the count of recorded values that fall in the same bucket as the given value.
+     * Values below 32 have a bucket each, so for them this is the exact count.
+     * @param value The value.
+     * @return The count of values in its bucket.
+     */
+    public long countAt(long value) {
+        return counts.get(index(Math.max(0, value)));
+    }
+
+    private static int index(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    private static long lowestValue(int index) {
+        int bucket = index >>> SUB_BUCKET_BITS;
+        int subBucket = index & (SUB_BUCKET_COUNT - 1);
+        if (bucket == 0) {
+            return subBucket;
+        }
+        // Past the last bucket this wraps to the smallest long, so one less is the largest long.
+        return (long) (SUB_BUCKET_COUNT + subBucket) << (bucket - 1);
+    }
+}
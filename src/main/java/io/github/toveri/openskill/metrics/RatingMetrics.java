@@ -0,0 +1,84 @@
+package io.github.toveri.openskill.metrics;
+
+/**
+ * Receives measurements from the rating and prediction paths of a model.
+ * Attach an implementation through the model options, such as a {@link RecordingMetrics}.
+ * Implementations are called from every thread using the model, so they must be thread safe,
+ * and should be cheap, as they are called inside the hot paths.
+ * Every method does nothing by default.
+ */
+public interface RatingMetrics {
+    /**
+     * The metrics that record nothing, used when no metrics are attached.
+     * Models skip measuring entirely when these are attached, so they cost nothing.
+     */
+    RatingMetrics NONE = new RatingMetrics() {
+    };
+
+    /**
+     * The operations of a model that are timed.
+     */
+    enum Operation {
+        /**
+         * Rating a match.
+         */
+        RATE,
+        /**
+         * Predicting the win probability of each team.
+         */
+        PREDICT_WIN,
+        /**
+         * Predicting the draw probability.
+         */
+        PREDICT_DRAW,
+        /**
+         * Predicting the most probable rank of each team.
+         */
+        PREDICT_RANK,
+        /**
+         * Predicting the win, draw and rank probabilities together.
+         */
+        PREDICT
+    }
+
+    /**
+     * The branches of the functions of the Weng-Lin paper taken when the denominator is not positive,
+     * where the limit of the function is used instead.
+     */
+    enum Branch {
+        /**
+         * The functions V and W.
+         */
+        V,
+        /**
+         * The functions Ṽ and W̃.
+         */
+        VT
+    }
+
+    /**
+     * Record an operation of a model.
+     * @param model The name of the model.
+     * @param operation The operation.
+     * @param teamCount The count of teams of the match.
+     * @param ratingCount The count of ratings in all teams.
+     * @param nanos The time the operation took, in nanoseconds.
+     */
+    default void recordOperation(String model, Operation operation, int teamCount, int ratingCount, long nanos) {
+    }
+
+    /**
+     * Record that the variance reduction of a rating was limited by kappa.
+     * @param model The name of the model.
+     */
+    default void recordKappaClamp(String model) {
+    }
+
+    /**
+     * Record that a function of the Weng-Lin paper used its limit for a non positive denominator.
+     * @param model The name of the model.
+     * @param branch The functions that used their limit.
+     */
+    default void recordDegenerateBranch(String model, Branch branch) {
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.toveri.openskill.metrics;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics that record every measurement per model, using lock free counters and histograms.
+ * For each model and operation the latency and the count of teams are recorded in a {@link Histogram},
+ * and the kappa clamps and degenerate branches are counted.
+ * One instance may be shared by many models, which are told apart by name.
+ */
+public final class RecordingMetrics implements RatingMetrics {
+    private static final int OPERATION_COUNT = Operation.values().length;
+    private static final int BRANCH_COUNT = Branch.values().length;
+
+    private final ConcurrentHashMap<String, ModelRecord> records = new ConcurrentHashMap<>();
+
+    /**
+     * Create metrics with nothing recorded.
+     */
+    public RecordingMetrics() {}
+
+    @Override
+    public void recordOperation(String model, Operation operation, int teamCount, int ratingCount, long nanos) {
+        ModelRecord record = record(model);
+        record.latencies[operation.ordinal()].record(nanos);
+        record.teamCounts[operation.ordinal()].record(teamCount);
+    }
+
+    @Override
+    public void recordKappaClamp(String model) {
+        record(model).kappaClamps.increment();
+    }
+
+    @Override
+    public void recordDegenerateBranch(String model, Branch branch) {
+        record(model).degenerateBranches[branch.ordinal()].increment();
+    }
+
+    /**
+     * Get the names of the models that have recorded anything.
+     * @return The set of model names.
+     */
+    public Set<String> models() {
+        return Set.copyOf(records.keySet());
+    }
+
+    /**
+     * Get the latencies of an operation of a model.
+     * @param model The name of the model.
+     * @param operation The operation.
+     * @return The histogram of latencies in nanoseconds, empty if nothing was recorded.
+     */
+    public Histogram latency(String model, Operation operation) {
+        return record(model).latencies[operation.ordinal()];
+    }
+
+    /**
+     * Get the team counts of the matches of an operation of a model.
+     * @param model The name of the model.
+     * @param operation The operation.
+     * @return The histogram of team counts, empty if nothing was recorded.
+     */
+    public Histogram teamCounts(String model, Operation operation) {
+        return record(model).teamCounts[operation.ordinal()];
+    }
+
+    /**
+     * Get the count of kappa clamps of a model.
+     * @param model The name of the model.
+     * @return The count of ratings whose variance reduction was limited by kappa.
+     */
+    public long kappaClamps(String model) {
+        ModelRecord record = records.get(model);
+        return record != null ? record.kappaClamps.sum() : 0;
+    }
+
+    /**
+     * Get the count of degenerate branches of a model.
+     * @param model The name of the model.
+     * @param branch The functions that used their limit.
+     * @return The count of times the functions used their limit.
+     */
+    public long degenerateBranches(String model, Branch branch) {
+        ModelRecord record = records.get(model);
+        return record != null ? record.degenerateBranches[branch.ordinal()].sum() : 0;
+    }
+
+    private ModelRecord record(String model) {
+        ModelRecord record = records.get(model);
+        return record != null ? record : records.computeIfAbsent(model, name -> new ModelRecord());
+    }
+
+    /**
+     * The measurements of one model.
+     */
+    private static final class ModelRecord {
+        final Histogram[] latencies = new Histogram[OPERATION_COUNT];
+        final Histogram[] teamCounts = new Histogram[OPERATION_COUNT];
+        final LongAdder kappaClamps = new LongAdder();
+        final LongAdder[] degenerateBranches = new LongAdder[BRANCH_COUNT];
+
+        ModelRecord() {
+            for (int i = 0; i < OPERATION_COUNT; i++) {
+                latencies[i] = new Histogram();
+                teamCounts[i] = new Histogram();
+            }
+            for (int i = 0; i < BRANCH_COUNT; i++) {
+                degenerateBranches[i] = new LongAdder();
+            }
+        }
+    }
+}
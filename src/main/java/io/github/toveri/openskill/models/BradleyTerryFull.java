@@ -56,4 +56,50 @@ public class BradleyTerryFull extends Model {
         }
         return new Match(teams);
     }
+
+    @Override
+    protected boolean computeTeamUpdates(Workspace workspace, int teamCount) {
+        if (teamCount >= PairKernel.MIN_TEAM_COUNT && PairKernel.VECTOR != null && defaultGamma) {
+            PairKernel.VECTOR.bradleyTerryFull(workspace, teamCount, betaSq);
+            return true;
+        }
+        double[] teamMu = workspace.teamMu;
+        double[] teamSigmaSq = workspace.teamSigmaSq;
+        double[] teamRank = workspace.teamRank;
+        for (int i = 0; i < teamCount; i++) {
+            double omega = 0.0;
+            double delta = 0.0;
+            // The default gamma only depends on c and the team's sigma, so its square root is taken once per team.
+            double sigmaI = Math.sqrt(teamSigmaSq[i]);
+            for (int q = 0; q < teamCount; q++) {
+                if (q == i) {
+                    continue;
+                }
+                double cIq = Math.sqrt(teamSigmaSq[i] + teamSigmaSq[q] + (2 * (beta * beta)));
+                double pIq = 1 / (1 + Math.exp((teamMu[q] - teamMu[i]) / cIq));
+                double sigmaSqOverCIq = teamSigmaSq[i] / cIq;
+                double s = 0.0;
+                if (teamRank[q] > teamRank[i]) {
+                    s = 1.0;
+                } else if (teamRank[q] == teamRank[i]) {
+                    s = 0.5;
+                }
+                double gamma = defaultGamma ? sigmaI / cIq : gamma(cIq, teamCount, workspace, i);
+                omega += sigmaSqOverCIq * (s - pIq);
+                delta += ((gamma * sigmaSqOverCIq) / cIq) * pIq * (1 - pIq);
+            }
+            workspace.omega[i] = omega;
+            workspace.delta[i] = delta;
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean computeTwoTeamUpdates(Workspace workspace, double muA, double sigmaSqA, double muB,
+                                            double sigmaSqB, boolean draw) {
+        // The two teams are each compared with the other alone, as the pairing has no other team.
+        double cIq = Math.sqrt(sigmaSqA + sigmaSqB + (2 * (beta * beta)));
+        TwoTeams.bradleyTerry(workspace, cIq, muA, sigmaSqA, muB, sigmaSqB, draw);
+        return true;
+    }
 }
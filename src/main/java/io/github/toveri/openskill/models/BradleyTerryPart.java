@@ -56,4 +56,45 @@ public class BradleyTerryPart extends Model {
         }
         return new Match(teams);
     }
+
+    @Override
+    protected boolean computeTeamUpdates(Workspace workspace, int teamCount) {
+        double[] teamMu = workspace.teamMu;
+        double[] teamSigmaSq = workspace.teamSigmaSq;
+        double[] teamRank = workspace.teamRank;
+        for (int i = 0; i < teamCount; i++) {
+            double omega = 0.0;
+            double delta = 0.0;
+            // Only the adjacent teams are compared, in the same order as the adjacent pairs.
+            for (int q = i - 1; q <= i + 1; q += 2) {
+                if (q < 0 || q >= teamCount) {
+                    continue;
+                }
+                double cIq = Math.sqrt(teamSigmaSq[i] + teamSigmaSq[q] + (2 * (beta * beta)));
+                double pIq = 1 / (1 + Math.exp((teamMu[q] - teamMu[i]) / cIq));
+                double sigmaSquaredOverCIq = teamSigmaSq[i] / cIq;
+                double s = 0.0;
+                if (teamRank[q] > teamRank[i]) {
+                    s = 1.0;
+                } else if (teamRank[q] == teamRank[i]) {
+                    s = 0.5;
+                }
+                omega += sigmaSquaredOverCIq * (s - pIq);
+                double gamma = gamma(cIq, teamCount, workspace, i);
+                delta += ((gamma * sigmaSquaredOverCIq) / cIq) * pIq * (1 - pIq);
+            }
+            workspace.omega[i] = omega;
+            workspace.delta[i] = delta;
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean computeTwoTeamUpdates(Workspace workspace, double muA, double sigmaSqA, double muB,
+                                            double sigmaSqB, boolean draw) {
+        // The two teams are adjacent, so each is compared with the other alone.
+        double cIq = Math.sqrt(sigmaSqA + sigmaSqB + (2 * (beta * beta)));
+        TwoTeams.bradleyTerry(workspace, cIq, muA, sigmaSqA, muB, sigmaSqB, draw);
+        return true;
+    }
 }
@@ -1,25 +1,19 @@
 package io.github.toveri.openskill.models;
 
 import io.github.toveri.openskill.*;
-import org.hipparchus.stat.ranking.NaNStrategy;
-import org.hipparchus.stat.ranking.NaturalRanking;
-import org.hipparchus.stat.ranking.TiesStrategy;
+import io.github.toveri.openskill.metrics.RatingMetrics;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-
-import static io.github.toveri.openskill.Common.unwind;
-import static io.github.toveri.openskill.Statistics.phiMajor;
-import static io.github.toveri.openskill.Statistics.phiMajorInverse;
 
 /**
  * Represents a rating model.
  */
 public abstract class Model {
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
     /**
      * The default mean value.
      */
@@ -44,6 +38,14 @@ public abstract class Model {
      * The function that controls how fast the variance is reduced.
      */
     protected final Gamma gammaFun;
+    /**
+     * If the gamma function is the default one, which only depends on c and the team's sigma squared.
+     */
+    protected final boolean defaultGamma;
+    /**
+     * The gamma function if it reads the team's ratings from flat arrays, or null.
+     */
+    protected final PrimitiveGamma primitiveGamma;
     /**
      * The minimum rating variance value.
      */
@@ -52,6 +54,19 @@ public abstract class Model {
      * The minimum rating variance value squared.
      */
     protected final double tauSq;
+    /**
+     * The standard normal distribution functions.
+     */
+    protected final StandardNormal normal;
+    /**
+     * The metrics to record measurements to.
+     */
+    protected final RatingMetrics metrics;
+    /**
+     * If metrics are attached, so that measurements are taken at all.
+     */
+    protected final boolean metricsEnabled;
+    private final String name;
 
     /**
      * Model with default options.
@@ -71,8 +86,14 @@ public abstract class Model {
         betaSq = beta * beta;
         kappa = options.kappa();
         gammaFun = options.gammaFun();
+        defaultGamma = gammaFun == Gamma.DEFAULT;
+        primitiveGamma = gammaFun instanceof PrimitiveGamma primitive ? primitive : null;
         tau = options.tau();
         tauSq = tau * tau;
+        normal = options.normal();
+        metrics = options.metrics();
+        metricsEnabled = metrics != RatingMetrics.NONE;
+        name = getClass().getSimpleName();
     }
 
     /**
@@ -144,10 +165,6 @@ public abstract class Model {
         return teamRatings;
     }
 
-    private static TeamRating calculateTeamRating(List<Rating> team) {
-        return calculateTeamRating(team, 0.0);
-    }
-
     private static TeamRating calculateTeamRating(List<Rating> team, Double rank) {
         double muSum = 0.0;
         double sigmaSqSum = 0.0;
@@ -159,13 +176,11 @@ public abstract class Model {
     }
 
     private static List<Double> calculatePlacements(List<Double> ranks) {
-        NaturalRanking naturalRanking = new NaturalRanking(NaNStrategy.FAILED, TiesStrategy.MINIMUM);
-        double[] ranksArray = ranks.stream().mapToDouble(Double::doubleValue).toArray();
-        return Arrays.stream(naturalRanking.rank(ranksArray)).boxed().toList();
+        return Ranking.rank(ranks);
     }
 
     private static List<Double> generateDefaultRanks(int count) {
-        return IntStream.range(1, count + 1).mapToDouble(v -> v).boxed().toList();
+        return Ranking.defaultRanks(count);
     }
 
     /**
@@ -194,24 +209,259 @@ public abstract class Model {
      * @return The Match with the rating applied.
      */
     public Match rate(Match match, RateOptions options) {
+        long start = startTime();
+        if (match.teamCount() == 2 && defaultGamma) {
+            Match rated = rateTwoTeams(match, options, WORKSPACE.get());
+            if (rated != null) {
+                recordOperation(RatingMetrics.Operation.RATE, 2, match.getTeam(0).size() + match.getTeam(1).size(),
+                        start);
+                return rated;
+            }
+        }
         match = new Match(match);
+        int ratingCount = 0;
         for (List<Rating> team : match.getTeams()) {
+            ratingCount += team.size();
             for (Rating rating : team) {
                 rating.sigma = Math.sqrt((rating.sigma * rating.sigma) + tauSq);
             }
         }
-        List<Double> placements = new ArrayList<>(options.ranks());
-        // If necessary convert scores (larger better) to ranks (smaller better).
-        if (!options.lowerIsBetter()) {
-            placements = placements.stream()
-                    .map(placement -> -placement)
-                    .collect(Collectors.toCollection(ArrayList::new));
+        int teamCount = match.teamCount();
+        double[] placements = new double[teamCount];
+        int[] order = new int[teamCount];
+        for (int i = 0; i < teamCount; i++) {
+            // If necessary convert scores (larger better) to ranks (smaller better).
+            placements[i] = options.lowerIsBetter() ? options.ranks().get(i) : -options.ranks().get(i);
+            order[i] = i;
+        }
+        Ranking.sort(placements, teamCount, order, new int[teamCount]);
+        List<List<Rating>> orderedTeams = new ArrayList<>(teamCount);
+        List<Double> orderedPlacements = new ArrayList<>(teamCount);
+        for (int i : order) {
+            orderedTeams.add(match.getTeam(i));
+            orderedPlacements.add(placements[i]);
+        }
+        Match computedMatch = compute(new Match(orderedTeams), orderedPlacements);
+        List<List<Rating>> teams = new ArrayList<>(Collections.nCopies(teamCount, null));
+        for (int i = 0; i < teamCount; i++) {
+            teams.set(order[i], computedMatch.getTeam(i));
+        }
+        recordOperation(RatingMetrics.Operation.RATE, teamCount, ratingCount, start);
+        return new Match(teams);
+    }
+
+    /**
+     * Rates the match in place based on the default rank order.
+     * Instead of returning a copy, the ratings of the match are updated.
+     * @param match The match to rate.
+     */
+    public void rateInPlace(Match match) {
+        rateInPlace(match, null, WORKSPACE.get());
+    }
+
+    /**
+     * Rates the match in place based on the given options.
+     * Instead of returning a copy, the ratings of the match are updated.
+     * @param match The match to rate.
+     * @param options The options to use (ranks or scores).
+     */
+    public void rateInPlace(Match match, RateOptions options) {
+        rateInPlace(match, options, WORKSPACE.get());
+    }
+
+    /**
+     * Rates the match in place based on the given options, using the given workspace.
+     * Instead of returning a copy, the ratings of the match are updated.
+     * @param match The match to rate.
+     * @param options The options to use (ranks or scores), or null for the default rank order.
+     * @param workspace The scratch space to use, reused between calls.
+     */
+    public void rateInPlace(Match match, RateOptions options, Workspace workspace) {
+        int teamCount = match.teamCount();
+        workspace.ensureCapacity(teamCount);
+        int[] offsets = workspace.matchOffsets;
+        int ratingCount = 0;
+        for (int i = 0; i < teamCount; i++) {
+            offsets[i] = ratingCount;
+            ratingCount += match.getTeam(i).size();
+        }
+        offsets[teamCount] = ratingCount;
+        workspace.ensureRatingCapacity(ratingCount);
+        double[] ratingMu = workspace.matchMu;
+        double[] ratingSigma = workspace.matchSigma;
+        double[] ranks = workspace.matchRanks;
+        for (int i = 0; i < teamCount; i++) {
+            List<Rating> team = match.getTeam(i);
+            for (int j = 0; j < team.size(); j++) {
+                ratingMu[offsets[i] + j] = team.get(j).mu;
+                ratingSigma[offsets[i] + j] = team.get(j).sigma;
+            }
+            ranks[i] = options != null ? options.ranks().get(i) : i + 1;
+        }
+        boolean lowerIsBetter = options == null || options.lowerIsBetter();
+        rate(ratingMu, ratingSigma, offsets, teamCount, ranks, lowerIsBetter, workspace);
+        for (int i = 0; i < teamCount; i++) {
+            List<Rating> team = match.getTeam(i);
+            for (int j = 0; j < team.size(); j++) {
+                team.get(j).mu = ratingMu[offsets[i] + j];
+                team.get(j).sigma = ratingSigma[offsets[i] + j];
+            }
+        }
+    }
+
+    /**
+     * Rates the match based on the given options, giving only the change of each rating instead of a rated match.
+     * The ratings are rated as flat arrays, as {@link #rateInPlace(Match, RateOptions)} does, and the match is not
+     * changed.
+     * @param match The match to rate.
+     * @param options The options to use (ranks or scores), or null for the default rank order.
+     * @return The change of each rating, team after team, along with the ratings before the match.
+     */
+    public RatingDeltas rateDeltas(Match match, RateOptions options) {
+        RatingDeltas deltas = new RatingDeltas(true);
+        rateDeltas(match, options, deltas, WORKSPACE.get());
+        return deltas;
+    }
+
+    /**
+     * Rates the match based on the given options, writing only the change of each rating to reused deltas.
+     * The ratings are rated as flat arrays, as {@link #rateInPlace(Match, RateOptions)} does, and the match is not
+     * changed.
+     * @param match The match to rate.
+     * @param options The options to use (ranks or scores), or null for the default rank order.
+     * @param deltas The deltas to write the change of each rating to, team after team.
+     * @param workspace The scratch space to use, reused between calls.
+     */
+    public void rateDeltas(Match match, RateOptions options, RatingDeltas deltas, Workspace workspace) {
+        int teamCount = match.teamCount();
+        workspace.ensureCapacity(teamCount);
+        int[] offsets = workspace.matchOffsets;
+        int ratingCount = 0;
+        for (int i = 0; i < teamCount; i++) {
+            offsets[i] = ratingCount;
+            ratingCount += match.getTeam(i).size();
+        }
+        offsets[teamCount] = ratingCount;
+        deltas.reset(ratingCount);
+        double[] ratedMu = deltas.deltaMu;
+        double[] ratedSigma = deltas.deltaSigma;
+        double[] ranks = workspace.matchRanks;
+        for (int i = 0; i < teamCount; i++) {
+            List<Rating> team = match.getTeam(i);
+            for (int j = 0; j < team.size(); j++) {
+                ratedMu[offsets[i] + j] = team.get(j).mu;
+                ratedSigma[offsets[i] + j] = team.get(j).sigma;
+            }
+            ranks[i] = options != null ? options.ranks().get(i) : i + 1;
+        }
+        if (deltas.hasPrevious()) {
+            System.arraycopy(ratedMu, 0, deltas.mu, 0, ratingCount);
+            System.arraycopy(ratedSigma, 0, deltas.sigma, 0, ratingCount);
+        }
+        boolean lowerIsBetter = options == null || options.lowerIsBetter();
+        rate(ratedMu, ratedSigma, offsets, teamCount, ranks, lowerIsBetter, workspace);
+        for (int i = 0; i < teamCount; i++) {
+            List<Rating> team = match.getTeam(i);
+            for (int j = 0; j < team.size(); j++) {
+                ratedMu[offsets[i] + j] -= team.get(j).mu;
+                ratedSigma[offsets[i] + j] -= team.get(j).sigma;
+            }
+        }
+    }
+
+    /**
+     * Rates flat arrays of ratings based on the given ranks, writing only the change of each rating to reused deltas.
+     * This rates as {@link #rate(double[], double[], int[], int, double[], boolean, Workspace)} does, but the arrays
+     * are not changed.
+     * @param mu The mean values of all ratings.
+     * @param sigma The standard deviations of all ratings.
+     * @param teamOffsets The index of the first rating of each team, followed by the rating count.
+     * @param teamCount The count of teams.
+     * @param ranks The rank or score of each team.
+     * @param lowerIsBetter If lower ranks is better or not.
+     * @param deltas The deltas to write the change of each rating to.
+     * @param workspace The scratch space to use, reused between calls.
+     */
+    public void rateDeltas(double[] mu, double[] sigma, int[] teamOffsets, int teamCount, double[] ranks,
+                           boolean lowerIsBetter, RatingDeltas deltas, Workspace workspace) {
+        int ratingCount = teamOffsets[teamCount];
+        deltas.reset(ratingCount);
+        double[] ratedMu = deltas.deltaMu;
+        double[] ratedSigma = deltas.deltaSigma;
+        System.arraycopy(mu, 0, ratedMu, 0, ratingCount);
+        System.arraycopy(sigma, 0, ratedSigma, 0, ratingCount);
+        if (deltas.hasPrevious()) {
+            System.arraycopy(mu, 0, deltas.mu, 0, ratingCount);
+            System.arraycopy(sigma, 0, deltas.sigma, 0, ratingCount);
+        }
+        rate(ratedMu, ratedSigma, teamOffsets, teamCount, ranks, lowerIsBetter, workspace);
+        for (int j = 0; j < ratingCount; j++) {
+            ratedMu[j] -= mu[j];
+            ratedSigma[j] -= sigma[j];
+        }
+    }
+
+    /**
+     * Rates flat arrays of ratings in place based on the given ranks.
+     * This is the allocation free counterpart of {@link #rate(Match, RateOptions)}, so tau is applied
+     * and the teams are computed in rank order, but the arrays keep their order.
+     * The ratings of team i are found from index teamOffsets[i] up to (excluding) teamOffsets[i + 1].
+     * @param mu The mean values of all ratings, updated in place.
+     * @param sigma The standard deviations of all ratings, updated in place.
+     * @param teamOffsets The index of the first rating of each team, followed by the rating count.
+     * @param teamCount The count of teams.
+     * @param ranks The rank or score of each team.
+     * @param lowerIsBetter If lower ranks is better or not.
+     * @param workspace The scratch space to use, reused between calls.
+     */
+    public void rate(double[] mu, double[] sigma, int[] teamOffsets, int teamCount, double[] ranks,
+                     boolean lowerIsBetter, Workspace workspace) {
+        long start = startTime();
+        workspace.ensureCapacity(teamCount);
+        workspace.ensureRatingCapacity(teamOffsets[teamCount]);
+        double[] signedRanks = workspace.signedRanks;
+        int[] teamOrder = workspace.teamOrder;
+        boolean ordered = true;
+        for (int i = 0; i < teamCount; i++) {
+            // If necessary convert scores (larger better) to ranks (smaller better).
+            signedRanks[i] = lowerIsBetter ? ranks[i] : -ranks[i];
+            teamOrder[i] = i;
+            ordered &= i == 0 || signedRanks[i - 1] <= signedRanks[i];
+        }
+        if (ordered) {
+            // Teams already in rank order are computed directly on the given arrays.
+            for (int j = 0; j < teamOffsets[teamCount]; j++) {
+                sigma[j] = Math.sqrt((sigma[j] * sigma[j]) + tauSq);
+            }
+            compute(mu, sigma, teamOffsets, teamCount, signedRanks, workspace, mu, sigma);
+            recordOperation(RatingMetrics.Operation.RATE, teamCount, teamOffsets[teamCount], start);
+            return;
+        }
+        Ranking.sort(signedRanks, teamCount, teamOrder, workspace.orderScratch);
+        double[] orderedRanks = workspace.orderedRanks;
+        int[] orderedOffsets = workspace.orderedOffsets;
+        double[] orderedMu = workspace.orderedMu;
+        double[] orderedSigma = workspace.orderedSigma;
+        int index = 0;
+        for (int k = 0; k < teamCount; k++) {
+            int team = teamOrder[k];
+            orderedRanks[k] = signedRanks[team];
+            orderedOffsets[k] = index;
+            for (int j = teamOffsets[team]; j < teamOffsets[team + 1]; j++) {
+                orderedMu[index] = mu[j];
+                orderedSigma[index] = Math.sqrt((sigma[j] * sigma[j]) + tauSq);
+                index++;
+            }
+        }
+        orderedOffsets[teamCount] = index;
+        compute(orderedMu, orderedSigma, orderedOffsets, teamCount, orderedRanks, workspace, orderedMu, orderedSigma);
+        for (int k = 0; k < teamCount; k++) {
+            int team = teamOrder[k];
+            int length = teamOffsets[team + 1] - teamOffsets[team];
+            System.arraycopy(orderedMu, orderedOffsets[k], mu, teamOffsets[team], length);
+            System.arraycopy(orderedSigma, orderedOffsets[k], sigma, teamOffsets[team], length);
         }
-        Common.Pair<List<List<Rating>>, List<Double>> teamsUnwound = unwind(match.getTeams(), placements);
-        Match orderedMatch = new Match(teamsUnwound.a());
-        List<Double> tenet = teamsUnwound.b();
-        Collections.sort(placements);
-        return new Match(unwind(compute(orderedMatch, placements).getTeams(), tenet).a());
+        recordOperation(RatingMetrics.Operation.RATE, teamCount, teamOffsets[teamCount], start);
     }
 
     /**
@@ -221,42 +471,55 @@ public abstract class Model {
      */
     public List<Double> predictWin(Match match) {
         int teamCount = match.teamCount();
+        double[] teamMu = new double[teamCount];
+        double[] teamSigmaSq = new double[teamCount];
+        int playerCount = calculateTeamAggregates(match, teamMu, teamSigmaSq);
+        double[] winProbabilities = new double[teamCount];
+        predictWin(teamMu, teamSigmaSq, teamCount, playerCount, winProbabilities);
+        return toList(winProbabilities, teamCount);
+    }
+
+    /**
+     * Predict the win probability for each team, from the summed mean values and variances of the teams.
+     * @param teamMu The summed mean value of each team.
+     * @param teamSigmaSq The summed standard deviation squared of each team.
+     * @param teamCount The count of teams.
+     * @param playerCount The count of ratings in all teams.
+     * @param winProbabilities The array to write the probability for each team's win to.
+     */
+    public void predictWin(double[] teamMu, double[] teamSigmaSq, int teamCount, int playerCount,
+                           double[] winProbabilities) {
+        long start = startTime();
+        calculateWinProbabilities(teamMu, teamSigmaSq, teamCount, playerCount, winProbabilities);
+        recordOperation(RatingMetrics.Operation.PREDICT_WIN, teamCount, playerCount, start);
+    }
+
+    private void calculateWinProbabilities(double[] teamMu, double[] teamSigmaSq, int teamCount, int playerCount,
+                                           double[] winProbabilities) {
         if (teamCount == 2) {
-            int playerCount = match.getTeams().get(0).size() + match.getTeams().get(1).size();
-            List<TeamRating> teamRatings = calculateTeamRatings(match);
-            double t1WinProbability = phiMajor(
-                    (teamRatings.get(0).mu - teamRatings.get(1).mu)
+            double t1WinProbability = normal.phiMajor(
+                    (teamMu[0] - teamMu[1])
                             / Math.sqrt(playerCount * betaSq
-                            + teamRatings.get(0).sigmaSq
-                            + teamRatings.get(1).sigmaSq)
+                            + teamSigmaSq[0]
+                            + teamSigmaSq[1])
             );
-            return List.of(t1WinProbability, 1 - t1WinProbability);
-        }
-        List<Double> pairProbabilities = new ArrayList<>(teamCount * (teamCount - 1));
-        for (int i = 0; i < match.teamCount(); i++) {
-            for (int j = 0; j < match.teamCount(); j++) {
-                if (i == j) {
-                    continue;
-                }
-                List<Rating> t1 = match.getTeam(i);
-                List<Rating> t2 = match.getTeam(j);
-                TeamRating t1Rating = calculateTeamRating(t1);
-                TeamRating t2Rating = calculateTeamRating(t2);
-                pairProbabilities.add(phiMajor((t1Rating.mu - t2Rating.mu)
-                        / Math.sqrt(teamCount * betaSq + t1Rating.sigmaSq + t2Rating.sigmaSq)
-                ));
-            }
+            winProbabilities[0] = t1WinProbability;
+            winProbabilities[1] = 1 - t1WinProbability;
+            return;
         }
         double denom = (teamCount * (teamCount - 1)) / 2.0;
-        List<Double> winProbabilities = new ArrayList<>(match.teamCount());
         for (int i = 0; i < teamCount; i++) {
             double probabilitySum = 0.0;
-            for (int j = i * (teamCount - 1); j < (i + 1) * (teamCount - 1); j++) {
-                probabilitySum += pairProbabilities.get(j);
+            for (int j = 0; j < teamCount; j++) {
+                if (i == j) {
+                    continue;
+                }
+                probabilitySum += normal.phiMajor((teamMu[i] - teamMu[j])
+                        / Math.sqrt(teamCount * betaSq + teamSigmaSq[i] + teamSigmaSq[j])
+                );
             }
-            winProbabilities.add(probabilitySum / denom);
+            winProbabilities[i] = probabilitySum / denom;
         }
-        return winProbabilities;
     }
 
     /**
@@ -266,28 +529,37 @@ public abstract class Model {
      */
     public double predictDraw(Match match) {
         int teamCount = match.teamCount();
-        int playerCount = match.getTeams().stream().map(List::size).reduce(0, Integer::sum);
-        double drawMargin = Math.sqrt(playerCount) * beta * phiMajorInverse((1 + (1 / (double) playerCount)) / 2.0);
-        List<Double> pairProbabilities = new ArrayList<>(teamCount * (teamCount - 1));
-        for (int i = 0; i < match.teamCount(); i++) {
-            for (int j = 0; j < match.teamCount(); j++) {
+        double[] teamMu = new double[teamCount];
+        double[] teamSigmaSq = new double[teamCount];
+        int playerCount = calculateTeamAggregates(match, teamMu, teamSigmaSq);
+        return predictDraw(teamMu, teamSigmaSq, teamCount, playerCount);
+    }
+
+    /**
+     * Predict the draw probability, from the summed mean values and variances of the teams.
+     * @param teamMu The summed mean value of each team.
+     * @param teamSigmaSq The summed standard deviation squared of each team.
+     * @param teamCount The count of teams.
+     * @param playerCount The count of ratings in all teams.
+     * @return The probability for a draw.
+     */
+    public double predictDraw(double[] teamMu, double[] teamSigmaSq, int teamCount, int playerCount) {
+        long start = startTime();
+        double drawMargin = drawMargin(playerCount);
+        double probabilitySum = 0.0;
+        for (int i = 0; i < teamCount; i++) {
+            for (int j = 0; j < teamCount; j++) {
                 if (i == j) {
                     continue;
                 }
-                List<Rating> t1 = match.getTeam(i);
-                List<Rating> t2 = match.getTeam(j);
-                TeamRating t1Rating = calculateTeamRating(t1);
-                TeamRating t2Rating = calculateTeamRating(t2);
-                pairProbabilities.add(phiMajor((drawMargin - t1Rating.mu + t2Rating.mu)
-                                / Math.sqrt(teamCount * betaSq + t1Rating.sigmaSq + t2Rating.sigmaSq))
-                                - phiMajor((t1Rating.mu - t2Rating.mu - drawMargin)
-                                / Math.sqrt(teamCount * betaSq + t1Rating.sigmaSq + t2Rating.sigmaSq)
-                        )
-                );
+                double c = Math.sqrt(teamCount * betaSq + teamSigmaSq[i] + teamSigmaSq[j]);
+                probabilitySum += normal.phiMajor((drawMargin - teamMu[i] + teamMu[j]) / c)
+                        - normal.phiMajor((teamMu[i] - teamMu[j] - drawMargin) / c);
             }
         }
         double denom = teamCount > 2 ? teamCount * (teamCount - 1) : 1.0;
-        return Math.abs(pairProbabilities.stream().reduce(0.0, Double::sum)) / denom;
+        recordOperation(RatingMetrics.Operation.PREDICT_DRAW, teamCount, playerCount, start);
+        return Math.abs(probabilitySum) / denom;
     }
 
     /**
@@ -298,37 +570,303 @@ public abstract class Model {
      */
     public List<List<Double>> predictRank(Match match) {
         int teamCount = match.teamCount();
-        int playerCount = match.getTeams().stream().map(List::size).reduce(0, Integer::sum);
-        double drawMargin = Math.sqrt(playerCount) * beta * phiMajorInverse((1 + (1 / (double) playerCount)) / 2.0);
-        List<Double> pairProbabilities = new ArrayList<>(teamCount * (teamCount - 1));
-        for (int i = 0; i < match.teamCount(); i++) {
-            for (int j = 0; j < match.teamCount(); j++) {
+        double[] teamMu = new double[teamCount];
+        double[] teamSigmaSq = new double[teamCount];
+        int playerCount = calculateTeamAggregates(match, teamMu, teamSigmaSq);
+        double[] ranks = new double[teamCount];
+        double[] rankProbabilities = new double[teamCount];
+        predictRank(teamMu, teamSigmaSq, teamCount, playerCount, ranks, rankProbabilities);
+        return toRankPredictions(ranks, rankProbabilities, teamCount);
+    }
+
+    /**
+     * Predict the most probable rank for each team, from the summed mean values and variances of the teams.
+     * @param teamMu The summed mean value of each team.
+     * @param teamSigmaSq The summed standard deviation squared of each team.
+     * @param teamCount The count of teams.
+     * @param playerCount The count of ratings in all teams.
+     * @param ranks The array to write each team's most probable rank to.
+     * @param rankProbabilities The array to write the probability of each team's rank to.
+     */
+    public void predictRank(double[] teamMu, double[] teamSigmaSq, int teamCount, int playerCount,
+                            double[] ranks, double[] rankProbabilities) {
+        long start = startTime();
+        double drawMargin = drawMargin(playerCount);
+        double denom = (teamCount * (teamCount - 1)) / 2.0;
+        for (int i = 0; i < teamCount; i++) {
+            double probabilitySum = 0.0;
+            for (int j = 0; j < teamCount; j++) {
                 if (i == j) {
                     continue;
                 }
-                List<Rating> t1 = match.getTeam(i);
-                List<Rating> t2 = match.getTeam(j);
-                TeamRating t1Rating = calculateTeamRating(t1);
-                TeamRating t2Rating = calculateTeamRating(t2);
-                pairProbabilities.add(phiMajor((t1Rating.mu - t2Rating.mu - drawMargin)
-                        / Math.sqrt(teamCount * betaSq + t1Rating.sigmaSq + t2Rating.sigmaSq)
-                ));
+                probabilitySum += normal.phiMajor((teamMu[i] - teamMu[j] - drawMargin)
+                        / Math.sqrt(teamCount * betaSq + teamSigmaSq[i] + teamSigmaSq[j])
+                );
             }
+            rankProbabilities[i] = Math.abs(probabilitySum / denom);
         }
-        double denom = (teamCount * (teamCount - 1)) / 2.0;
-        List<Double> winProbabilities = new ArrayList<>(match.teamCount());
+        Ranking.rank(rankProbabilities, teamCount, new int[teamCount], new int[teamCount], ranks);
+        recordOperation(RatingMetrics.Operation.PREDICT_RANK, teamCount, playerCount, start);
+    }
+
+    /**
+     * Predict the win probabilities, draw probability and most probable ranks of the match together.
+     * The team aggregates, draw margin and terms shared by the pairs of teams are only calculated once.
+     * @param match The match to predict.
+     * @return The predictions for the match.
+     */
+    public MatchPrediction predict(Match match) {
+        long start = startTime();
+        int teamCount = match.teamCount();
+        double[] teamMu = new double[teamCount];
+        double[] teamSigmaSq = new double[teamCount];
+        int playerCount = calculateTeamAggregates(match, teamMu, teamSigmaSq);
+        double drawMargin = drawMargin(playerCount);
+        double[] winProbabilities = new double[teamCount];
+        double[] rankProbabilities = new double[teamCount];
+        double drawProbabilitySum = 0.0;
+        double pairCount = (teamCount * (teamCount - 1)) / 2.0;
         for (int i = 0; i < teamCount; i++) {
-            double probabilitySum = 0.0;
-            for (int j = i * (teamCount - 1); j < (i + 1) * (teamCount - 1); j++) {
-                probabilitySum += pairProbabilities.get(j);
+            double winProbabilitySum = 0.0;
+            double rankProbabilitySum = 0.0;
+            for (int j = 0; j < teamCount; j++) {
+                if (i == j) {
+                    continue;
+                }
+                double c = Math.sqrt(teamCount * betaSq + teamSigmaSq[i] + teamSigmaSq[j]);
+                double winMarginProbability = normal.phiMajor((teamMu[i] - teamMu[j] - drawMargin) / c);
+                drawProbabilitySum += normal.phiMajor((drawMargin - teamMu[i] + teamMu[j]) / c)
+                        - winMarginProbability;
+                rankProbabilitySum += winMarginProbability;
+                if (teamCount != 2) {
+                    winProbabilitySum += normal.phiMajor((teamMu[i] - teamMu[j]) / c);
+                }
             }
-            winProbabilities.add(probabilitySum / denom);
+            winProbabilities[i] = winProbabilitySum / pairCount;
+            rankProbabilities[i] = Math.abs(rankProbabilitySum / pairCount);
         }
-        List<Double> rankProbabilities = winProbabilities.stream().map(Math::abs).toList();
-        List<Double> placements = calculatePlacements(rankProbabilities);
-        List<List<Double>> rankPredictions = new ArrayList<>(placements.size());
-        for (int i = 0; i < placements.size(); i++) {
-            rankPredictions.add(List.of(placements.get(i), rankProbabilities.get(i)));
+        if (teamCount == 2) {
+            calculateWinProbabilities(teamMu, teamSigmaSq, teamCount, playerCount, winProbabilities);
+        }
+        double drawProbability = Math.abs(drawProbabilitySum) / (teamCount > 2 ? teamCount * (teamCount - 1) : 1.0);
+        double[] ranks = new double[teamCount];
+        Ranking.rank(rankProbabilities, teamCount, new int[teamCount], new int[teamCount], ranks);
+        recordOperation(RatingMetrics.Operation.PREDICT, teamCount, playerCount, start);
+        return new MatchPrediction(
+                toList(winProbabilities, teamCount),
+                drawProbability,
+                toRankPredictions(ranks, rankProbabilities, teamCount)
+        );
+    }
+
+    /**
+     * Evaluate the functions V and W of the Weng-Lin paper,
+     * recording in the metrics if the limit of the functions was used.
+     * @param x A number.
+     * @param t A number.
+     * @param out The array to write V and W to, at index 0 and 1.
+     */
+    protected final void evaluateVw(double x, double t, double[] out) {
+        if (!Common.vw(normal, x, t, out) && metricsEnabled) {
+            metrics.recordDegenerateBranch(name, RatingMetrics.Branch.V);
+        }
+    }
+
+    /**
+     * Evaluate the functions Ṽ and W̃ of the Weng-Lin paper,
+     * recording in the metrics if the limit of the functions was used.
+     * @param x A number.
+     * @param t A number.
+     * @param out The array to write Ṽ and W̃ to, at index 0 and 1.
+     */
+    protected final void evaluateVwt(double x, double t, double[] out) {
+        if (!Common.vwt(normal, x, t, out) && metricsEnabled) {
+            metrics.recordDegenerateBranch(name, RatingMetrics.Branch.VT);
+        }
+    }
+
+    private long startTime() {
+        return metricsEnabled ? System.nanoTime() : 0L;
+    }
+
+    private void recordOperation(RatingMetrics.Operation operation, int teamCount, int ratingCount, long start) {
+        if (metricsEnabled) {
+            metrics.recordOperation(name, operation, teamCount, ratingCount, System.nanoTime() - start);
+        }
+    }
+
+    private void recordKappaClamp() {
+        if (metricsEnabled) {
+            metrics.recordKappaClamp(name);
+        }
+    }
+
+    /**
+     * Rate a match of two teams without copying it, sorting it or creating any team ratings.
+     * Tau is applied to each rating as it is read, which gives the same values as the general path.
+     */
+    private Match rateTwoTeams(Match match, RateOptions options, Workspace workspace) {
+        double rank0 = options.lowerIsBetter() ? options.ranks().get(0) : -options.ranks().get(0);
+        double rank1 = options.lowerIsBetter() ? options.ranks().get(1) : -options.ranks().get(1);
+        // Sorting keeps ties in their order, so the second team only goes first if it placed strictly before.
+        if (Double.isNaN(rank0) || Double.isNaN(rank1)) {
+            // Left to the general path to reject.
+            return null;
+        }
+        boolean swap = !(rank0 <= rank1);
+        List<Rating> teamA = match.getTeam(swap ? 1 : 0);
+        List<Rating> teamB = match.getTeam(swap ? 0 : 1);
+        double muA;
+        double sigmaSqA;
+        double muB;
+        double sigmaSqB;
+        if (teamA.size() == 1 && teamB.size() == 1) {
+            Rating a = teamA.get(0);
+            Rating b = teamB.get(0);
+            muA = a.mu;
+            sigmaSqA = tauSigma(a) * tauSigma(a);
+            muB = b.mu;
+            sigmaSqB = tauSigma(b) * tauSigma(b);
+        } else {
+            muA = 0.0;
+            sigmaSqA = 0.0;
+            for (Rating rating : teamA) {
+                double s = tauSigma(rating);
+                muA += rating.mu;
+                sigmaSqA += (s * s);
+            }
+            muB = 0.0;
+            sigmaSqB = 0.0;
+            for (Rating rating : teamB) {
+                double s = tauSigma(rating);
+                muB += rating.mu;
+                sigmaSqB += (s * s);
+            }
+        }
+        workspace.ensureCapacity(2);
+        if (!computeTwoTeamUpdates(workspace, muA, sigmaSqA, muB, sigmaSqB, rank0 == rank1)) {
+            return null;
+        }
+        List<Rating> ratedA = updateTwoTeamRating(teamA, sigmaSqA, workspace.omega[0], workspace.delta[0]);
+        List<Rating> ratedB = updateTwoTeamRating(teamB, sigmaSqB, workspace.omega[1], workspace.delta[1]);
+        List<List<Rating>> teams = new ArrayList<>(2);
+        teams.add(swap ? ratedB : ratedA);
+        teams.add(swap ? ratedA : ratedB);
+        return new Match(teams);
+    }
+
+    private double tauSigma(Rating rating) {
+        return Math.sqrt((rating.sigma * rating.sigma) + tauSq);
+    }
+
+    /**
+     * Move the mean value of a rating by its share of the variance of its team.
+     */
+    private static double updatedMu(double mu, double sigma, double teamSigmaSq, double omega) {
+        return mu + (sigma * sigma / teamSigmaSq) * omega;
+    }
+
+    /**
+     * Reduce the standard deviation of a rating by its share of the variance of its team, at most down to kappa.
+     */
+    private double updatedSigma(double sigma, double teamSigmaSq, double delta) {
+        double reduction = 1 - ((sigma * sigma) / teamSigmaSq) * delta;
+        if (reduction < kappa) {
+            recordKappaClamp();
+            reduction = kappa;
+        }
+        return sigma * Math.sqrt(reduction);
+    }
+
+    private List<Rating> updateTwoTeamRating(List<Rating> team, double teamSigmaSq, double omega, double delta) {
+        List<Rating> teamRatingsUpdated = new ArrayList<>(team.size());
+        for (Rating rating : team) {
+            double sigma = tauSigma(rating);
+            teamRatingsUpdated.add(new Rating(updatedMu(rating.mu, sigma, teamSigmaSq, omega),
+                    updatedSigma(sigma, teamSigmaSq, delta)));
+        }
+        return teamRatingsUpdated;
+    }
+
+    /**
+     * Compute flat arrays of a match of two teams from the team aggregates alone, without ranking the teams.
+     */
+    private boolean computeTwoTeams(double[] mu, double[] sigma, int[] teamOffsets, double[] ranks,
+                                    Workspace workspace, double[] muOut, double[] sigmaOut) {
+        if (Double.isNaN(ranks[0]) || Double.isNaN(ranks[1])) {
+            // Left to the general path to reject.
+            return false;
+        }
+        // Ranking two teams only decides which placed first, where a draw keeps their order.
+        int a = ranks[1] < ranks[0] ? 1 : 0;
+        int b = 1 - a;
+        int fromA = teamOffsets[a];
+        int toA = teamOffsets[a + 1];
+        int fromB = teamOffsets[b];
+        int toB = teamOffsets[b + 1];
+        double muA;
+        double sigmaSqA;
+        double muB;
+        double sigmaSqB;
+        if (toA - fromA == 1 && toB - fromB == 1) {
+            muA = mu[fromA];
+            sigmaSqA = sigma[fromA] * sigma[fromA];
+            muB = mu[fromB];
+            sigmaSqB = sigma[fromB] * sigma[fromB];
+        } else {
+            muA = 0.0;
+            sigmaSqA = 0.0;
+            for (int j = fromA; j < toA; j++) {
+                muA += mu[j];
+                sigmaSqA += (sigma[j] * sigma[j]);
+            }
+            muB = 0.0;
+            sigmaSqB = 0.0;
+            for (int j = fromB; j < toB; j++) {
+                muB += mu[j];
+                sigmaSqB += (sigma[j] * sigma[j]);
+            }
+        }
+        if (!computeTwoTeamUpdates(workspace, muA, sigmaSqA, muB, sigmaSqB, ranks[0] == ranks[1])) {
+            return false;
+        }
+        updateTeamRating(mu, sigma, fromA, toA, sigmaSqA, workspace.omega[0], workspace.delta[0], muOut, sigmaOut);
+        updateTeamRating(mu, sigma, fromB, toB, sigmaSqB, workspace.omega[1], workspace.delta[1], muOut, sigmaOut);
+        return true;
+    }
+
+    private double drawMargin(int playerCount) {
+        return Math.sqrt(playerCount) * beta * normal.phiMajorInverse((1 + (1 / (double) playerCount)) / 2.0);
+    }
+
+    private static int calculateTeamAggregates(Match match, double[] teamMu, double[] teamSigmaSq) {
+        int playerCount = 0;
+        for (int i = 0; i < match.teamCount(); i++) {
+            double muSum = 0.0;
+            double sigmaSqSum = 0.0;
+            for (Rating rating : match.getTeam(i)) {
+                muSum += rating.mu;
+                sigmaSqSum += (rating.sigma * rating.sigma);
+            }
+            teamMu[i] = muSum;
+            teamSigmaSq[i] = sigmaSqSum;
+            playerCount += match.getTeam(i).size();
+        }
+        return playerCount;
+    }
+
+    private static List<Double> toList(double[] values, int count) {
+        List<Double> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(values[i]);
+        }
+        return list;
+    }
+
+    private static List<List<Double>> toRankPredictions(double[] ranks, double[] rankProbabilities, int count) {
+        List<List<Double>> rankPredictions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rankPredictions.add(List.of(ranks[i], rankProbabilities[i]));
         }
         return rankPredictions;
     }
@@ -341,6 +879,108 @@ public abstract class Model {
      */
     protected abstract Match compute(Match match, List<Double> ranks);
 
+    /**
+     * Apply the model's rating algorithm to flat arrays of ratings based on the ranks supplied.
+     * This is the allocation free counterpart of {@link #compute(Match, List)},
+     * so it neither applies tau nor reorders the teams.
+     * The ratings of team i are found from index teamOffsets[i] up to (excluding) teamOffsets[i + 1].
+     * The output arrays may be the same arrays as the input arrays.
+     * @param mu The mean values of all ratings.
+     * @param sigma The standard deviations of all ratings.
+     * @param teamOffsets The index of the first rating of each team, followed by the rating count.
+     * @param teamCount The count of teams.
+     * @param ranks The rank of each team.
+     * @param workspace The scratch space to use, reused between calls.
+     * @param muOut The array to write the updated mean values to.
+     * @param sigmaOut The array to write the updated standard deviations to.
+     */
+    public void compute(double[] mu, double[] sigma, int[] teamOffsets, int teamCount, double[] ranks,
+                        Workspace workspace, double[] muOut, double[] sigmaOut) {
+        workspace.ensureCapacity(teamCount);
+        if (teamCount == 2 && defaultGamma
+                && computeTwoTeams(mu, sigma, teamOffsets, ranks, workspace, muOut, sigmaOut)) {
+            return;
+        }
+        Ranking.rank(ranks, teamCount, workspace.order, workspace.orderScratch, workspace.teamRank);
+        for (int i = 0; i < teamCount; i++) {
+            double muSum = 0.0;
+            double sigmaSqSum = 0.0;
+            for (int j = teamOffsets[i]; j < teamOffsets[i + 1]; j++) {
+                muSum += mu[j];
+                sigmaSqSum += (sigma[j] * sigma[j]);
+            }
+            workspace.teamMu[i] = muSum;
+            workspace.teamSigmaSq[i] = sigmaSqSum;
+        }
+        workspace.bindTeams(mu, sigma, teamOffsets, teamCount);
+        if (!computeTeamUpdates(workspace, teamCount)) {
+            computeAsMatch(mu, sigma, teamOffsets, teamCount, ranks, muOut, sigmaOut);
+            return;
+        }
+        for (int i = 0; i < teamCount; i++) {
+            updateTeamRating(mu, sigma, teamOffsets[i], teamOffsets[i + 1], workspace.teamSigmaSq[i],
+                    workspace.omega[i], workspace.delta[i], muOut, sigmaOut);
+        }
+    }
+
+    /**
+     * Calculate the omega and delta values of each team for the primitive compute path.
+     * The team aggregates, placements and team views of the workspace are set before this is called,
+     * and the results are to be written to the omega and delta arrays of the workspace.
+     * Models that do not override this are computed through {@link #compute(Match, List)} instead.
+     * @param workspace The workspace holding the teams of the match.
+     * @param teamCount The count of teams.
+     * @return If the values were calculated, or false to compute the match as objects.
+     */
+    protected boolean computeTeamUpdates(Workspace workspace, int teamCount) {
+        return false;
+    }
+
+    /**
+     * Compute flat arrays of ratings through {@link #compute(Match, List)}, for models without a primitive path.
+     */
+    private void computeAsMatch(double[] mu, double[] sigma, int[] teamOffsets, int teamCount, double[] ranks,
+                                double[] muOut, double[] sigmaOut) {
+        List<List<Rating>> teams = new ArrayList<>(teamCount);
+        List<Double> placements = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            List<Rating> team = new ArrayList<>(teamOffsets[i + 1] - teamOffsets[i]);
+            for (int j = teamOffsets[i]; j < teamOffsets[i + 1]; j++) {
+                team.add(new Rating(mu[j], sigma[j]));
+            }
+            teams.add(team);
+            placements.add(ranks[i]);
+        }
+        Match computed = compute(new Match(teams), placements);
+        for (int i = 0; i < teamCount; i++) {
+            List<Rating> team = computed.getTeam(i);
+            for (int j = 0; j < team.size(); j++) {
+                muOut[teamOffsets[i] + j] = team.get(j).mu;
+                sigmaOut[teamOffsets[i] + j] = team.get(j).sigma;
+            }
+        }
+    }
+
+    /**
+     * Calculate the omega and delta values of a match of two teams with the default gamma function, from the team
+     * aggregates alone, for the two team paths of rating a match and of the primitive compute path.
+     * Team A placed before team B, or drew with it, and the results are written to the omega and delta arrays of the
+     * workspace, at index 0 for team A and 1 for team B.
+     * The results must equal those of {@link #computeTeamUpdates(Workspace, int)}, and those of
+     * {@link #compute(Match, List)} up to rounding.
+     * @param workspace The workspace to write the results to.
+     * @param muA The summed mean value of team A.
+     * @param sigmaSqA The summed standard deviation squared of team A.
+     * @param muB The summed mean value of team B.
+     * @param sigmaSqB The summed standard deviation squared of team B.
+     * @param draw If the teams drew.
+     * @return If the model has a two team path, or false to take the general path.
+     */
+    protected boolean computeTwoTeamUpdates(Workspace workspace, double muA, double sigmaSqA, double muB,
+                                            double sigmaSqB, boolean draw) {
+        return false;
+    }
+
     /**
      * The function that controls how fast variance is reduced.
      * @param c The value for c.
@@ -352,7 +992,30 @@ public abstract class Model {
      * @return The gamma value.
      */
     protected double gamma(double c, int k, double mu, double sigmaSq, List<Rating> team, double rank) {
-        return gammaFun.gamma(c, k, mu, sigmaSq, team, rank);
+        return defaultGamma ? Math.sqrt(sigmaSq) / c : gammaFun.gamma(c, k, mu, sigmaSq, team, rank);
+    }
+
+    /**
+     * The function that controls how fast variance is reduced, for a team of the workspace.
+     * The default function is evaluated inline, a primitive one is given the team's slice of the flat rating arrays,
+     * and only other functions are given the team as a list.
+     * @param c The value for c.
+     * @param k The count of teams.
+     * @param workspace The workspace holding the team.
+     * @param team The index of the team.
+     * @return The gamma value.
+     */
+    protected final double gamma(double c, int k, Workspace workspace, int team) {
+        double sigmaSq = workspace.teamSigmaSq[team];
+        if (defaultGamma) {
+            return Math.sqrt(sigmaSq) / c;
+        }
+        Workspace.TeamView view = workspace.team(team);
+        if (primitiveGamma != null) {
+            return primitiveGamma.gamma(c, k, workspace.teamMu[team], sigmaSq, view.mu, view.sigma, view.from, view.to,
+                    workspace.teamRank[team]);
+        }
+        return gammaFun.gamma(c, k, workspace.teamMu[team], sigmaSq, view, workspace.teamRank[team]);
     }
 
     /**
@@ -365,15 +1028,32 @@ public abstract class Model {
     protected List<Rating> updateTeamRating(TeamRating teamRating, double omega, double delta) {
         List<Rating> teamRatingsUpdated = new ArrayList<>(teamRating.team.size());
         for (Rating rating : teamRating.team) {
-            double mu = rating.mu;
-            double sigma = rating.sigma;
-            mu += (sigma * sigma / teamRating.sigmaSq) * omega;
-            sigma *= Math.sqrt(Math.max(1 - ((sigma * sigma) / teamRating.sigmaSq) * delta, kappa));
             Rating ratingUpdated = new Rating(rating);
-            ratingUpdated.mu = mu;
-            ratingUpdated.sigma = sigma;
+            ratingUpdated.mu = updatedMu(rating.mu, rating.sigma, teamRating.sigmaSq, omega);
+            ratingUpdated.sigma = updatedSigma(rating.sigma, teamRating.sigmaSq, delta);
             teamRatingsUpdated.add(ratingUpdated);
         }
         return teamRatingsUpdated;
     }
+
+    /**
+     * Update the ratings of a team in flat arrays based on the supplied omega and delta values.
+     * @param mu The mean values of all ratings.
+     * @param sigma The standard deviations of all ratings.
+     * @param from The index of the first rating of the team.
+     * @param to The index after the last rating of the team.
+     * @param teamSigmaSq The standard deviation squared of the team.
+     * @param omega The factor apply to the rating mu values.
+     * @param delta The factor to apply to the rating sigma values.
+     * @param muOut The array to write the updated mean values to.
+     * @param sigmaOut The array to write the updated standard deviations to.
+     */
+    protected void updateTeamRating(double[] mu, double[] sigma, int from, int to, double teamSigmaSq,
+                                    double omega, double delta, double[] muOut, double[] sigmaOut) {
+        for (int j = from; j < to; j++) {
+            double s = sigma[j];
+            muOut[j] = updatedMu(mu[j], s, teamSigmaSq, omega);
+            sigmaOut[j] = updatedSigma(s, teamSigmaSq, delta);
+        }
+    }
 }
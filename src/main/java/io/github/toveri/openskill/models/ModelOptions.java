@@ -1,6 +1,8 @@
 package io.github.toveri.openskill.models;
 
 import io.github.toveri.openskill.Gamma;
+import io.github.toveri.openskill.StandardNormal;
+import io.github.toveri.openskill.metrics.RatingMetrics;
 
 
 /**
@@ -12,6 +14,8 @@ import io.github.toveri.openskill.Gamma;
  * @param kappa    The value to prevent negative posterior distributions.
  * @param gammaFun The function that controls how fast the variance is reduced.
  * @param tau      The minimum rating variance value.
+ * @param normal   The standard normal distribution functions to use.
+ * @param metrics  The metrics to record measurements of the model to.
  */
 public record ModelOptions(
         double mu,
@@ -19,6 +23,37 @@ public record ModelOptions(
         double beta,
         double kappa,
         Gamma gammaFun,
-        double tau
+        double tau,
+        StandardNormal normal,
+        RatingMetrics metrics
 ) {
+    /**
+     * Options object for a rating model, using the exact standard normal distribution functions.
+     *
+     * @param mu       The default mean value.
+     * @param sigma    The default standard deviation.
+     * @param beta     The uncertainty value.
+     * @param kappa    The value to prevent negative posterior distributions.
+     * @param gammaFun The function that controls how fast the variance is reduced.
+     * @param tau      The minimum rating variance value.
+     */
+    public ModelOptions(double mu, double sigma, double beta, double kappa, Gamma gammaFun, double tau) {
+        this(mu, sigma, beta, kappa, gammaFun, tau, StandardNormal.EXACT);
+    }
+
+    /**
+     * Options object for a rating model, recording no metrics.
+     *
+     * @param mu       The default mean value.
+     * @param sigma    The default standard deviation.
+     * @param beta     The uncertainty value.
+     * @param kappa    The value to prevent negative posterior distributions.
+     * @param gammaFun The function that controls how fast the variance is reduced.
+     * @param tau      The minimum rating variance value.
+     * @param normal   The standard normal distribution functions to use.
+     */
+    public ModelOptions(double mu, double sigma, double beta, double kappa, Gamma gammaFun, double tau,
+                        StandardNormal normal) {
+        this(mu, sigma, beta, kappa, gammaFun, tau, normal, RatingMetrics.NONE);
+    }
 }
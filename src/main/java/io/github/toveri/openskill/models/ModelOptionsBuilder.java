@@ -2,9 +2,8 @@ package io.github.toveri.openskill.models;
 
 import io.github.toveri.openskill.Constants;
 import io.github.toveri.openskill.Gamma;
-import io.github.toveri.openskill.Rating;
-
-import java.util.List;
+import io.github.toveri.openskill.StandardNormal;
+import io.github.toveri.openskill.metrics.RatingMetrics;
 
 /**
  * A builder class for creating instances of the ModelOptions class.
@@ -17,6 +16,8 @@ public class ModelOptionsBuilder {
     private Double kappa = null;
     private Gamma gammaFun = null;
     private Double tau = null;
+    private StandardNormal normal = null;
+    private RatingMetrics metrics = null;
 
     /**
      * A model options builder with no set fields.
@@ -90,6 +91,31 @@ public class ModelOptionsBuilder {
         return this;
     }
 
+    /**
+     * Sets the standard normal distribution functions used for rating updates and predictions.
+     * Use {@link StandardNormal#FAST} to trade the last bits of precision for speed.
+     *
+     * @param normal The standard normal distribution functions.
+     * @return The builder instance.
+     */
+    public ModelOptionsBuilder normal(StandardNormal normal) {
+        this.normal = normal;
+        return this;
+    }
+
+    /**
+     * Sets the metrics to record measurements of the model to, such as a
+     * {@link io.github.toveri.openskill.metrics.RecordingMetrics}.
+     * By default nothing is recorded.
+     *
+     * @param metrics The metrics.
+     * @return The builder instance.
+     */
+    public ModelOptionsBuilder metrics(RatingMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     /**
      * Builds an instance with the specified parameters.
      * For any parameter is not set, the default value is used.
@@ -101,10 +127,10 @@ public class ModelOptionsBuilder {
         sigma = sigma != null ? sigma : Constants.SIGMA;
         beta = beta != null ? beta : Constants.BETA;
         kappa = kappa != null ? kappa : Constants.KAPPA;
-        gammaFun = gammaFun != null ? gammaFun :
-                (double c, int k, double mu, double sigmaSq, List<Rating> team, double rank) ->
-                        Math.sqrt(sigmaSq) / c;
+        gammaFun = gammaFun != null ? gammaFun : Gamma.DEFAULT;
         tau = tau != null ? tau : Constants.TAU;
-        return new ModelOptions(mu, sigma, beta, kappa, gammaFun, tau);
+        normal = normal != null ? normal : StandardNormal.EXACT;
+        metrics = metrics != null ? metrics : RatingMetrics.NONE;
+        return new ModelOptions(mu, sigma, beta, kappa, gammaFun, tau, normal, metrics);
     }
 }
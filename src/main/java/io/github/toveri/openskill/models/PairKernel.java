@@ -0,0 +1,43 @@
+package io.github.toveri.openskill.models;
+
+/**
+ * A kernel evaluating the pair loop of the Bradley-Terry full pairing model for every team at once.
+ * Kernels assume the default gamma function, and write the results to the omega and delta arrays of the workspace.
+ * Thurstone-Mosteller has no kernel: its pair loop is dominated by the normal distribution functions of every pair,
+ * which have no lane-wise form, so vectorizing only the arithmetic around them does not pay off.
+ */
+interface PairKernel {
+    /**
+     * The minimum count of teams for which the kernels are used, as smaller matches do not gain from them.
+     */
+    int MIN_TEAM_COUNT = 16;
+
+    /**
+     * The vectorized kernel, or null if the Vector API is not available or has been disabled
+     * with the system property {@code openskill.vector=false}.
+     */
+    PairKernel VECTOR = load();
+
+    /**
+     * Calculate omega and delta of the Bradley-Terry full pairing model.
+     * @param workspace The workspace holding the teams of the match.
+     * @param teamCount The count of teams.
+     * @param betaSq The uncertainty value squared.
+     */
+    void bradleyTerryFull(Workspace workspace, int teamCount, double betaSq);
+
+    private static PairKernel load() {
+        if (!Boolean.parseBoolean(System.getProperty("openskill.vector", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            // Loaded by name, so nothing refers to the incubator module unless it is present.
+            return (PairKernel) Class.forName("io.github.toveri.openskill.models.VectorPairKernel")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -57,4 +57,103 @@ public class PlackettLuce extends Model {
         }
         return new Match(teams);
     }
+
+    /**
+     * Plackett-Luce computation in a single sweep over the teams sorted by placement.
+     * Since teams sharing a placement share the same sum of q, the sums over q reduce to running sums over
+     * the placements, which makes this O(n log n) rather than O(n^2) in the count of teams.
+     * The results equal those of {@link #compute(Match, List)} up to floating point rounding.
+     */
+    @Override
+    protected boolean computeTeamUpdates(Workspace workspace, int teamCount) {
+        double[] teamMu = workspace.teamMu;
+        double[] teamSigmaSq = workspace.teamSigmaSq;
+        double[] teamRank = workspace.teamRank;
+        double[] expMuOverC = workspace.expMuOverC;
+        double[] sumQ = workspace.sumQ;
+        int[] a = workspace.a;
+        int[] order = workspace.order;
+        double cSum = 0.0;
+        for (int i = 0; i < teamCount; i++) {
+            cSum += teamSigmaSq[i] + betaSq;
+        }
+        double c = Math.sqrt(cSum);
+        for (int i = 0; i < teamCount; i++) {
+            expMuOverC[i] = Math.exp(teamMu[i] / c);
+        }
+        // Sum from the last placement to the first, so each tied group gets the sum including itself.
+        double sum = 0.0;
+        for (int end = teamCount; end > 0; ) {
+            int start = end - 1;
+            while (start > 0 && teamRank[order[start - 1]] == teamRank[order[end - 1]]) {
+                start--;
+            }
+            for (int k = start; k < end; k++) {
+                sum += expMuOverC[order[k]];
+            }
+            for (int k = start; k < end; k++) {
+                sumQ[order[k]] = sum;
+                a[order[k]] = end - start;
+            }
+            end = start;
+        }
+        // Each tied group of a teams contributes a terms divided by a, hence once per placement.
+        double inverseSum = 0.0;
+        double inverseSqSum = 0.0;
+        for (int start = 0; start < teamCount; ) {
+            int first = order[start];
+            int end = start + a[first];
+            inverseSum += 1 / sumQ[first];
+            inverseSqSum += 1 / (sumQ[first] * sumQ[first]);
+            for (int k = start; k < end; k++) {
+                int i = order[k];
+                double iMuOverC = expMuOverC[i];
+                double omega = 1.0 / a[i] - iMuOverC * inverseSum;
+                double delta = iMuOverC * inverseSum - iMuOverC * iMuOverC * inverseSqSum;
+                omega *= teamSigmaSq[i] / c;
+                delta *= teamSigmaSq[i] / (c * c);
+                delta *= gamma(c, teamCount, workspace, i);
+                workspace.omega[i] = omega;
+                workspace.delta[i] = delta;
+            }
+            start = end;
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean computeTwoTeamUpdates(Workspace workspace, double muA, double sigmaSqA, double muB,
+                                            double sigmaSqB, boolean draw) {
+        double c = Math.sqrt((sigmaSqA + betaSq) + (sigmaSqB + betaSq));
+        double expA = Math.exp(muA / c);
+        double expB = Math.exp(muB / c);
+        double omegaA;
+        double deltaA;
+        double omegaB;
+        double deltaB;
+        if (draw) {
+            double sum = expA + expB;
+            double inverseSum = 1 / sum;
+            double inverseSqSum = 1 / (sum * sum);
+            omegaA = 1.0 / 2 - expA * inverseSum;
+            deltaA = expA * inverseSum - expA * expA * inverseSqSum;
+            omegaB = 1.0 / 2 - expB * inverseSum;
+            deltaB = expB * inverseSum - expB * expB * inverseSqSum;
+        } else {
+            double sum = expB + expA;
+            double inverseSum = 1 / sum;
+            double inverseSqSum = 1 / (sum * sum);
+            omegaA = 1.0 - expA * inverseSum;
+            deltaA = expA * inverseSum - expA * expA * inverseSqSum;
+            inverseSum += 1 / expB;
+            inverseSqSum += 1 / (expB * expB);
+            omegaB = 1.0 - expB * inverseSum;
+            deltaB = expB * inverseSum - expB * expB * inverseSqSum;
+        }
+        workspace.omega[0] = omegaA * (sigmaSqA / c);
+        workspace.delta[0] = deltaA * (sigmaSqA / (c * c)) * (Math.sqrt(sigmaSqA) / c);
+        workspace.omega[1] = omegaB * (sigmaSqB / c);
+        workspace.delta[1] = deltaB * (sigmaSqB / (c * c)) * (Math.sqrt(sigmaSqB) / c);
+        return true;
+    }
 }
@@ -0,0 +1,153 @@
+package io.github.toveri.openskill.models;
+
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalArgumentException;
+
+import java.util.Arrays;
+
+/**
+ * The change of every rating of a rated match, as flat arrays of primitive values indexed team after team,
+ * optionally along with the ratings before the match.
+ * Deltas are filled by the rateDeltas methods of a model, and are reused between matches, growing as larger matches
+ * are rated.
+ * Deltas are not thread safe, so use one per thread.
+ */
+public final class RatingDeltas {
+    private final boolean previous;
+    /**
+     * The mean value of each rating before the match, if kept.
+     */
+    double[] mu = new double[0];
+    /**
+     * The standard deviation of each rating before the match, if kept.
+     */
+    double[] sigma = new double[0];
+    /**
+     * The change of the mean value of each rating.
+     */
+    double[] deltaMu = new double[0];
+    /**
+     * The change of the standard deviation of each rating.
+     */
+    double[] deltaSigma = new double[0];
+    private int count;
+
+    /**
+     * Create deltas without the ratings before the match.
+     */
+    public RatingDeltas() {
+        this(false);
+    }
+
+    /**
+     * Create deltas.
+     * @param previous If the ratings before the match are kept as well.
+     */
+    public RatingDeltas(boolean previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * Get if the ratings before the match are kept.
+     * @return If the ratings before the match are kept.
+     */
+    public boolean hasPrevious() {
+        return previous;
+    }
+
+    /**
+     * Get the count of ratings of the last rated match.
+     * @return The count of ratings.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Get the change of the mean value of a rating.
+     * @param index The index of the rating, counted over all teams in order.
+     * @return The change of the mean value.
+     */
+    public double deltaMu(int index) {
+        return deltaMu[checkIndex(index)];
+    }
+
+    /**
+     * Get the change of the standard deviation of a rating.
+     * @param index The index of the rating, counted over all teams in order.
+     * @return The change of the standard deviation.
+     */
+    public double deltaSigma(int index) {
+        return deltaSigma[checkIndex(index)];
+    }
+
+    /**
+     * Get the mean value of a rating before the match.
+     * @param index The index of the rating, counted over all teams in order.
+     * @return The mean value before the match.
+     */
+    public double previousMu(int index) {
+        checkPrevious();
+        return mu[checkIndex(index)];
+    }
+
+    /**
+     * Get the standard deviation of a rating before the match.
+     * @param index The index of the rating, counted over all teams in order.
+     * @return The standard deviation before the match.
+     */
+    public double previousSigma(int index) {
+        checkPrevious();
+        return sigma[checkIndex(index)];
+    }
+
+    /**
+     * Add the changes to flat arrays of ratings in place, in the order of the rated match.
+     * Applied to the ratings before the match, this gives the rated values, exactly so unless a value changed by more
+     * than a factor of two.
+     * @param mu The mean values to update, of at least the count of ratings.
+     * @param sigma The standard deviations to update, of at least the count of ratings.
+     */
+    public void applyTo(double[] mu, double[] sigma) {
+        if (mu.length < count) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH, mu.length, count);
+        }
+        if (sigma.length < count) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH, sigma.length, count);
+        }
+        for (int j = 0; j < count; j++) {
+            mu[j] += deltaMu[j];
+            sigma[j] += deltaSigma[j];
+        }
+    }
+
+    /**
+     * Prepare the arrays for a match.
+     * @param count The count of ratings of the match.
+     */
+    void reset(int count) {
+        if (deltaMu.length < count) {
+            int capacity = Math.max(count, deltaMu.length * 2);
+            deltaMu = Arrays.copyOf(deltaMu, capacity);
+            deltaSigma = Arrays.copyOf(deltaSigma, capacity);
+            if (previous) {
+                mu = Arrays.copyOf(mu, capacity);
+                sigma = Arrays.copyOf(sigma, capacity);
+            }
+        }
+        this.count = count;
+    }
+
+    private void checkPrevious() {
+        if (!previous) {
+            throw new IllegalStateException("The ratings before the match are not kept.");
+        }
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.OUT_OF_RANGE_SIMPLE, index, 0, count - 1);
+        }
+        return index;
+    }
+}
@@ -7,8 +7,6 @@ import io.github.toveri.openskill.Rating;
 import java.util.ArrayList;
 import java.util.List;
 
-import static io.github.toveri.openskill.Common.*;
-
 /**
  * Thurstone-Mosteller full pairing model.
  */
@@ -32,6 +30,7 @@ public class ThurstoneMostellerFull extends Model {
     protected Match compute(Match match, List<Double> ranks) {
         List<TeamRating> teamRatings = calculateTeamRatings(match, ranks);
         List<List<Rating>> teams = new ArrayList<>(match.teamCount());
+        double[] vw = new double[2];
         for (int i = 0; i < teamRatings.size(); i++) {
             double omega = 0.0;
             double delta = 0.0;
@@ -46,18 +45,69 @@ public class ThurstoneMostellerFull extends Model {
                 double sigmaSqOverCIq = teamI.sigmaSq / cIq;
                 double gamma = gamma(cIq, teamRatings.size(), teamI.mu, teamI.sigmaSq, teamI.team, teamI.rank);
                 if (teamQ.rank > teamI.rank) {
-                    omega += sigmaSqOverCIq * v(deltaMu, kappa / cIq);
-                    delta += gamma * sigmaSqOverCIq / cIq * w(deltaMu, kappa / cIq);
+                    evaluateVw(deltaMu, kappa / cIq, vw);
+                    omega += sigmaSqOverCIq * vw[0];
+                    delta += gamma * sigmaSqOverCIq / cIq * vw[1];
                 } else if (teamQ.rank < teamI.rank) {
-                    omega += -sigmaSqOverCIq * v(-deltaMu, kappa / cIq);
-                    delta += gamma * sigmaSqOverCIq / cIq * w(-deltaMu, kappa / cIq);
+                    evaluateVw(-deltaMu, kappa / cIq, vw);
+                    omega += -sigmaSqOverCIq * vw[0];
+                    delta += gamma * sigmaSqOverCIq / cIq * vw[1];
                 } else {
-                    omega += sigmaSqOverCIq * vt(deltaMu, kappa / cIq);
-                    delta += gamma * sigmaSqOverCIq / cIq * wt(deltaMu, kappa / cIq);
+                    evaluateVwt(deltaMu, kappa / cIq, vw);
+                    omega += sigmaSqOverCIq * vw[0];
+                    delta += gamma * sigmaSqOverCIq / cIq * vw[1];
                 }
             }
             teams.add(updateTeamRating(teamI, omega, delta));
         }
         return new Match(teams);
     }
+
+    @Override
+    protected boolean computeTeamUpdates(Workspace workspace, int teamCount) {
+        double[] teamMu = workspace.teamMu;
+        double[] teamSigmaSq = workspace.teamSigmaSq;
+        double[] teamRank = workspace.teamRank;
+        double[] vw = workspace.vw;
+        for (int i = 0; i < teamCount; i++) {
+            double omega = 0.0;
+            double delta = 0.0;
+            // The default gamma only depends on c and the team's sigma, so its square root is taken once per team.
+            double sigmaI = Math.sqrt(teamSigmaSq[i]);
+            for (int q = 0; q < teamCount; q++) {
+                if (q == i) {
+                    continue;
+                }
+                double cIq = Math.sqrt(teamSigmaSq[i] + teamSigmaSq[q] + (2 * (beta * beta)));
+                double deltaMu = (teamMu[i] - teamMu[q]) / cIq;
+                double sigmaSqOverCIq = teamSigmaSq[i] / cIq;
+                double gamma = defaultGamma ? sigmaI / cIq : gamma(cIq, teamCount, workspace, i);
+                if (teamRank[q] > teamRank[i]) {
+                    evaluateVw(deltaMu, kappa / cIq, vw);
+                    omega += sigmaSqOverCIq * vw[0];
+                    delta += gamma * sigmaSqOverCIq / cIq * vw[1];
+                } else if (teamRank[q] < teamRank[i]) {
+                    evaluateVw(-deltaMu, kappa / cIq, vw);
+                    omega += -sigmaSqOverCIq * vw[0];
+                    delta += gamma * sigmaSqOverCIq / cIq * vw[1];
+                } else {
+                    evaluateVwt(deltaMu, kappa / cIq, vw);
+                    omega += sigmaSqOverCIq * vw[0];
+                    delta += gamma * sigmaSqOverCIq / cIq * vw[1];
+                }
+            }
+            workspace.omega[i] = omega;
+            workspace.delta[i] = delta;
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean computeTwoTeamUpdates(Workspace workspace, double muA, double sigmaSqA, double muB,
+                                            double sigmaSqB, boolean draw) {
+        // The two teams are each compared with the other alone, as the pairing has no other team.
+        double cIq = Math.sqrt(sigmaSqA + sigmaSqB + (2 * (beta * beta)));
+        TwoTeams.thurstoneMosteller(this, workspace, cIq, muA, sigmaSqA, muB, sigmaSqB, draw);
+        return true;
+    }
 }
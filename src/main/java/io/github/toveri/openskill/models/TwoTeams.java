@@ -0,0 +1,74 @@
+package io.github.toveri.openskill.models;
+
+/**
+ * The closed forms of the pairing models for a match of two teams with the default gamma function.
+ * Each of the two teams is only compared with the other, so the team updates follow from the two team aggregates,
+ * and the models of a family differ only in the c value of the pair.
+ */
+final class TwoTeams {
+    private TwoTeams() {
+    }
+
+    /**
+     * Write the omega and delta values of a Bradley-Terry match of two teams to the workspace,
+     * at index 0 for team A and 1 for team B.
+     * @param workspace The workspace to write the results to.
+     * @param cIq The c value of the pair of teams.
+     * @param muA The summed mean value of team A, which placed before team B or drew with it.
+     * @param sigmaSqA The summed standard deviation squared of team A.
+     * @param muB The summed mean value of team B.
+     * @param sigmaSqB The summed standard deviation squared of team B.
+     * @param draw If the teams drew.
+     */
+    static void bradleyTerry(Workspace workspace, double cIq, double muA, double sigmaSqA, double muB,
+                             double sigmaSqB, boolean draw) {
+        double pA = 1 / (1 + Math.exp((muB - muA) / cIq));
+        double pB = 1 / (1 + Math.exp((muA - muB) / cIq));
+        double sigmaSqOverCIqA = sigmaSqA / cIq;
+        double sigmaSqOverCIqB = sigmaSqB / cIq;
+        double gammaA = Math.sqrt(sigmaSqA) / cIq;
+        double gammaB = Math.sqrt(sigmaSqB) / cIq;
+        workspace.omega[0] = sigmaSqOverCIqA * ((draw ? 0.5 : 1.0) - pA);
+        workspace.delta[0] = ((gammaA * sigmaSqOverCIqA) / cIq) * pA * (1 - pA);
+        workspace.omega[1] = sigmaSqOverCIqB * ((draw ? 0.5 : 0.0) - pB);
+        workspace.delta[1] = ((gammaB * sigmaSqOverCIqB) / cIq) * pB * (1 - pB);
+    }
+
+    /**
+     * Write the omega and delta values of a Thurstone-Mosteller match of two teams to the workspace,
+     * at index 0 for team A and 1 for team B.
+     * @param model The model, whose kappa and metrics are used.
+     * @param workspace The workspace to write the results to.
+     * @param cIq The c value of the pair of teams.
+     * @param muA The summed mean value of team A, which placed before team B or drew with it.
+     * @param sigmaSqA The summed standard deviation squared of team A.
+     * @param muB The summed mean value of team B.
+     * @param sigmaSqB The summed standard deviation squared of team B.
+     * @param draw If the teams drew.
+     */
+    static void thurstoneMosteller(Model model, Workspace workspace, double cIq, double muA, double sigmaSqA,
+                                   double muB, double sigmaSqB, boolean draw) {
+        double[] vw = workspace.vw;
+        double deltaMuA = (muA - muB) / cIq;
+        double deltaMuB = (muB - muA) / cIq;
+        double sigmaSqOverCIqA = sigmaSqA / cIq;
+        double sigmaSqOverCIqB = sigmaSqB / cIq;
+        double gammaA = Math.sqrt(sigmaSqA) / cIq;
+        double gammaB = Math.sqrt(sigmaSqB) / cIq;
+        double t = model.kappa / cIq;
+        if (draw) {
+            model.evaluateVwt(deltaMuA, t, vw);
+            workspace.omega[0] = sigmaSqOverCIqA * vw[0];
+            workspace.delta[0] = gammaA * sigmaSqOverCIqA / cIq * vw[1];
+            model.evaluateVwt(deltaMuB, t, vw);
+            workspace.omega[1] = sigmaSqOverCIqB * vw[0];
+        } else {
+            model.evaluateVw(deltaMuA, t, vw);
+            workspace.omega[0] = sigmaSqOverCIqA * vw[0];
+            workspace.delta[0] = gammaA * sigmaSqOverCIqA / cIq * vw[1];
+            model.evaluateVw(-deltaMuB, t, vw);
+            workspace.omega[1] = -sigmaSqOverCIqB * vw[0];
+        }
+        workspace.delta[1] = gammaB * sigmaSqOverCIqB / cIq * vw[1];
+    }
+}
@@ -0,0 +1,230 @@
+package io.github.toveri.openskill.models;
+
+import io.github.toveri.openskill.Rating;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * Reusable scratch space for the primitive compute and rate paths of the models.
+ * Holds the per-team and per-rating values of a match, and grows as larger matches are computed.
+ * A workspace is not thread safe, so use one per thread.
+ */
+public final class Workspace {
+    /**
+     * The summed mean value of each team.
+     */
+    double[] teamMu;
+    /**
+     * The summed standard deviation squared of each team.
+     */
+    double[] teamSigmaSq;
+    /**
+     * The placement of each team.
+     */
+    double[] teamRank;
+    /**
+     * The indices of the teams sorted by placement, ties kept in their given order.
+     */
+    int[] order;
+    /**
+     * Scratch space for sorting the order of the teams.
+     */
+    int[] orderScratch;
+    /**
+     * The factor to apply to the mean values of each team.
+     */
+    double[] omega;
+    /**
+     * The factor to apply to the standard deviations of each team.
+     */
+    double[] delta;
+    /**
+     * The Plackett-Luce exponentiated mean value over c of each team.
+     */
+    double[] expMuOverC;
+    /**
+     * The Plackett-Luce sum of exponentiated team means at or after each team's rank.
+     */
+    double[] sumQ;
+    /**
+     * The Plackett-Luce count of teams sharing each team's rank.
+     */
+    int[] a;
+    /**
+     * The ranks of each team, negated if higher is better, used when rating.
+     */
+    double[] signedRanks;
+    /**
+     * The indices of the teams sorted by rank, used when rating.
+     */
+    int[] teamOrder;
+    /**
+     * The ranks of the teams in rank order, used when rating.
+     */
+    double[] orderedRanks;
+    /**
+     * The index of the first rating of each team in rank order, followed by the rating count, used when rating.
+     */
+    int[] orderedOffsets;
+    /**
+     * The mean values of the ratings with the teams in rank order, used when rating.
+     */
+    double[] orderedMu;
+    /**
+     * The standard deviations of the ratings with the teams in rank order, used when rating.
+     */
+    double[] orderedSigma;
+    /**
+     * The ranks of the teams of a match being rated in place.
+     */
+    double[] matchRanks;
+    /**
+     * The index of the first rating of each team of a match being rated in place, followed by the rating count.
+     */
+    int[] matchOffsets;
+    /**
+     * The mean values of the ratings of a match being rated in place.
+     */
+    double[] matchMu;
+    /**
+     * The standard deviations of the ratings of a match being rated in place.
+     */
+    double[] matchSigma;
+    /**
+     * The values of the functions V and W, or Ṽ and W̃, of the current pair.
+     */
+    final double[] vw = new double[2];
+    private TeamView[] teams;
+
+    /**
+     * Create an empty workspace.
+     */
+    public Workspace() {
+        this(2);
+    }
+
+    /**
+     * Create a workspace with a set initial capacity of teams.
+     * @param initialCapacity Count of teams allocated for.
+     */
+    public Workspace(int initialCapacity) {
+        teams = new TeamView[0];
+        allocate(Math.max(initialCapacity, 1));
+        allocateRatings(Math.max(initialCapacity, 1));
+    }
+
+    /**
+     * Make sure the workspace can hold the given number of teams.
+     * Growing keeps the current values, so it is safe to call at any point of a computation.
+     * @param teamCount The count of teams.
+     */
+    void ensureCapacity(int teamCount) {
+        if (teamMu.length < teamCount) {
+            allocate(Math.max(teamCount, teamMu.length * 2));
+        }
+    }
+
+    /**
+     * Make sure the workspace can hold the given number of ratings.
+     * Growing keeps the current values, so it is safe to call at any point of a computation.
+     * @param ratingCount The count of ratings.
+     */
+    void ensureRatingCapacity(int ratingCount) {
+        if (orderedMu.length < ratingCount) {
+            allocateRatings(Math.max(ratingCount, orderedMu.length * 2));
+        }
+    }
+
+    /**
+     * Point the team views at the ratings of the match being computed.
+     * @param mu The mean values of all ratings.
+     * @param sigma The standard deviations of all ratings.
+     * @param teamOffsets The index of the first rating of each team, followed by the rating count.
+     * @param teamCount The count of teams.
+     */
+    void bindTeams(double[] mu, double[] sigma, int[] teamOffsets, int teamCount) {
+        for (int i = 0; i < teamCount; i++) {
+            teams[i].bind(mu, sigma, teamOffsets[i], teamOffsets[i + 1]);
+        }
+    }
+
+    /**
+     * Get the team at the given index, as bound by the current compute.
+     * @param index The index of the team.
+     * @return The team (list of ratings).
+     */
+    TeamView team(int index) {
+        return teams[index];
+    }
+
+    private void allocate(int capacity) {
+        teamMu = grow(teamMu, capacity);
+        teamSigmaSq = grow(teamSigmaSq, capacity);
+        teamRank = grow(teamRank, capacity);
+        order = grow(order, capacity);
+        orderScratch = grow(orderScratch, capacity);
+        omega = grow(omega, capacity);
+        delta = grow(delta, capacity);
+        expMuOverC = grow(expMuOverC, capacity);
+        sumQ = grow(sumQ, capacity);
+        a = grow(a, capacity);
+        signedRanks = grow(signedRanks, capacity);
+        teamOrder = grow(teamOrder, capacity);
+        orderedRanks = grow(orderedRanks, capacity);
+        orderedOffsets = grow(orderedOffsets, capacity + 1);
+        matchRanks = grow(matchRanks, capacity);
+        matchOffsets = grow(matchOffsets, capacity + 1);
+        int previousCapacity = teams.length;
+        teams = Arrays.copyOf(teams, capacity);
+        for (int i = previousCapacity; i < capacity; i++) {
+            teams[i] = new TeamView();
+        }
+    }
+
+    private void allocateRatings(int capacity) {
+        orderedMu = grow(orderedMu, capacity);
+        orderedSigma = grow(orderedSigma, capacity);
+        matchMu = grow(matchMu, capacity);
+        matchSigma = grow(matchSigma, capacity);
+    }
+
+    private static double[] grow(double[] array, int capacity) {
+        return array == null ? new double[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        return array == null ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    /**
+     * A read-only view of a team's slice of the flat rating arrays.
+     * Ratings are only created if the view is actually read, as primitive gamma functions never do.
+     */
+    static final class TeamView extends AbstractList<Rating> {
+        double[] mu;
+        double[] sigma;
+        int from;
+        int to;
+
+        private void bind(double[] mu, double[] sigma, int from, int to) {
+            this.mu = mu;
+            this.sigma = sigma;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Rating get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return new Rating(mu[from + index], sigma[from + index]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package io.github.toveri.openskill.store;
+
+import io.github.toveri.openskill.Decay;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.Model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A rating store keeping its ratings in a memory mapped file, so they stay off the heap and survive restarts.
+ * Every player is a fixed width record of id, mean value, standard deviation, time last played and version.
+ * The records form one open addressing table per stripe, each with its own lock like {@link RatingRegistry},
+ * so opening a store only maps the file and needs no load phase.
+ * The file is mapped in chunks, as one mapping is limited to 2 GB.
+ * The capacity is fixed when the store is created, with room for twice the given count of players,
+ * and a stripe takes new players up to three quarters of its records, so lookups stay short as it fills up.
+ * The decay and the listener are not part of the file, and are given each time the store is opened.
+ */
+public final class MappedRatingStore extends StripedRatingStore implements Closeable {
+    private static final long MAGIC = 0x4F534B4C52415445L;
+    private static final int FORMAT = 2;
+    private static final int RECORD_SIZE = 40;
+    private static final int ID = 0;
+    private static final int MU = 8;
+    private static final int SIGMA = 16;
+    private static final int LAST_PLAYED = 24;
+    private static final int VERSION = 32;
+    private static final int RECORDS_PER_CHUNK = 1 << 24;
+    private static final int DEFAULT_STRIPE_COUNT = 64;
+
+    private final int stripeCount;
+    private final long slotsPerStripe;
+    private final long maxSizePerStripe;
+    private final long[] sizes;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] chunks;
+
+    private MappedRatingStore(Model model, Decay decay, RatingListener listener, FileChannel channel, int stripeCount,
+                              long slotsPerStripe, boolean create) throws IOException {
+        super(model, decay, stripeCount, listener);
+        this.stripeCount = stripeCount;
+        this.slotsPerStripe = slotsPerStripe;
+        this.maxSizePerStripe = slotsPerStripe - slotsPerStripe / 4;
+        int headerSize = headerSize(stripeCount);
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerSize);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        long recordCount = stripeCount * slotsPerStripe;
+        int chunkCount = (int) ((recordCount + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK);
+        this.chunks = new MappedByteBuffer[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            long records = Math.min(RECORDS_PER_CHUNK, recordCount - (long) c * RECORDS_PER_CHUNK);
+            long position = headerSize + (long) c * RECORDS_PER_CHUNK * RECORD_SIZE;
+            chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, position, records * RECORD_SIZE);
+            chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        this.sizes = new long[stripeCount];
+        if (create) {
+            header.putLong(0, MAGIC);
+            header.putInt(8, FORMAT);
+            header.putInt(12, stripeCount);
+            header.putLong(16, slotsPerStripe);
+        } else {
+            for (int i = 0; i < stripeCount; i++) {
+                sizes[i] = header.getLong(64 + 8 * i);
+            }
+        }
+    }
+
+    /**
+     * Create a new store file with the default count of stripes.
+     * @param path The path of the file, which must not exist.
+     * @param model The model to rate with, also giving the rating of new players.
+     * @param capacity The count of players to make room for.
+     * @return The created store.
+     * @throws IOException If the file can not be created.
+     */
+    public static MappedRatingStore create(Path path, Model model, long capacity) throws IOException {
+        return create(path, model, capacity, DEFAULT_STRIPE_COUNT);
+    }
+
+    /**
+     * Create a new store file.
+     * @param path The path of the file, which must not exist.
+     * @param model The model to rate with, also giving the rating of new players.
+     * @param capacity The count of players to make room for.
+     * @param stripeCount The count of stripes, rounded up to a power of two.
+     * @return The created store.
+     * @throws IOException If the file can not be created.
+     */
+    public static MappedRatingStore create(Path path, Model model, long capacity, int stripeCount)
+            throws IOException {
+        return create(path, model, capacity, stripeCount, null);
+    }
+
+    /**
+     * Create a new store file inflating the ratings of inactive players.
+     * @param path The path of the file, which must not exist.
+     * @param model The model to rate with, also giving the rating of new players.
+     * @param capacity The count of players to make room for.
+     * @param stripeCount The count of stripes, rounded up to a power of two.
+     * @param decay The inflation of inactive ratings, or null for none.
+     * @return The created store.
+     * @throws IOException If the file can not be created.
+     */
+    public static MappedRatingStore create(Path path, Model model, long capacity, int stripeCount, Decay decay)
+            throws IOException {
+        return create(path, model, capacity, stripeCount, decay, null);
+    }
+
+    /**
+     * Create a new store file inflating the ratings of inactive players, telling a listener of every changed rating.
+     * @param path The path of the file, which must not exist.
+     * @param model The model to rate with, also giving the rating of new players.
+     * @param capacity The count of players to make room for.
+     * @param stripeCount The count of stripes, rounded up to a power of two.
+     * @param decay The inflation of inactive ratings, or null for none.
+     * @param listener The listener to call with every changed rating, or null for none.
+     * @return The created store.
+     * @throws IOException If the file can not be created.
+     */
+    public static MappedRatingStore create(Path path, Model model, long capacity, int stripeCount, Decay decay,
+                                           RatingListener listener) throws IOException {
+        int stripes = stripeCount(stripeCount);
+        long perStripe = Math.max(16, (2 * capacity + stripes - 1) / stripes);
+        long slotsPerStripe = Long.highestOneBit(perStripe - 1) << 1;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new MappedRatingStore(model, decay, listener, channel, stripes, slotsPerStripe, true);
+        }
+    }
+
+    /**
+     * Open an existing store file.
+     * @param path The path of the file.
+     * @param model The model to rate with, also giving the rating of new players.
+     * @return The opened store.
+     * @throws IOException If the file can not be opened, or is not a rating store.
+     */
+    public static MappedRatingStore open(Path path, Model model) throws IOException {
+        return open(path, model, null);
+    }
+
+    /**
+     * Open an existing store file inflating the ratings of inactive players.
+     * @param path The path of the file.
+     * @param model The model to rate with, also giving the rating of new players.
+     * @param decay The inflation of inactive ratings, or null for none.
+     * @return The opened store.
+     * @throws IOException If the file can not be opened, or is not a rating store.
+     */
+    public static MappedRatingStore open(Path path, Model model, Decay decay) throws IOException {
+        return open(path, model, decay, null);
+    }
+
+    /**
+     * Open an existing store file inflating the ratings of inactive players, telling a listener of every changed
+     * rating.
+     * @param path The path of the file.
+     * @param model The model to rate with, also giving the rating of new players.
+     * @param decay The inflation of inactive ratings, or null for none.
+     * @param listener The listener to call with every changed rating, or null for none.
+     * @return The opened store.
+     * @throws IOException If the file can not be opened, or is not a rating store.
+     */
+    public static MappedRatingStore open(Path path, Model model, Decay decay, RatingListener listener)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 64);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getLong(0) != MAGIC || header.getInt(8) != FORMAT) {
+                throw new IOException("Not a rating store: " + path);
+            }
+            return new MappedRatingStore(model, decay, listener, channel, header.getInt(12), header.getLong(16),
+                    false);
+        }
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            locks[i].lock();
+            try {
+                size += sizes[i];
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Get the version of the rating of the player, starting at 1 when added and counting up with every change.
+     * @param id The id of the player.
+     * @return The version, or 0 if the player is not in the store.
+     */
+    public long version(long id) {
+        int stripe = stripeIndex(id);
+        locks[stripe].lock();
+        try {
+            long record = find(stripe, id);
+            return record >= 0 ? getLong(record, VERSION) : 0;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    @Override
+    public void put(long id, Rating rating) {
+        int stripe = stripeIndex(id);
+        long lastPlayed;
+        long version;
+        locks[stripe].lock();
+        try {
+            long size = sizes[stripe];
+            long record = insertRecord(stripe, id);
+            putDouble(record, MU, rating.mu);
+            putDouble(record, SIGMA, rating.sigma);
+            if (sizes[stripe] == size) {
+                putLong(record, VERSION, getLong(record, VERSION) + 1);
+            }
+            lastPlayed = getLong(record, LAST_PLAYED);
+            version = getLong(record, VERSION);
+        } finally {
+            locks[stripe].unlock();
+        }
+        if (listener != null) {
+            listener.ratingChanged(id, rating.mu, rating.sigma, lastPlayed, version);
+        }
+    }
+
+    /**
+     * Write the changes of the mapped file to the storage device.
+     */
+    public void force() {
+        header.force();
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    /**
+     * Write the changes to the storage device.
+     * The file stays mapped until the store is garbage collected, as mappings can not be released before that.
+     */
+    @Override
+    public void close() {
+        force();
+    }
+
+    @Override
+    long find(int stripe, long id) {
+        long first = stripe * slotsPerStripe;
+        long mask = slotsPerStripe - 1;
+        for (long slot = firstSlot(id) & mask, probes = 0; probes < slotsPerStripe;
+             slot = (slot + 1) & mask, probes++) {
+            long record = first + slot;
+            if (getLong(record, VERSION) == 0) {
+                return -1;
+            }
+            if (getLong(record, ID) == id) {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    void insert(int stripe, long id) {
+        insertRecord(stripe, id);
+    }
+
+    @Override
+    void reserve(long[] players) {
+        // Count the new players of each stripe that could fill up, so a full store fails the match before adding any.
+        for (int j = 0; j < players.length; j++) {
+            int stripe = stripeIndex(players[j]);
+            if (sizes[stripe] + players.length <= maxSizePerStripe || !isNew(players, j, stripe)) {
+                continue;
+            }
+            long added = 1;
+            for (int k = j + 1; k < players.length; k++) {
+                if (stripeIndex(players[k]) == stripe && isNew(players, k, stripe)) {
+                    added++;
+                }
+            }
+            if (sizes[stripe] + added > maxSizePerStripe) {
+                throw new IllegalStateException("The rating store is full.");
+            }
+        }
+    }
+
+    @Override
+    double mu(long record) {
+        return getDouble(record, MU);
+    }
+
+    @Override
+    double sigma(long record) {
+        return getDouble(record, SIGMA);
+    }
+
+    @Override
+    long playedAt(long record) {
+        return getLong(record, LAST_PLAYED);
+    }
+
+    @Override
+    long write(long record, double mu, double sigma, long time) {
+        long version = getLong(record, VERSION) + 1;
+        putDouble(record, MU, mu);
+        putDouble(record, SIGMA, sigma);
+        putLong(record, LAST_PLAYED, time);
+        putLong(record, VERSION, version);
+        return version;
+    }
+
+    private boolean isNew(long[] players, int j, int stripe) {
+        // The players of a match are distinct, as checked before the stripes are locked.
+        return find(stripe, players[j]) < 0;
+    }
+
+    private long insertRecord(int stripe, long id) {
+        long first = stripe * slotsPerStripe;
+        long mask = slotsPerStripe - 1;
+        for (long slot = firstSlot(id) & mask, probes = 0; probes < slotsPerStripe;
+             slot = (slot + 1) & mask, probes++) {
+            long record = first + slot;
+            if (getLong(record, VERSION) == 0) {
+                if (sizes[stripe] >= maxSizePerStripe) {
+                    break;
+                }
+                // A record is used once its version is set, so the empty records of a new file are zeros.
+                putLong(record, ID, id);
+                putDouble(record, MU, defaultMu);
+                putDouble(record, SIGMA, defaultSigma);
+                putLong(record, LAST_PLAYED, NEVER_PLAYED);
+                putLong(record, VERSION, 1);
+                sizes[stripe]++;
+                header.putLong(64 + 8 * stripe, sizes[stripe]);
+                return record;
+            }
+            if (getLong(record, ID) == id) {
+                return record;
+            }
+        }
+        throw new IllegalStateException("The rating store is full.");
+    }
+
+    private static long firstSlot(long id) {
+        return hash(id) & 0xFFFFFFFFL;
+    }
+
+    private static int headerSize(int stripeCount) {
+        return 64 + 8 * stripeCount;
+    }
+
+    private long getLong(long record, int field) {
+        return chunks[(int) (record / RECORDS_PER_CHUNK)].getLong(offset(record, field));
+    }
+
+    private double getDouble(long record, int field) {
+        return chunks[(int) (record / RECORDS_PER_CHUNK)].getDouble(offset(record, field));
+    }
+
+    private void putLong(long record, int field, long value) {
+        chunks[(int) (record / RECORDS_PER_CHUNK)].putLong(offset(record, field), value);
+    }
+
+    private void putDouble(long record, int field, double value) {
+        chunks[(int) (record / RECORDS_PER_CHUNK)].putDouble(offset(record, field), value);
+    }
+
+    private static int offset(long record, int field) {
+        return (int) (record % RECORDS_PER_CHUNK) * RECORD_SIZE + field;
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.toveri.openskill.store;
+
+import io.github.toveri.openskill.models.Workspace;
+
+import java.util.Arrays;
+
+/**
+ * The arrays of one thread for rating matches of a store.
+ */
+final class RateScratch {
+    final Workspace workspace = new Workspace();
+    int[] offsets = new int[0];
+    double[] ranks = new double[0];
+    double[] mu = new double[0];
+    double[] sigma = new double[0];
+    int[] stripes = new int[0];
+    long[] records = new long[0];
+    long[] versions = new long[0];
+
+    /**
+     * Prepare the arrays for a match, filling the team offsets.
+     * @param teamSizes The count of players of each team.
+     * @param playerCount The count of players.
+     * @param ranks The rank of each team, or null for the given order.
+     * @return The ranks to rate with.
+     */
+    double[] prepare(int[] teamSizes, int playerCount, double[] ranks) {
+        int teamCount = teamSizes.length;
+        if (offsets.length < teamCount + 1) {
+            offsets = new int[teamCount + 1];
+            this.ranks = new double[teamCount];
+        }
+        ensurePlayers(playerCount);
+        offsets[0] = 0;
+        for (int i = 0; i < teamCount; i++) {
+            offsets[i + 1] = offsets[i] + teamSizes[i];
+        }
+        if (ranks != null) {
+            return ranks;
+        }
+        for (int i = 0; i < teamCount; i++) {
+            this.ranks[i] = i + 1;
+        }
+        return this.ranks;
+    }
+
+    /**
+     * Make room for the players of a match.
+     * @param playerCount The count of players.
+     */
+    void ensurePlayers(int playerCount) {
+        if (mu.length < playerCount) {
+            mu = new double[playerCount];
+            sigma = new double[playerCount];
+            stripes = new int[playerCount];
+            records = new long[playerCount];
+            versions = new long[playerCount];
+        }
+    }
+
+    /**
+     * Sort the first count stripe indices and remove duplicates, giving the order to lock them in.
+     * @param count The count of stripe indices.
+     * @return The count of distinct stripe indices.
+     */
+    int distinctStripes(int count) {
+        Arrays.sort(stripes, 0, count);
+        int distinct = 0;
+        for (int j = 0; j < count; j++) {
+            if (distinct == 0 || stripes[distinct - 1] != stripes[j]) {
+                stripes[distinct++] = stripes[j];
+            }
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,22 @@
+package io.github.toveri.openskill.store;
+
+/**
+ * Receives the new ratings of players when they change in a store.
+ * The listener is called on the rating thread after the players are unlocked, so it does not hold up other matches,
+ * but the changes of a player rated by two threads at once may arrive out of order.
+ * Each change carries the version of the rating, which counts up with every change of the player,
+ * so a listener keeps the change of the highest version it has seen.
+ */
+@FunctionalInterface
+public interface RatingListener {
+    /**
+     * Called after the rating of a player was set or rated.
+     * @param id The id of the player.
+     * @param mu The new mean value.
+     * @param sigma The new standard deviation.
+     * @param lastPlayed The time the player last played,
+     *                   or {@link RatingStore#NEVER_PLAYED} if the player has not played.
+     * @param version The version of the rating, higher for every later change of the player.
+     */
+    void ratingChanged(long id, double mu, double sigma, long lastPlayed, long version);
+}
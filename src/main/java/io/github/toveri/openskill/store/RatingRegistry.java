@@ -0,0 +1,210 @@
+package io.github.toveri.openskill.store;
+
+import io.github.toveri.openskill.Decay;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.Model;
+
+/**
+ * A thread safe registry of player ratings, keyed by player id.
+ * The ratings are split over stripes, each an open addressing table of primitive values with its own lock,
+ * so threads rating different players rarely wait for each other.
+ * Rating a match locks the stripes of its players in ascending order, so concurrent matches can not deadlock,
+ * and the match is read, rated and written back atomically.
+ * An optional listener is told of every changed rating once the match is written, for example to keep a leaderboard
+ * up to date, and an optional decay inflates the ratings of inactive players when they are read at a time or rated.
+ */
+public final class RatingRegistry extends StripedRatingStore {
+    private static final int DEFAULT_STRIPE_COUNT = 64;
+
+    private final Stripe[] stripes;
+
+    /**
+     * Create a registry with the default count of stripes.
+     * @param model The model to rate with, also giving the rating of new players.
+     */
+    public RatingRegistry(Model model) {
+        this(model, DEFAULT_STRIPE_COUNT);
+    }
+
+    /**
+     * Create a registry.
+     * @param model The model to rate with, also giving the rating of new players.
+     * @param stripeCount The count of stripes, rounded up to a power of two.
+     */
+    public RatingRegistry(Model model, int stripeCount) {
+        this(model, stripeCount, null);
+    }
+
+    /**
+     * Create a registry telling a listener of every changed rating.
+     * @param model The model to rate with, also giving the rating of new players.
+     * @param stripeCount The count of stripes, rounded up to a power of two.
+     * @param listener The listener to call with every changed rating, or null for none.
+     */
+    public RatingRegistry(Model model, int stripeCount, RatingListener listener) {
+        this(model, stripeCount, listener, null);
+    }
+
+    /**
+     * Create a registry inflating the ratings of inactive players, telling a listener of every changed rating.
+     * @param model The model to rate with, also giving the rating of new players.
+     * @param stripeCount The count of stripes, rounded up to a power of two.
+     * @param listener The listener to call with every changed rating, or null for none.
+     * @param decay The inflation of inactive ratings, or null for none.
+     */
+    public RatingRegistry(Model model, int stripeCount, RatingListener listener, Decay decay) {
+        super(model, decay, stripeCount(stripeCount), listener);
+        this.stripes = new Stripe[locks.length];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            locks[i].lock();
+            try {
+                size += stripes[i].size;
+            } finally {
+                locks[i].unlock();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void put(long id, Rating rating) {
+        int index = stripeIndex(id);
+        Stripe stripe = stripes[index];
+        long lastPlayed;
+        long version;
+        locks[index].lock();
+        try {
+            int size = stripe.size;
+            int slot = stripe.insert(id, rating.mu, rating.sigma, NEVER_PLAYED, 1);
+            stripe.mu[slot] = rating.mu;
+            stripe.sigma[slot] = rating.sigma;
+            if (stripe.size == size) {
+                stripe.version[slot]++;
+            }
+            lastPlayed = stripe.lastPlayed[slot];
+            version = stripe.version[slot];
+        } finally {
+            locks[index].unlock();
+        }
+        if (listener != null) {
+            listener.ratingChanged(id, rating.mu, rating.sigma, lastPlayed, version);
+        }
+    }
+
+    @Override
+    long find(int stripe, long id) {
+        int slot = stripes[stripe].find(id);
+        return slot >= 0 ? record(stripe, slot) : -1;
+    }
+
+    @Override
+    void insert(int stripe, long id) {
+        stripes[stripe].insert(id, defaultMu, defaultSigma, NEVER_PLAYED, 1);
+    }
+
+    @Override
+    double mu(long record) {
+        return stripes[(int) (record >>> 32)].mu[(int) record];
+    }
+
+    @Override
+    double sigma(long record) {
+        return stripes[(int) (record >>> 32)].sigma[(int) record];
+    }
+
+    @Override
+    long playedAt(long record) {
+        return stripes[(int) (record >>> 32)].lastPlayed[(int) record];
+    }
+
+    @Override
+    long write(long record, double mu, double sigma, long time) {
+        Stripe stripe = stripes[(int) (record >>> 32)];
+        int slot = (int) record;
+        stripe.mu[slot] = mu;
+        stripe.sigma[slot] = sigma;
+        stripe.lastPlayed[slot] = time;
+        return ++stripe.version[slot];
+    }
+
+    private static long record(int stripe, int slot) {
+        // The stripe is kept in the high bits of the handle and the slot in the low bits.
+        return (long) stripe << 32 | slot;
+    }
+
+    /**
+     * An open addressing table of ratings, guarded by the lock of its stripe.
+     */
+    private static final class Stripe {
+        long[] ids = new long[16];
+        double[] mu = new double[16];
+        double[] sigma = new double[16];
+        long[] lastPlayed = new long[16];
+        long[] version = new long[16];
+        boolean[] used = new boolean[16];
+        int size;
+
+        int find(long id) {
+            int mask = ids.length - 1;
+            for (int slot = hash(id) & mask; used[slot]; slot = (slot + 1) & mask) {
+                if (ids[slot] == id) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        int insert(long id, double initialMu, double initialSigma, long initialLastPlayed, long initialVersion) {
+            int slot = find(id);
+            if (slot >= 0) {
+                return slot;
+            }
+            if ((size + 1) * 2 > ids.length) {
+                grow();
+            }
+            int mask = ids.length - 1;
+            slot = hash(id) & mask;
+            while (used[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            ids[slot] = id;
+            mu[slot] = initialMu;
+            sigma[slot] = initialSigma;
+            lastPlayed[slot] = initialLastPlayed;
+            version[slot] = initialVersion;
+            size++;
+            return slot;
+        }
+
+        private void grow() {
+            long[] oldIds = ids;
+            double[] oldMu = mu;
+            double[] oldSigma = sigma;
+            long[] oldLastPlayed = lastPlayed;
+            long[] oldVersion = version;
+            boolean[] oldUsed = used;
+            int capacity = oldIds.length * 2;
+            ids = new long[capacity];
+            mu = new double[capacity];
+            sigma = new double[capacity];
+            lastPlayed = new long[capacity];
+            version = new long[capacity];
+            used = new boolean[capacity];
+            size = 0;
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldUsed[i]) {
+                    insert(oldIds[i], oldMu[i], oldSigma[i], oldLastPlayed[i], oldVersion[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.toveri.openskill.store;
+
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.RatingDeltas;
+
+/**
+ * A thread safe store of player ratings keyed by player id, that rates matches between its players.
+ * A store records the time each player last played, so that with a {@link io.github.toveri.openskill.Decay}
+ * the ratings of inactive players are inflated when they are read or rated, instead of by a job over all players.
+ */
+public interface RatingStore {
+    /**
+     * The time last played of a player that has not played, or is not in the store.
+     * It is before any time a match is played at, so 0 and negative times are times like any other.
+     */
+    long NEVER_PLAYED = Long.MIN_VALUE;
+
+    /**
+     * Get the count of players in the store.
+     * @return The count of players.
+     */
+    long size();
+
+    /**
+     * Check if the player is in the store.
+     * @param id The id of the player.
+     * @return If the player is in the store.
+     */
+    boolean contains(long id);
+
+    /**
+     * Get a copy of the rating of the player.
+     * @param id The id of the player.
+     * @return The rating of the player, or null if the player is not in the store.
+     */
+    Rating get(long id);
+
+    /**
+     * Get a copy of the rating of the player at a time, inflated for inactivity by the decay of the store.
+     * Without decay, or for a player that has not played, this is the same as {@link #get(long)}.
+     * @param id The id of the player.
+     * @param time The time to get the rating at.
+     * @return The rating of the player, or null if the player is not in the store.
+     */
+    Rating get(long id, long time);
+
+    /**
+     * Get the time the player last played, as given to {@link #rate(long[], int[], double[], boolean, long)}.
+     * @param id The id of the player.
+     * @return The time last played, or {@link #NEVER_PLAYED} if the player has not played or is not in the store.
+     */
+    long lastPlayed(long id);
+
+    /**
+     * Set the rating of the player, adding the player if it is not in the store.
+     * @param id The id of the player.
+     * @param rating The rating to set, its values are copied.
+     */
+    void put(long id, Rating rating);
+
+    /**
+     * Rate a match between players atomically, recording the time it was played.
+     * The ratings of the players are first inflated for their inactivity up to that time.
+     * Players not in the store are added with the default rating of the model.
+     * @param players The distinct ids of the players of all teams, team after team.
+     * @param teamSizes The count of players of each team.
+     * @param ranks The rank or score of each team, or null for the given order.
+     * @param lowerIsBetter If lower ranks is better or not.
+     * @param time The time the match was played.
+     */
+    default void rate(long[] players, int[] teamSizes, double[] ranks, boolean lowerIsBetter, long time) {
+        rate(players, teamSizes, ranks, lowerIsBetter, time, null, null);
+    }
+
+    /**
+     * Rate a match between players atomically, recording the time it was played, and give the ratings written.
+     * The ratings are copied while the players are still locked, so no other match can change them in between.
+     * Players not in the store are added with the default rating of the model.
+     * @param players The distinct ids of the players of all teams, team after team.
+     * @param teamSizes The count of players of each team.
+     * @param ranks The rank or score of each team, or null for the given order.
+     * @param lowerIsBetter If lower ranks is better or not.
+     * @param time The time the match was played.
+     * @param muOut The array to write the new mean value of each player to, in the order of the players,
+     *              or null for none.
+     * @param sigmaOut The array to write the new standard deviation of each player to, in the order of the
+     *                 players, or null for none.
+     */
+    void rate(long[] players, int[] teamSizes, double[] ranks, boolean lowerIsBetter, long time, double[] muOut,
+              double[] sigmaOut);
+
+    /**
+     * Rate a match between players atomically, played at the current time in milliseconds.
+     * Players not in the store are added with the default rating of the model.
+     * @param players The ids of the players of all teams, team after team.
+     * @param teamSizes The count of players of each team.
+     * @param ranks The rank or score of each team, or null for the given order.
+     * @param lowerIsBetter If lower ranks is better or not.
+     */
+    default void rate(long[] players, int[] teamSizes, double[] ranks, boolean lowerIsBetter) {
+        rate(players, teamSizes, ranks, lowerIsBetter, System.currentTimeMillis());
+    }
+
+    /**
+     * Rate a match between players atomically, assuming lower ranks are better.
+     * Players not in the store are added with the default rating of the model.
+     * @param players The ids of the players of all teams, team after team.
+     * @param teamSizes The count of players of each team.
+     * @param ranks The rank of each team, or null for the given order.
+     */
+    default void rate(long[] players, int[] teamSizes, double[] ranks) {
+        rate(players, teamSizes, ranks, true);
+    }
+
+    /**
+     * Add the changes of a rated match to the ratings of its players atomically, recording the time it was played.
+     * The ratings are first inflated for their inactivity up to that time, and the changes are added to the inflated
+     * ratings, so they should be rated from the ratings given by {@link #get(long, long)} at that time.
+     * Players not in the store are added with the default rating of the model.
+     * @param players The distinct ids of the players of all teams, team after team, in the order of the deltas.
+     * @param deltas The change of the rating of each player.
+     * @param time The time the match was played.
+     */
+    void apply(long[] players, RatingDeltas deltas, long time);
+
+    /**
+     * Add the changes of a rated match to the ratings of its players atomically, played at the current time in
+     * milliseconds.
+     * Players not in the store are added with the default rating of the model.
+     * @param players The ids of the players of all teams, team after team, in the order of the deltas.
+     * @param deltas The change of the rating of each player.
+     */
+    default void apply(long[] players, RatingDeltas deltas) {
+        apply(players, deltas, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,327 @@
+package io.github.toveri.openskill.store;
+
+import io.github.toveri.openskill.Decay;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.models.RatingDeltas;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalArgumentException;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The locking, reading and rating shared by the stores that split their players over stripes, each with its own lock.
+ * A store only lays out its records, each found by a handle that stays valid while its stripe is locked and no player
+ * is added to it.
+ * Rating a match validates it first, rejecting players listed twice, then locks the stripes of its players
+ * in ascending order, so concurrent matches can not deadlock, and adds every new player before any rating changes.
+ * The listener is told of the new ratings after the stripes are unlocked, so it never holds up other matches.
+ */
+abstract class StripedRatingStore implements RatingStore {
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    final Model model;
+    final Decay decay;
+    final double defaultMu;
+    final double defaultSigma;
+    final ReentrantLock[] locks;
+    final RatingListener listener;
+    private final int stripeShift;
+    private final ThreadLocal<RateScratch> scratch = ThreadLocal.withInitial(RateScratch::new);
+
+    /**
+     * Create the stripes of a store.
+     * @param model The model to rate with, also giving the rating of new players.
+     * @param decay The inflation of inactive ratings, or null for none.
+     * @param stripeCount The count of stripes, a power of two.
+     * @param listener The listener to call with every changed rating, or null for none.
+     */
+    StripedRatingStore(Model model, Decay decay, int stripeCount, RatingListener listener) {
+        this.model = model;
+        this.decay = decay;
+        this.listener = listener;
+        Rating rating = model.rating();
+        this.defaultMu = rating.mu;
+        this.defaultSigma = rating.sigma;
+        this.locks = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(stripeCount);
+    }
+
+    /**
+     * Round a count of stripes up to a power of two.
+     * @param stripeCount The count of stripes.
+     * @return The count of stripes to use.
+     */
+    static int stripeCount(int stripeCount) {
+        return stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+    }
+
+    /**
+     * Find the record of a player in its locked stripe.
+     * @param stripe The stripe of the player.
+     * @param id The id of the player.
+     * @return The handle of the record, or -1 if the player is not in the store.
+     */
+    abstract long find(int stripe, long id);
+
+    /**
+     * Add a player with the default rating to its locked stripe, unless it is there already.
+     * Adding a player may move the other records of the stripe.
+     * @param stripe The stripe of the player.
+     * @param id The id of the player.
+     */
+    abstract void insert(int stripe, long id);
+
+    /**
+     * Check that the new players of a match fit in their locked stripes, before any of them is added.
+     * @param players The ids of the players.
+     */
+    void reserve(long[] players) {
+    }
+
+    /**
+     * Get the mean value of a record.
+     * @param record The handle of the record.
+     * @return The mean value.
+     */
+    abstract double mu(long record);
+
+    /**
+     * Get the standard deviation of a record, as last written.
+     * @param record The handle of the record.
+     * @return The standard deviation.
+     */
+    abstract double sigma(long record);
+
+    /**
+     * Get the time the player of a record last played.
+     * @param record The handle of the record.
+     * @return The time last played, or {@link #NEVER_PLAYED} if the player has not played.
+     */
+    abstract long playedAt(long record);
+
+    /**
+     * Write the rating of a player after a match, counting up its version.
+     * @param record The handle of the record.
+     * @param mu The new mean value.
+     * @param sigma The new standard deviation.
+     * @param time The time the match was played.
+     * @return The new version of the rating.
+     */
+    abstract long write(long record, double mu, double sigma, long time);
+
+    @Override
+    public boolean contains(long id) {
+        int stripe = stripeIndex(id);
+        locks[stripe].lock();
+        try {
+            return find(stripe, id) >= 0;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    @Override
+    public Rating get(long id) {
+        int stripe = stripeIndex(id);
+        locks[stripe].lock();
+        try {
+            long record = find(stripe, id);
+            return record >= 0 ? new Rating(mu(record), sigma(record)) : null;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    @Override
+    public Rating get(long id, long time) {
+        int stripe = stripeIndex(id);
+        locks[stripe].lock();
+        try {
+            long record = find(stripe, id);
+            return record >= 0 ? new Rating(mu(record), decayed(record, time)) : null;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    @Override
+    public long lastPlayed(long id) {
+        int stripe = stripeIndex(id);
+        locks[stripe].lock();
+        try {
+            long record = find(stripe, id);
+            return record >= 0 ? playedAt(record) : NEVER_PLAYED;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    @Override
+    public void rate(long[] players, int[] teamSizes, double[] ranks, boolean lowerIsBetter, long time,
+                     double[] muOut, double[] sigmaOut) {
+        checkMatch(players, teamSizes, ranks);
+        if (muOut != null && muOut.length < players.length) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH, muOut.length,
+                    players.length);
+        }
+        if (sigmaOut != null && sigmaOut.length < players.length) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH, sigmaOut.length,
+                    players.length);
+        }
+        int playerCount = players.length;
+        RateScratch s = scratch.get();
+        double[] matchRanks = s.prepare(teamSizes, playerCount, ranks);
+        checkDistinct(players, s);
+        int lockCount = lockStripes(players, s);
+        try {
+            long[] records = addPlayers(players, s);
+            for (int j = 0; j < playerCount; j++) {
+                s.mu[j] = mu(records[j]);
+                s.sigma[j] = decayed(records[j], time);
+            }
+            model.rate(s.mu, s.sigma, s.offsets, teamSizes.length, matchRanks, lowerIsBetter, s.workspace);
+            for (int j = 0; j < playerCount; j++) {
+                s.versions[j] = write(records[j], s.mu[j], s.sigma[j], time);
+            }
+            if (muOut != null) {
+                System.arraycopy(s.mu, 0, muOut, 0, playerCount);
+            }
+            if (sigmaOut != null) {
+                System.arraycopy(s.sigma, 0, sigmaOut, 0, playerCount);
+            }
+        } finally {
+            unlockStripes(s, lockCount);
+        }
+        publish(players, s, time);
+    }
+
+    @Override
+    public void apply(long[] players, RatingDeltas deltas, long time) {
+        int playerCount = players.length;
+        if (deltas.count() != playerCount) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH, deltas.count(),
+                    playerCount);
+        }
+        RateScratch s = scratch.get();
+        s.ensurePlayers(playerCount);
+        checkDistinct(players, s);
+        int lockCount = lockStripes(players, s);
+        try {
+            long[] records = addPlayers(players, s);
+            for (int j = 0; j < playerCount; j++) {
+                long record = records[j];
+                s.mu[j] = mu(record) + deltas.deltaMu(j);
+                s.sigma[j] = decayed(record, time) + deltas.deltaSigma(j);
+                s.versions[j] = write(record, s.mu[j], s.sigma[j], time);
+            }
+        } finally {
+            unlockStripes(s, lockCount);
+        }
+        publish(players, s, time);
+    }
+
+    /**
+     * Get the stripe of a player.
+     * @param id The id of the player.
+     * @return The index of the stripe.
+     */
+    final int stripeIndex(long id) {
+        // The high bits of the mixed id choose the stripe, as the table of the stripe uses all of them.
+        return stripeShift == 64 ? 0 : (int) ((id * MIX) >>> stripeShift);
+    }
+
+    /**
+     * Get the slot a player is probed from in the table of its stripe.
+     * @param id The id of the player.
+     * @return The hash of the player, to mask by the size of the table.
+     */
+    static int hash(long id) {
+        return Long.hashCode(id * MIX);
+    }
+
+    /**
+     * Get the standard deviation of a record inflated for inactivity up to a time.
+     * @param record The handle of the record.
+     * @param time The time to inflate up to.
+     * @return The standard deviation.
+     */
+    final double decayed(long record, long time) {
+        // Players that have not played keep their rating until they do.
+        long lastPlayed = playedAt(record);
+        double sigma = sigma(record);
+        return decay != null && lastPlayed != NEVER_PLAYED ? decay.sigma(sigma, lastPlayed, time) : sigma;
+    }
+
+    private long[] addPlayers(long[] players, RateScratch s) {
+        reserve(players);
+        for (long id : players) {
+            insert(stripeIndex(id), id);
+        }
+        // Every player was added above, so no record moves any more.
+        for (int j = 0; j < players.length; j++) {
+            s.records[j] = find(stripeIndex(players[j]), players[j]);
+        }
+        return s.records;
+    }
+
+    private void publish(long[] players, RateScratch s, long time) {
+        if (listener != null) {
+            for (int j = 0; j < players.length; j++) {
+                listener.ratingChanged(players[j], s.mu[j], s.sigma[j], time, s.versions[j]);
+            }
+        }
+    }
+
+    private int lockStripes(long[] players, RateScratch s) {
+        for (int j = 0; j < players.length; j++) {
+            s.stripes[j] = stripeIndex(players[j]);
+        }
+        int count = s.distinctStripes(players.length);
+        for (int i = 0; i < count; i++) {
+            locks[s.stripes[i]].lock();
+        }
+        return count;
+    }
+
+    private void unlockStripes(RateScratch s, int lockCount) {
+        for (int i = lockCount - 1; i >= 0; i--) {
+            locks[s.stripes[i]].unlock();
+        }
+    }
+
+    private static void checkDistinct(long[] players, RateScratch s) {
+        // Sort a copy of the ids in the records of the scratch, which are only filled once the stripes are locked.
+        long[] sorted = s.records;
+        System.arraycopy(players, 0, sorted, 0, players.length);
+        Arrays.sort(sorted, 0, players.length);
+        for (int j = 1; j < players.length; j++) {
+            if (sorted[j] == sorted[j - 1]) {
+                throw new MathIllegalArgumentException(LocalizedCoreFormats.NOT_STRICTLY_INCREASING_SEQUENCE,
+                        sorted[j], sorted[j - 1], j, j - 1);
+            }
+        }
+    }
+
+    private static void checkMatch(long[] players, int[] teamSizes, double[] ranks) {
+        long playerCount = 0;
+        for (int teamSize : teamSizes) {
+            if (teamSize < 0) {
+                throw new MathIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, teamSize, 0);
+            }
+            playerCount += teamSize;
+        }
+        if (playerCount != players.length) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH, players.length,
+                    playerCount);
+        }
+        if (ranks != null && ranks.length != teamSizes.length) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.DIMENSIONS_MISMATCH, ranks.length,
+                    teamSizes.length);
+        }
+    }
+}
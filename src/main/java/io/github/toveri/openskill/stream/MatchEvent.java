@@ -0,0 +1,82 @@
+package io.github.toveri.openskill.stream;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A match between players, as it flows through a {@link RatingPipeline}.
+ * Events are equal if their values and the contents of their arrays are equal.
+ *
+ * @param time          The time the match was played.
+ * @param players       The ids of the players of all teams, team after team.
+ * @param teamSizes     The count of players of each team.
+ * @param ranks         The rank or score of each team, or null for the given order.
+ * @param lowerIsBetter If lower ranks is better or not.
+ */
+public record MatchEvent(long time, long[] players, int[] teamSizes, double[] ranks, boolean lowerIsBetter) {
+    /**
+     * A match between players in the given order.
+     *
+     * @param time      The time the match was played.
+     * @param players   The ids of the players of all teams, team after team.
+     * @param teamSizes The count of players of each team.
+     */
+    public MatchEvent(long time, long[] players, int[] teamSizes) {
+        this(time, players, teamSizes, null, true);
+    }
+
+    /**
+     * Check if the match can be rated: there are teams, every team has players, the team sizes add up to the count
+     * of players, no player plays twice, and there is a rank for every team that is not NaN.
+     * @return If the match is valid.
+     */
+    public boolean isValid() {
+        if (players == null || teamSizes == null || teamSizes.length == 0) {
+            return false;
+        }
+        int playerCount = 0;
+        for (int size : teamSizes) {
+            if (size < 1) {
+                return false;
+            }
+            playerCount += size;
+        }
+        if (playerCount != players.length) {
+            return false;
+        }
+        long[] sorted = players.clone();
+        Arrays.sort(sorted);
+        for (int j = 1; j < sorted.length; j++) {
+            if (sorted[j] == sorted[j - 1]) {
+                return false;
+            }
+        }
+        if (ranks != null) {
+            if (ranks.length != teamSizes.length) {
+                return false;
+            }
+            for (double rank : ranks) {
+                if (Double.isNaN(rank)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof MatchEvent other && time == other.time && lowerIsBetter == other.lowerIsBetter
+                && Arrays.equals(players, other.players) && Arrays.equals(teamSizes, other.teamSizes)
+                && Arrays.equals(ranks, other.ranks);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(time, Arrays.hashCode(players), Arrays.hashCode(teamSizes), Arrays.hashCode(ranks),
+                lowerIsBetter);
+    }
+}
@@ -0,0 +1,190 @@
+package io.github.toveri.openskill.stream;
+
+import io.github.toveri.openskill.batch.DependencyScheduler;
+import io.github.toveri.openskill.store.RatingStore;
+import org.hipparchus.exception.LocalizedCoreFormats;
+import org.hipparchus.exception.MathIllegalArgumentException;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Consumer;
+
+/**
+ * A reactive stage rating the matches it receives in a store, and publishing them once rated.
+ * Subscribe it to a source of matches, such as a queue consumer, and subscribe the sinks of rated matches to it.
+ * Matches are validated as they arrive, and invalid ones are handed to the rejection handler instead of being rated.
+ * Valid matches are held in a bounded buffer, and no more are requested from the source than fit in it,
+ * so a burst waits in the source rather than in memory.
+ * A virtual thread takes the buffered matches in micro-batches, and rates each batch in parallel on a fork join pool,
+ * where matches sharing a player are rated one at a time in their order, so every player's updates stay ordered.
+ * The rated matches are published through a bounded buffer per sink, delivered on virtual threads,
+ * and a slow sink holds back the rating, and so the source.
+ */
+public final class RatingPipeline implements Flow.Processor<MatchEvent, MatchEvent> {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 12;
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final MatchEvent END = new MatchEvent(0, new long[0], new int[0]);
+
+    private final RatingStore store;
+    private final int bufferSize;
+    private final int batchSize;
+    private final DependencyScheduler scheduler;
+    private final Consumer<MatchEvent> rejected;
+    private final BlockingQueue<MatchEvent> buffer;
+    private final SubmissionPublisher<MatchEvent> publisher;
+    private volatile Flow.Subscription subscription;
+    private volatile Throwable failure;
+    private int[] keyOffsets = new int[0];
+    private long[] keys = new long[0];
+
+    /**
+     * Create a pipeline with the default buffer and batch sizes, rating on the common fork join pool
+     * and ignoring invalid matches.
+     * @param store The store to rate the matches in.
+     */
+    public RatingPipeline(RatingStore store) {
+        this(store, DEFAULT_BUFFER_SIZE, DEFAULT_BATCH_SIZE, ForkJoinPool.commonPool(), null);
+    }
+
+    /**
+     * Create a pipeline.
+     * @param store The store to rate the matches in.
+     * @param bufferSize The count of matches buffered before and after rating, for each sink.
+     * @param batchSize The maximum count of matches rated together.
+     * @param pool The pool to rate the matches of a batch on.
+     * @param rejected The handler of invalid matches, or null to ignore them.
+     */
+    public RatingPipeline(RatingStore store, int bufferSize, int batchSize, ForkJoinPool pool,
+                          Consumer<MatchEvent> rejected) {
+        if (bufferSize < 1) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, bufferSize, 1);
+        }
+        if (batchSize < 1) {
+            throw new MathIllegalArgumentException(LocalizedCoreFormats.NUMBER_TOO_SMALL, batchSize, 1);
+        }
+        this.store = store;
+        this.bufferSize = bufferSize;
+        this.batchSize = batchSize;
+        this.scheduler = new DependencyScheduler(pool);
+        this.rejected = rejected;
+        // One more than requested, so the end of the stream always fits.
+        this.buffer = new ArrayBlockingQueue<>(bufferSize + 1);
+        // Each delivery starts its own virtual thread, so there is no executor left to shut down once the publisher
+        // is closed and its sinks are done.
+        Executor deliveries = task -> Thread.ofVirtual().name("openskill-rating-pipeline-sink").start(task);
+        this.publisher = new SubmissionPublisher<>(deliveries, bufferSize);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super MatchEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        Thread.ofVirtual().name("openskill-rating-pipeline").start(this::rateLoop);
+        subscription.request(bufferSize);
+    }
+
+    @Override
+    public void onNext(MatchEvent event) {
+        if (!event.isValid()) {
+            if (rejected != null) {
+                rejected.accept(event);
+            }
+            subscription.request(1);
+            return;
+        }
+        if (!buffer.offer(event)) {
+            throw new IllegalStateException("The source published more matches than requested.");
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        failure = throwable;
+        buffer.offer(END);
+    }
+
+    @Override
+    public void onComplete() {
+        buffer.offer(END);
+    }
+
+    private void rateLoop() {
+        MatchEvent[] batch = new MatchEvent[batchSize];
+        try {
+            boolean end = false;
+            while (!end) {
+                int count = 0;
+                MatchEvent event = buffer.take();
+                while (event != null && count < batchSize) {
+                    if (event == END) {
+                        end = true;
+                        break;
+                    }
+                    batch[count++] = event;
+                    event = count < batchSize ? buffer.poll() : null;
+                }
+                rate(batch, count);
+                for (int i = 0; i < count; i++) {
+                    publisher.submit(batch[i]);
+                    batch[i] = null;
+                }
+                if (!end && count > 0) {
+                    subscription.request(count);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            subscription.cancel();
+            publisher.closeExceptionally(e);
+            return;
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            publisher.closeExceptionally(e);
+            return;
+        }
+        if (failure != null) {
+            publisher.closeExceptionally(failure);
+        } else {
+            publisher.close();
+        }
+    }
+
+    private void rate(MatchEvent[] batch, int count) {
+        if (count == 1) {
+            rate(batch[0]);
+            return;
+        }
+        if (keyOffsets.length < count + 1) {
+            keyOffsets = new int[batchSize + 1];
+        }
+        int keyCount = 0;
+        for (int i = 0; i < count; i++) {
+            long[] players = batch[i].players();
+            keyOffsets[i] = keyCount;
+            if (keys.length < keyCount + players.length) {
+                keys = Arrays.copyOf(keys, Math.max(keys.length * 2, keyCount + players.length));
+            }
+            System.arraycopy(players, 0, keys, keyCount, players.length);
+            keyCount += players.length;
+        }
+        keyOffsets[count] = keyCount;
+        scheduler.run(count, keyOffsets, keys, i -> rate(batch[i]));
+    }
+
+    private void rate(MatchEvent event) {
+        store.rate(event.players(), event.teamSizes(), event.ranks(), event.lowerIsBetter(), event.time());
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.toveri.openskill.tuning;
+
+import io.github.toveri.openskill.log.MatchLogReader;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A chunk of decoded matches in flat arrays, shared by all candidates of a sweep.
+ * Match m has the teams from {@code teamStarts[m]} up to {@code teamStarts[m + 1]},
+ * and team t has the players from {@code playerStarts[t]} up to {@code playerStarts[t + 1]}.
+ */
+final class MatchChunk {
+    int matchCount;
+    int[] teamStarts;
+    int[] playerStarts = new int[1];
+    long[] players = new long[0];
+    double[] ranks = new double[0];
+    boolean[] lowerIsBetter;
+
+    MatchChunk(int capacity) {
+        teamStarts = new int[capacity + 1];
+        lowerIsBetter = new boolean[capacity];
+    }
+
+    /**
+     * Decode the next matches of the log, up to the capacity of the chunk.
+     * @param reader The reader of the log.
+     * @return If any match was decoded.
+     * @throws IOException If the log can not be read.
+     */
+    boolean read(MatchLogReader reader) throws IOException {
+        matchCount = 0;
+        int teamCount = 0;
+        int playerCount = 0;
+        while (matchCount < lowerIsBetter.length && reader.next()) {
+            int[] teamSizes = reader.teamSizes();
+            long[] matchPlayers = reader.players();
+            double[] matchRanks = reader.ranks();
+            ensureCapacity(teamCount + teamSizes.length, playerCount + matchPlayers.length);
+            for (int i = 0; i < teamSizes.length; i++) {
+                ranks[teamCount + i] = matchRanks != null ? matchRanks[i] : i + 1;
+                playerStarts[teamCount + i + 1] = playerStarts[teamCount + i] + teamSizes[i];
+            }
+            System.arraycopy(matchPlayers, 0, players, playerCount, matchPlayers.length);
+            lowerIsBetter[matchCount] = reader.lowerIsBetter();
+            teamCount += teamSizes.length;
+            playerCount += matchPlayers.length;
+            teamStarts[++matchCount] = teamCount;
+        }
+        return matchCount > 0;
+    }
+
+    private void ensureCapacity(int teamCount, int playerCount) {
+        if (ranks.length < teamCount) {
+            int capacity = Math.max(teamCount, ranks.length * 2);
+            ranks = Arrays.copyOf(ranks, capacity);
+            playerStarts = Arrays.copyOf(playerStarts, capacity + 1);
+        }
+        if (players.length < playerCount) {
+            players = Arrays.copyOf(players, Math.max(playerCount, players.length * 2));
+        }
+    }
+}
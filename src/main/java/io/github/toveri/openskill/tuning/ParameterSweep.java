@@ -0,0 +1,249 @@
+package io.github.toveri.openskill.tuning;
+
+import io.github.toveri.openskill.Gamma;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.internal.LongIntMap;
+import io.github.toveri.openskill.log.MatchLogReader;
+import io.github.toveri.openskill.metrics.RatingMetrics;
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.models.ModelOptions;
+import io.github.toveri.openskill.models.Workspace;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Replays a match history under many model options at once, to find the options that predict it best.
+ * Before each match is rated, every candidate predicts the win probability of each team, and is scored by the
+ * log loss and Brier score of those predictions against the outcome, where tied winners share the outcome.
+ * A match of one team has nothing to predict, so it is rated but not scored.
+ * The log is decoded once in chunks shared by all candidates, which rate each chunk in parallel
+ * while the next chunk is decoded.
+ */
+public final class ParameterSweep {
+    private static final int CHUNK_SIZE = 1 << 14;
+    private static final double MIN_PROBABILITY = 1e-15;
+
+    private final Function<ModelOptions, Model> modelFactory;
+    private final List<ModelOptions> candidates;
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a sweep using the common fork join pool.
+     * @param modelFactory The function creating a model from options, such as {@code PlackettLuce::new}.
+     * @param candidates The model options to compare.
+     */
+    public ParameterSweep(Function<ModelOptions, Model> modelFactory, List<ModelOptions> candidates) {
+        this(modelFactory, candidates, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a sweep.
+     * @param modelFactory The function creating a model from options, such as {@code PlackettLuce::new}.
+     * @param candidates The model options to compare.
+     * @param pool The pool to rate the candidates on.
+     */
+    public ParameterSweep(Function<ModelOptions, Model> modelFactory, List<ModelOptions> candidates,
+                          ForkJoinPool pool) {
+        this.modelFactory = modelFactory;
+        this.candidates = candidates;
+        this.pool = pool;
+    }
+
+    /**
+     * Create every combination of the given values, with the other options taken from the base options.
+     * The options record no metrics, as the metrics of the candidates would otherwise be merged together.
+     * @param base The options to take the other values from.
+     * @param betas The uncertainty values.
+     * @param taus The minimum rating variance values.
+     * @param kappas The values to prevent negative posterior distributions.
+     * @param gammas The functions that control how fast the variance is reduced.
+     * @return The list of options.
+     */
+    public static List<ModelOptions> grid(ModelOptions base, double[] betas, double[] taus, double[] kappas,
+                                          List<Gamma> gammas) {
+        List<ModelOptions> grid = new ArrayList<>(betas.length * taus.length * kappas.length * gammas.size());
+        for (double beta : betas) {
+            for (double tau : taus) {
+                for (double kappa : kappas) {
+                    for (Gamma gamma : gammas) {
+                        grid.add(new ModelOptions(base.mu(), base.sigma(), beta, kappa, gamma, tau, base.normal(),
+                                RatingMetrics.NONE));
+                    }
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Replay the remaining matches of the log under every candidate.
+     * @param reader The reader of the match log.
+     * @return The result of each candidate, the lowest log loss first.
+     * @throws IOException If the log can not be read.
+     */
+    public List<SweepResult> run(MatchLogReader reader) throws IOException {
+        Candidate[] states = new Candidate[candidates.size()];
+        for (int c = 0; c < states.length; c++) {
+            states[c] = new Candidate(candidates.get(c), modelFactory.apply(candidates.get(c)));
+        }
+        MatchChunk current = new MatchChunk(CHUNK_SIZE);
+        MatchChunk next = new MatchChunk(CHUNK_SIZE);
+        boolean more = current.read(reader);
+        while (more) {
+            MatchChunk chunk = current;
+            ForkJoinTask<?> task = pool.submit(() -> Arrays.stream(states).parallel().forEach(c -> c.rate(chunk)));
+            try {
+                more = next.read(reader);
+            } finally {
+                task.join();
+            }
+            current = next;
+            next = chunk;
+        }
+        List<SweepResult> results = new ArrayList<>(states.length);
+        for (Candidate state : states) {
+            results.add(state.result());
+        }
+        results.sort(Comparator.comparingDouble(SweepResult::logLoss));
+        return results;
+    }
+
+    /**
+     * The ratings and scores of one candidate, with a table of players only used by its own task.
+     */
+    private static final class Candidate {
+        final ModelOptions options;
+        final Model model;
+        final double defaultMu;
+        final double defaultSigma;
+        final Workspace workspace = new Workspace();
+        final LongIntMap indices = new LongIntMap(8);
+        double[] mu = new double[8];
+        double[] sigma = new double[8];
+        int playerCount;
+        double[] matchMu = new double[0];
+        double[] matchSigma = new double[0];
+        int[] matchIndices = new int[0];
+        int[] offsets = new int[0];
+        double[] ranks = new double[0];
+        double[] teamMu = new double[0];
+        double[] teamSigmaSq = new double[0];
+        double[] winProbabilities = new double[0];
+        long matchCount;
+        double logLossSum;
+        double brierSum;
+
+        Candidate(ModelOptions options, Model model) {
+            this.options = options;
+            this.model = model;
+            Rating rating = model.rating();
+            this.defaultMu = rating.mu;
+            this.defaultSigma = rating.sigma;
+        }
+
+        void rate(MatchChunk chunk) {
+            for (int m = 0; m < chunk.matchCount; m++) {
+                int firstTeam = chunk.teamStarts[m];
+                int teamCount = chunk.teamStarts[m + 1] - firstTeam;
+                int firstPlayer = chunk.playerStarts[firstTeam];
+                int count = chunk.playerStarts[firstTeam + teamCount] - firstPlayer;
+                ensureCapacity(teamCount, count);
+                for (int j = 0; j < count; j++) {
+                    int index = indexOf(chunk.players[firstPlayer + j]);
+                    matchIndices[j] = index;
+                    matchMu[j] = mu[index];
+                    matchSigma[j] = sigma[index];
+                }
+                for (int i = 0; i <= teamCount; i++) {
+                    offsets[i] = chunk.playerStarts[firstTeam + i] - firstPlayer;
+                }
+                System.arraycopy(chunk.ranks, firstTeam, ranks, 0, teamCount);
+                boolean lowerIsBetter = chunk.lowerIsBetter[m];
+                if (teamCount > 1) {
+                    score(teamCount, count, lowerIsBetter);
+                }
+                model.rate(matchMu, matchSigma, offsets, teamCount, ranks, lowerIsBetter, workspace);
+                for (int j = 0; j < count; j++) {
+                    mu[matchIndices[j]] = matchMu[j];
+                    sigma[matchIndices[j]] = matchSigma[j];
+                }
+            }
+        }
+
+        SweepResult result() {
+            // A candidate that scored no matches has no loss, rather than a mean of nothing.
+            return matchCount == 0 ? new SweepResult(options, 0, 0.0, 0.0)
+                    : new SweepResult(options, matchCount, logLossSum / matchCount, brierSum / matchCount);
+        }
+
+        private void score(int teamCount, int count, boolean lowerIsBetter) {
+            double best = ranks[0];
+            for (int i = 0; i < teamCount; i++) {
+                double teamMuSum = 0.0;
+                double teamSigmaSqSum = 0.0;
+                for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                    teamMuSum += matchMu[j];
+                    teamSigmaSqSum += matchSigma[j] * matchSigma[j];
+                }
+                teamMu[i] = teamMuSum;
+                teamSigmaSq[i] = teamSigmaSqSum;
+                best = lowerIsBetter ? Math.min(best, ranks[i]) : Math.max(best, ranks[i]);
+            }
+            model.predictWin(teamMu, teamSigmaSq, teamCount, count, winProbabilities);
+            int winnerCount = 0;
+            double winnerProbability = 0.0;
+            for (int i = 0; i < teamCount; i++) {
+                if (ranks[i] == best) {
+                    winnerCount++;
+                    winnerProbability += winProbabilities[i];
+                }
+            }
+            double brier = 0.0;
+            for (int i = 0; i < teamCount; i++) {
+                double outcome = ranks[i] == best ? 1.0 / winnerCount : 0.0;
+                double error = winProbabilities[i] - outcome;
+                brier += error * error;
+            }
+            matchCount++;
+            logLossSum -= Math.log(Math.max(MIN_PROBABILITY, winnerProbability));
+            brierSum += brier;
+        }
+
+        private int indexOf(long id) {
+            int index = indices.get(id);
+            if (index >= 0) {
+                return index;
+            }
+            if (playerCount == mu.length) {
+                mu = Arrays.copyOf(mu, playerCount * 2);
+                sigma = Arrays.copyOf(sigma, playerCount * 2);
+            }
+            mu[playerCount] = defaultMu;
+            sigma[playerCount] = defaultSigma;
+            indices.put(id, playerCount);
+            return playerCount++;
+        }
+
+        private void ensureCapacity(int teamCount, int count) {
+            if (offsets.length < teamCount + 1) {
+                offsets = new int[teamCount + 1];
+                ranks = new double[teamCount];
+                teamMu = new double[teamCount];
+                teamSigmaSq = new double[teamCount];
+                winProbabilities = new double[teamCount];
+            }
+            if (matchMu.length < count) {
+                matchMu = new double[count];
+                matchSigma = new double[count];
+                matchIndices = new int[count];
+            }
+        }
+    }
+}
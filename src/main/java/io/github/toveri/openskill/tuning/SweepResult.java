@@ -0,0 +1,15 @@
+package io.github.toveri.openskill.tuning;
+
+import io.github.toveri.openskill.models.ModelOptions;
+
+/**
+ * The score of one candidate of a {@link ParameterSweep}, from predicting the winners of the replayed matches.
+ * @param options The model options of the candidate.
+ * @param matchCount The count of matches scored.
+ * @param logLoss The mean negative natural logarithm of the predicted win probability of the winners,
+ *                or 0 if no matches were scored.
+ * @param brierScore The mean summed squared difference between the predicted win probabilities and the outcomes,
+ *                   or 0 if no matches were scored.
+ */
+public record SweepResult(ModelOptions options, long matchCount, double logLoss, double brierScore) {
+}
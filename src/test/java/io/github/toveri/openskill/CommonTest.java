@@ -121,4 +121,19 @@ class CommonTest {
                 () -> assertEquals(0, wt(0, 10), DELTA)
         );
     }
+
+    @Test
+    void testVw() {
+        double[] vw = new double[2];
+        for (double x = -10; x <= 10; x += 0.25) {
+            for (double t : new double[]{-100, -1, 0, 0.5, 2, 10, 1000}) {
+                vw(x, t, vw);
+                assertEquals(v(x, t), vw[0]);
+                assertEquals(w(x, t), vw[1]);
+                vwt(x, t, vw);
+                assertEquals(vt(x, t), vw[0]);
+                assertEquals(wt(x, t), vw[1]);
+            }
+        }
+    }
 }
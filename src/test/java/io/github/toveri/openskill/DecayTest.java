@@ -0,0 +1,31 @@
+package io.github.toveri.openskill;
+
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecayTest {
+    @Test
+    void testPeriods() {
+        Decay decay = new Decay(10, 1);
+        assertAll(
+                () -> assertEquals(0, decay.periods(11, 19)),
+                () -> assertEquals(1, decay.periods(19, 20)),
+                () -> assertEquals(3, decay.periods(-1, 25)),
+                () -> assertEquals(0, decay.periods(25, 5)),
+                () -> assertThrows(MathIllegalArgumentException.class, () -> new Decay(0, 1))
+        );
+    }
+
+    @Test
+    void testEqualsTauPerPeriod() {
+        Decay decay = new Decay(86400, Constants.TAU);
+        double sigma = 2.5;
+        for (int i = 0; i < 100; i++) {
+            sigma = Math.sqrt(sigma * sigma + Constants.TAU * Constants.TAU);
+        }
+        assertEquals(sigma, decay.sigma(2.5, 86400, 86400 * 101), 1e-12);
+        assertEquals(new Rating(20, 2.5), decay.apply(new Rating(20, 2.5), 86400, 86400 * 2 - 1));
+    }
+}
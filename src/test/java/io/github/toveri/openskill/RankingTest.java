@@ -0,0 +1,64 @@
+package io.github.toveri.openskill;
+
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.hipparchus.stat.ranking.NaNStrategy;
+import org.hipparchus.stat.ranking.NaturalRanking;
+import org.hipparchus.stat.ranking.TiesStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankingTest {
+    @Test
+    void testRank() {
+        assertAll(
+                () -> assertEquals(List.of(), Ranking.rank(List.of())),
+                () -> assertEquals(List.of(1.0), Ranking.rank(List.of(5.0))),
+                () -> assertEquals(List.of(1.0, 2.0, 3.0), Ranking.rank(List.of(1.0, 2.0, 3.0))),
+                () -> assertEquals(List.of(3.0, 1.0, 2.0), Ranking.rank(List.of(3.0, 1.0, 2.0))),
+                () -> assertEquals(List.of(1.0, 2.0, 2.0, 4.0), Ranking.rank(List.of(1.0, 3.0, 3.0, 4.0))),
+                () -> assertEquals(List.of(2.0, 1.0, 2.0), Ranking.rank(List.of(-1.0, -7.5, -1.0)))
+        );
+    }
+
+    @Test
+    void testRankNaN() {
+        assertThrows(MathIllegalArgumentException.class, () -> Ranking.rank(List.of(1.0, Double.NaN)));
+    }
+
+    @Test
+    void testDefaultRanks() {
+        assertAll(
+                () -> assertEquals(List.of(1.0, 2.0, 3.0), Ranking.defaultRanks(3)),
+                () -> assertEquals(100, Ranking.defaultRanks(100).size()),
+                () -> assertEquals(100.0, Ranking.defaultRanks(100).getLast())
+        );
+    }
+
+    @Test
+    void testRankMatchesNaturalRanking() {
+        NaturalRanking naturalRanking = new NaturalRanking(NaNStrategy.FAILED, TiesStrategy.MINIMUM);
+        Random random = new Random(3);
+        for (int count = 1; count < 50; count++) {
+            double[] values = new double[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = random.nextInt(count / 2 + 1);
+            }
+            double[] ranks = new double[count];
+            int[] order = new int[count];
+            Ranking.rank(values, count, order, new int[count], ranks);
+            assertArrayEquals(naturalRanking.rank(values), ranks);
+            for (int i = 1; i < count; i++) {
+                assertTrue(values[order[i - 1]] < values[order[i]]
+                        || (values[order[i - 1]] == values[order[i]] && order[i - 1] < order[i]));
+            }
+            Arrays.sort(values);
+            Ranking.rank(values, count, order, new int[count], ranks);
+            assertArrayEquals(naturalRanking.rank(values), ranks);
+        }
+    }
+}
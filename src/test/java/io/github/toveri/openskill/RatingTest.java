@@ -39,7 +39,8 @@ public class RatingTest {
         Rating r2 = new Rating(30, 10);
         assertAll(
                 () -> assertEquals(MU - Z * SIGMA, r1.ordinal()),
-                () -> assertEquals(MU - Z * SIGMA, r2.ordinal())
+                () -> assertEquals(MU - Z * SIGMA, r2.ordinal()),
+                () -> assertEquals(10, r2.ordinal(2))
         );
     }
 
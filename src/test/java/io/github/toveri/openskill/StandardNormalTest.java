@@ -0,0 +1,46 @@
+package io.github.toveri.openskill;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static io.github.toveri.openskill.StandardNormal.EXACT;
+import static io.github.toveri.openskill.StandardNormal.FAST;
+
+class StandardNormalTest {
+    static final double DELTA = 1e-15;
+
+    @Test
+    void testPhiMajor() {
+        for (double x = -38; x <= 9; x += 0.001) {
+            assertEquals(EXACT.phiMajor(x), FAST.phiMajor(x), DELTA);
+        }
+        assertAll(
+                () -> assertEquals(0.5, FAST.phiMajor(0)),
+                () -> assertEquals(0, FAST.phiMajor(-40)),
+                () -> assertEquals(1, FAST.phiMajor(40)),
+                () -> assertEquals(EXACT.phiMajor(Double.NaN), FAST.phiMajor(Double.NaN)),
+                () -> assertTrue(Double.isNaN(FAST.phiMajor(Double.NaN))),
+                () -> assertTrue(Double.isNaN(FAST.phiMinor(Double.NaN)))
+        );
+    }
+
+    @Test
+    void testPhiMinor() {
+        for (double x = -38; x <= 38; x += 0.001) {
+            assertEquals(EXACT.phiMinor(x), FAST.phiMinor(x), DELTA);
+        }
+    }
+
+    @Test
+    void testPhiMajorInverse() {
+        for (double p = 0.0005; p < 1; p += 0.001) {
+            assertEquals(EXACT.phiMajorInverse(p), FAST.phiMajorInverse(p), 1e-9);
+        }
+        assertAll(
+                () -> assertEquals(Double.NEGATIVE_INFINITY, FAST.phiMajorInverse(0)),
+                () -> assertEquals(Double.POSITIVE_INFINITY, FAST.phiMajorInverse(1)),
+                () -> assertEquals(-7.941345326170997, FAST.phiMajorInverse(1e-15), 1e-14),
+                () -> assertEquals(1e-100, FAST.phiMajor(FAST.phiMajorInverse(1e-100)), 1e-112)
+        );
+    }
+}
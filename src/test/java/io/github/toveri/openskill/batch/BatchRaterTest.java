@@ -0,0 +1,115 @@
+package io.github.toveri.openskill.batch;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.RateOptions;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.models.PlackettLuce;
+import io.github.toveri.openskill.models.ThurstoneMostellerFull;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchRaterTest {
+    @Test
+    void testRateAllMatchesSequential() {
+        for (Model model : List.of(new PlackettLuce(), new ThurstoneMostellerFull())) {
+            List<Rating> sequentialPlayers = createPlayers(60);
+            List<Rating> batchPlayers = createPlayers(60);
+            List<int[][]> shapes = createShapes(1000, 60);
+            List<RateOptions> options = createOptions(shapes);
+            List<Match> sequential = createMatches(shapes, sequentialPlayers);
+            List<Match> batch = createMatches(shapes, batchPlayers);
+            for (int i = 0; i < sequential.size(); i++) {
+                model.rateInPlace(sequential.get(i), options.get(i));
+            }
+            ForkJoinPool pool = new ForkJoinPool(4);
+            try {
+                new BatchRater(model, pool).rateAll(batch, options);
+            } finally {
+                pool.shutdown();
+            }
+            for (int i = 0; i < sequentialPlayers.size(); i++) {
+                assertEquals(sequentialPlayers.get(i).mu, batchPlayers.get(i).mu);
+                assertEquals(sequentialPlayers.get(i).sigma, batchPlayers.get(i).sigma);
+            }
+        }
+    }
+
+    @Test
+    void testRateAllDefaultOptions() {
+        Model model = new PlackettLuce();
+        List<Rating> sequentialPlayers = createPlayers(20);
+        List<Rating> batchPlayers = createPlayers(20);
+        List<int[][]> shapes = createShapes(200, 20);
+        List<Match> sequential = createMatches(shapes, sequentialPlayers);
+        for (Match match : sequential) {
+            model.rateInPlace(match);
+        }
+        new BatchRater(model).rateAll(createMatches(shapes, batchPlayers));
+        assertEquals(sequentialPlayers, batchPlayers);
+    }
+
+    private static List<Rating> createPlayers(int count) {
+        List<Rating> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(new Rating());
+        }
+        return players;
+    }
+
+    private static List<int[][]> createShapes(int matchCount, int playerCount) {
+        Random random = new Random(7);
+        List<int[][]> shapes = new ArrayList<>(matchCount);
+        for (int i = 0; i < matchCount; i++) {
+            int teamCount = 2 + random.nextInt(3);
+            int[][] teams = new int[teamCount][];
+            List<Integer> pool = new ArrayList<>();
+            for (int p = 0; p < playerCount; p++) {
+                pool.add(p);
+            }
+            for (int t = 0; t < teamCount; t++) {
+                teams[t] = new int[1 + random.nextInt(2)];
+                for (int j = 0; j < teams[t].length; j++) {
+                    teams[t][j] = pool.remove(random.nextInt(pool.size()));
+                }
+            }
+            shapes.add(teams);
+        }
+        return shapes;
+    }
+
+    private static List<RateOptions> createOptions(List<int[][]> shapes) {
+        Random random = new Random(11);
+        List<RateOptions> options = new ArrayList<>(shapes.size());
+        for (int[][] shape : shapes) {
+            List<Double> ranks = new ArrayList<>(shape.length);
+            for (int t = 0; t < shape.length; t++) {
+                ranks.add((double) random.nextInt(shape.length));
+            }
+            options.add(new RateOptions(ranks));
+        }
+        return options;
+    }
+
+    private static List<Match> createMatches(List<int[][]> shapes, List<Rating> players) {
+        List<Match> matches = new ArrayList<>(shapes.size());
+        for (int[][] shape : shapes) {
+            List<List<Rating>> teams = new ArrayList<>(shape.length);
+            for (int[] team : shape) {
+                List<Rating> ratings = new ArrayList<>(team.length);
+                for (int p : team) {
+                    ratings.add(players.get(p));
+                }
+                teams.add(ratings);
+            }
+            matches.add(new Match(teams));
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.toveri.openskill.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DependencySchedulerTest {
+    @Test
+    void testRunOrdersConflictingTasks() {
+        int taskCount = 500;
+        int keyCount = 25;
+        int[] keyOffsets = new int[taskCount + 1];
+        long[] keys = new long[taskCount * 2];
+        for (int i = 0; i < taskCount; i++) {
+            keys[2 * i] = (i * 7L) % keyCount;
+            keys[2 * i + 1] = (i * 11L + 3) % keyCount;
+            keyOffsets[i + 1] = 2 * i + 2;
+        }
+        List<List<Integer>> runs = new ArrayList<>(keyCount);
+        for (int k = 0; k < keyCount; k++) {
+            runs.add(Collections.synchronizedList(new ArrayList<>()));
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new DependencyScheduler(pool).run(taskCount, keyOffsets, keys, i -> {
+                runs.get((int) keys[2 * i]).add(i);
+                if (keys[2 * i + 1] != keys[2 * i]) {
+                    runs.get((int) keys[2 * i + 1]).add(i);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        int runCount = 0;
+        for (List<Integer> run : runs) {
+            runCount += run.size();
+            assertEquals(run.stream().sorted().toList(), run);
+        }
+        assertTrue(runCount >= taskCount);
+    }
+
+    @Test
+    void testRunRethrows() {
+        int[] keyOffsets = {0, 1, 2};
+        long[] keys = {1, 1};
+        List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+        DependencyScheduler scheduler = new DependencyScheduler();
+        assertThrows(IllegalStateException.class, () -> scheduler.run(2, keyOffsets, keys, i -> {
+            if (i == 0) {
+                throw new IllegalStateException();
+            }
+            ran.add(i);
+        }));
+        assertEquals(List.of(), ran);
+    }
+
+    @Test
+    void testRunWaitsForRunningTasksBeforeRethrowing() {
+        int[] keyOffsets = {0, 1, 2};
+        long[] keys = {1, 2};
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertThrows(IllegalStateException.class, () -> new DependencyScheduler(pool).run(2, keyOffsets, keys,
+                    i -> {
+                        try {
+                            if (i == 0) {
+                                // Fail while the other task is running.
+                                started.await(5, TimeUnit.SECONDS);
+                                throw new IllegalStateException();
+                            }
+                            started.countDown();
+                            Thread.sleep(100);
+                            finished.set(true);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+            assertTrue(finished.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.toveri.openskill.codec;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.RateOptions;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.models.PlackettLuce;
+import io.github.toveri.openskill.models.Workspace;
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MatchCodecTest {
+    @Test
+    void testWriteRead() {
+        Random random = new Random(7);
+        List<Match> matches = new ArrayList<>();
+        List<RateOptions> options = new ArrayList<>();
+        for (int m = 0; m < 50; m++) {
+            int teamCount = 1 + random.nextInt(4);
+            List<List<Rating>> teams = new ArrayList<>();
+            List<Double> ranks = new ArrayList<>();
+            for (int i = 0; i < teamCount; i++) {
+                List<Rating> team = new ArrayList<>();
+                for (int k = 0, size = 1 + random.nextInt(3); k < size; k++) {
+                    team.add(new Rating(random.nextDouble() * 50, random.nextDouble() * 10));
+                }
+                teams.add(team);
+                ranks.add(random.nextDouble() * 10 - 5);
+            }
+            matches.add(new Match(teams));
+            options.add(m % 3 == 0 ? null : new RateOptions(ranks, m % 2 == 0));
+        }
+        for (boolean quantized : new boolean[]{false, true}) {
+            MatchCodec codec = new MatchCodec(quantized);
+            int size = 0;
+            for (int m = 0; m < matches.size(); m++) {
+                size += codec.size(matches.get(m), options.get(m));
+            }
+            // A direct buffer, with a byte in front so no value is aligned.
+            ByteBuffer buffer = ByteBuffer.allocateDirect(size + 1).position(1);
+            for (int m = 0; m < matches.size(); m++) {
+                codec.write(buffer, matches.get(m), options.get(m));
+            }
+            assertEquals(size + 1, buffer.position());
+            buffer.flip().position(1);
+            MatchView view = new MatchView();
+            double delta = quantized ? 1e-5 : 0.0;
+            for (int m = 0; m < matches.size(); m++) {
+                view.next(buffer);
+                Match expected = matches.get(m);
+                Match actual = view.toMatch();
+                assertAll(
+                        () -> assertEquals(quantized, view.isQuantized()),
+                        () -> assertEquals(expected.teamCount(), view.teamCount()),
+                        () -> assertEquals(codec.size(expected, null) - 12 - 4 * expected.teamCount(),
+                                view.ratingCount() * (quantized ? 8 : 16))
+                );
+                for (int i = 0; i < expected.teamCount(); i++) {
+                    assertEquals(expected.getTeam(i).size(), view.teamSize(i));
+                    for (int k = 0; k < expected.getTeam(i).size(); k++) {
+                        Rating rating = expected.getTeam(i).get(k);
+                        assertEquals(rating.mu, actual.getTeam(i).get(k).mu, delta * rating.mu);
+                        assertEquals(rating.sigma, actual.getTeam(i).get(k).sigma, delta * rating.sigma);
+                    }
+                }
+                assertEquals(options.get(m), view.toRateOptions());
+            }
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    @Test
+    void testRateFromView() {
+        Model model = new PlackettLuce();
+        Match match = new Match(List.of(
+                List.of(new Rating(27, 8), new Rating(22, 7)),
+                List.of(new Rating(30, 5)),
+                List.of(new Rating(25, 4), new Rating(26, 6))));
+        RateOptions options = new RateOptions(List.of(2.0, 1.0, 2.0));
+        MatchCodec codec = new MatchCodec();
+        ByteBuffer buffer = ByteBuffer.allocate(codec.size(match, options));
+        codec.write(buffer, match, options);
+        MatchView view = new MatchView().wrap(buffer.flip(), 0);
+        double[] mu = new double[5];
+        double[] sigma = new double[5];
+        int[] teamOffsets = new int[4];
+        double[] ranks = new double[3];
+        view.copyTo(mu, sigma, teamOffsets, ranks);
+        model.rate(mu, sigma, teamOffsets, 3, ranks, view.lowerIsBetter(), new Workspace());
+        // Write the rated arrays as a result, and compare it with rating the match itself.
+        ByteBuffer result = ByteBuffer.allocate(codec.size(3, 5, false));
+        codec.write(result, mu, sigma, teamOffsets, 3, null, true);
+        Match expected = model.rate(match, options);
+        Match actual = view.wrap(result.flip(), 0).toMatch();
+        assertFalse(view.hasRanks());
+        for (int i = 0; i < 3; i++) {
+            for (int k = 0; k < expected.getTeam(i).size(); k++) {
+                assertEquals(expected.getTeam(i).get(k).mu, actual.getTeam(i).get(k).mu, 1e-12);
+                assertEquals(expected.getTeam(i).get(k).sigma, actual.getTeam(i).get(k).sigma, 1e-12);
+            }
+        }
+    }
+
+    @Test
+    void testInvalid() {
+        MatchCodec codec = new MatchCodec();
+        Match match = new Match(new Rating(25, 8), new Rating(20, 8));
+        ByteBuffer buffer = ByteBuffer.allocate(codec.size(match, null));
+        codec.write(buffer, match);
+        ByteBuffer truncated = buffer.flip().slice(0, buffer.limit() - 1);
+        MatchView view = new MatchView();
+        assertAll(
+                () -> assertThrows(MathIllegalArgumentException.class,
+                        () -> codec.write(ByteBuffer.allocate(8), match)),
+                () -> assertThrows(MathIllegalArgumentException.class,
+                        () -> codec.write(ByteBuffer.allocate(100), match, new RateOptions(List.of(1.0)))),
+                () -> assertThrows(MathIllegalArgumentException.class, () -> view.wrap(truncated, 0)),
+                () -> assertThrows(MathIllegalArgumentException.class, () -> view.wrap(buffer, 0).mu(2))
+        );
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.toveri.openskill.leaderboard;
+
+import io.github.toveri.openskill.Decay;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.PlackettLuce;
+import io.github.toveri.openskill.store.RatingRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LeaderboardTest {
+    @Test
+    void testMatchesSortedRatings() {
+        Leaderboard leaderboard = new Leaderboard(2);
+        Map<Long, Rating> ratings = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            long id = random.nextInt(2000);
+            if (random.nextInt(10) == 0) {
+                assertEquals(ratings.remove(id) != null, leaderboard.remove(id));
+            } else {
+                // Few distinct values, so that many players share an ordinal.
+                Rating rating = new Rating(random.nextInt(50), random.nextInt(5));
+                ratings.put(id, rating);
+                leaderboard.update(id, rating);
+            }
+        }
+        List<Long> expected = new ArrayList<>(ratings.keySet());
+        expected.sort(Comparator.comparingDouble((Long id) -> -ratings.get(id).ordinal(2)).thenComparing(id -> id));
+        List<Long> actual = leaderboard.top(expected.size() + 10).stream().map(LeaderboardEntry::id).toList();
+        long id = expected.get(expected.size() / 2);
+        int rank = expected.size() / 2 + 1;
+        assertAll(
+                () -> assertEquals(expected, actual),
+                () -> assertEquals(expected.size(), leaderboard.size()),
+                () -> assertEquals(rank, leaderboard.rank(id)),
+                () -> assertEquals(new LeaderboardEntry(id, rank, ratings.get(id).mu, ratings.get(id).sigma,
+                        ratings.get(id).ordinal(2)), leaderboard.get(id)),
+                () -> assertEquals(expected.subList(rank - 4, rank + 2),
+                        leaderboard.around(id, 3, 2).stream().map(LeaderboardEntry::id).toList()),
+                () -> assertEquals(expected.subList(100, 110),
+                        leaderboard.page(101, 10).stream().map(LeaderboardEntry::id).toList()),
+                () -> assertEquals(0, leaderboard.rank(-1)),
+                () -> assertEquals(List.of(), leaderboard.page(expected.size() + 1, 10))
+        );
+    }
+
+    @Test
+    void testAroundTop() {
+        Leaderboard leaderboard = new Leaderboard();
+        for (long id = 0; id < 10; id++) {
+            leaderboard.update(id, new Rating(id, 1));
+        }
+        assertAll(
+                () -> assertEquals(List.of(9L, 8L, 7L),
+                        leaderboard.around(8, 5, 1).stream().map(LeaderboardEntry::id).toList()),
+                () -> assertEquals(List.of(1L, 0L),
+                        leaderboard.around(1, 0, 5).stream().map(LeaderboardEntry::id).toList()),
+                () -> assertEquals(List.of(2L, 1L, 0L),
+                        leaderboard.around(1, 1, Integer.MAX_VALUE).stream().map(LeaderboardEntry::id).toList()),
+                () -> assertEquals(10, leaderboard.around(5, Integer.MAX_VALUE, Integer.MAX_VALUE).size()),
+                () -> assertEquals(10, leaderboard.rank(0))
+        );
+    }
+
+    @Test
+    void testFollowsRegistry() {
+        Leaderboard leaderboard = new Leaderboard();
+        RatingRegistry registry = new RatingRegistry(new PlackettLuce(), 4, leaderboard);
+        registry.rate(new long[]{1, 2, 3, 4}, new int[]{2, 2}, null, true, 1);
+        registry.rate(new long[]{1, 3, 2, 4}, new int[]{2, 2}, null);
+        registry.put(5, new Rating(50, 1));
+        assertAll(
+                () -> assertEquals(5, leaderboard.size()),
+                () -> assertEquals(5, leaderboard.top(1).get(0).id()),
+                () -> assertEquals(2, leaderboard.rank(1)),
+                () -> assertEquals(5, leaderboard.rank(4)),
+                () -> assertEquals(registry.get(3).ordinal(), leaderboard.get(3).ordinal())
+        );
+    }
+
+    @Test
+    void testIgnoresStaleChanges() {
+        Leaderboard leaderboard = new Leaderboard(0);
+        leaderboard.ratingChanged(1, 30, 1, 5, 3);
+        leaderboard.ratingChanged(1, 20, 1, 4, 2);
+        leaderboard.ratingChanged(2, 25, 1, 5, 1);
+        assertAll(
+                () -> assertEquals(30, leaderboard.get(1).mu()),
+                () -> assertEquals(1, leaderboard.rank(1)),
+                () -> assertEquals(2, leaderboard.size())
+        );
+        leaderboard.ratingChanged(1, 20, 1, 6, 4);
+        assertEquals(2, leaderboard.rank(1));
+    }
+
+    @Test
+    void testTopWithDecay() {
+        Decay decay = new Decay(10, 2);
+        Leaderboard leaderboard = new Leaderboard(3, decay);
+        List<LeaderboardEntry> expected = new ArrayList<>();
+        Random random = new Random(3);
+        for (long id = 1; id <= 1000; id++) {
+            double mu = 20 + random.nextDouble() * 10;
+            double sigma = 1 + random.nextDouble();
+            long lastPlayed = 1 + random.nextInt(999);
+            leaderboard.update(id, mu, sigma, lastPlayed);
+            double decayed = decay.sigma(sigma, lastPlayed, 1000);
+            expected.add(new LeaderboardEntry(id, 0, mu, decayed, mu - 3 * decayed));
+        }
+        expected.sort(Comparator.comparingDouble(LeaderboardEntry::ordinal).reversed());
+        List<LeaderboardEntry> top = leaderboard.top(20, 1000);
+        assertAll(
+                () -> assertEquals(expected.subList(0, 20).stream().map(LeaderboardEntry::id).toList(),
+                        top.stream().map(LeaderboardEntry::id).toList()),
+                () -> assertEquals(expected.get(0).sigma(), top.get(0).sigma()),
+                () -> assertEquals(20, top.get(19).rank())
+        );
+    }
+}
@@ -0,0 +1,159 @@
+package io.github.toveri.openskill.log;
+
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.models.PlackettLuce;
+import io.github.toveri.openskill.store.RatingRegistry;
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MatchLogTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteRead() throws IOException {
+        Path path = directory.resolve("matches");
+        long[][] players = new long[200][];
+        int[][] teamSizes = new int[200][];
+        double[][] ranks = new double[200][];
+        Random random = new Random(3);
+        for (int i = 0; i < 200; i++) {
+            int teamCount = 2 + random.nextInt(3);
+            teamSizes[i] = new int[teamCount];
+            ranks[i] = i % 3 == 0 ? null : new double[teamCount];
+            int playerCount = 0;
+            for (int t = 0; t < teamCount; t++) {
+                teamSizes[i][t] = 1 + random.nextInt(3);
+                playerCount += teamSizes[i][t];
+                if (ranks[i] != null) {
+                    ranks[i][t] = i % 3 == 1 ? random.nextInt(5) : random.nextDouble() * 100 - 50;
+                }
+            }
+            players[i] = new long[playerCount];
+            for (int j = 0; j < playerCount; j++) {
+                players[i][j] = random.nextInt(1000) - (j == 0 ? 0 : 500L << 40);
+            }
+        }
+        // Written in two parts, so the second writer continues the times of the first.
+        for (int part = 0; part < 2; part++) {
+            try (MatchLogWriter writer = MatchLogWriter.open(path)) {
+                for (int i = part * 100; i < (part + 1) * 100; i++) {
+                    writer.write(1_700_000_000_000L + i * 1000L - (i % 7) * 3000L, players[i], teamSizes[i],
+                            ranks[i], i % 5 != 0);
+                }
+            }
+        }
+        for (int windowSize : new int[]{1 << 28, 256}) {
+            try (MatchLogReader reader = MatchLogReader.open(path, windowSize)) {
+                for (int i = 0; i < 200; i++) {
+                    assertTrue(reader.next());
+                    assertEquals(1_700_000_000_000L + i * 1000L - (i % 7) * 3000L, reader.time());
+                    assertArrayEquals(players[i], reader.players());
+                    assertArrayEquals(teamSizes[i], reader.teamSizes());
+                    assertArrayEquals(ranks[i], reader.ranks());
+                    assertEquals(i % 5 != 0, reader.lowerIsBetter());
+                }
+                assertFalse(reader.next());
+            }
+        }
+    }
+
+    @Test
+    void testReplay() throws IOException {
+        Path path = directory.resolve("matches");
+        Model model = new PlackettLuce();
+        RatingRegistry expected = new RatingRegistry(model);
+        try (MatchLogWriter writer = MatchLogWriter.open(path)) {
+            for (int i = 0; i < 500; i++) {
+                long[] players = {i % 40, (i * 7 + 3) % 40 + 40, (i * 11 + 5) % 40 + 80};
+                int[] teamSizes = {1, 2};
+                double[] ranks = {i % 2, (i + 1) % 2};
+                writer.write(i, players, teamSizes, ranks, true);
+                expected.rate(players, teamSizes, ranks);
+            }
+        }
+        RatingRegistry actual = new RatingRegistry(model);
+        try (MatchLogReader reader = MatchLogReader.open(path)) {
+            assertEquals(500, reader.replay(actual));
+        }
+        for (long id = 0; id < 120; id++) {
+            assertEquals(expected.get(id), actual.get(id));
+        }
+    }
+
+    @Test
+    void testTruncated() throws IOException {
+        Path path = directory.resolve("matches");
+        try (MatchLogWriter writer = MatchLogWriter.open(path)) {
+            writer.write(1, new long[]{1, 2, 3}, new int[]{1, 2}, new double[]{1.5, 2.5}, true);
+            writer.write(2, new long[]{4, 5, 6}, new int[]{1, 2}, new double[]{2.5, 1.5}, true);
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+        try (MatchLogReader reader = MatchLogReader.open(path)) {
+            assertTrue(reader.next());
+            assertThrows(IOException.class, reader::next);
+            // The match that could not be read leaves the current match as it was.
+            assertArrayEquals(new long[]{1, 2, 3}, reader.players());
+            assertArrayEquals(new double[]{1.5, 2.5}, reader.ranks());
+        }
+        Files.write(path, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> MatchLogReader.open(path));
+    }
+
+    @Test
+    void testTornMatchDropped() throws IOException {
+        Path path = directory.resolve("matches");
+        try (MatchLogWriter writer = MatchLogWriter.open(path)) {
+            writer.write(10, new long[]{1, 2}, new int[]{1, 1});
+            writer.write(20, new long[]{3, 4}, new int[]{1, 1});
+        }
+        // A match written after the last flush, cut off as if the process died while writing it.
+        byte[] bytes = Files.readAllBytes(path);
+        byte[] torn = Arrays.copyOf(bytes, bytes.length + 2);
+        torn[bytes.length] = (byte) 0x80;
+        Files.write(path, torn);
+        try (MatchLogReader reader = MatchLogReader.open(path)) {
+            assertTrue(reader.next());
+            assertTrue(reader.next());
+            assertFalse(reader.next());
+        }
+        try (MatchLogWriter writer = MatchLogWriter.open(path)) {
+            writer.write(35, new long[]{5, 6}, new int[]{1, 1}, new double[]{2, 1}, true);
+        }
+        try (MatchLogReader reader = MatchLogReader.open(path)) {
+            assertTrue(reader.next());
+            assertTrue(reader.next());
+            assertTrue(reader.next());
+            assertEquals(35, reader.time());
+            assertArrayEquals(new long[]{5, 6}, reader.players());
+            assertArrayEquals(new double[]{2, 1}, reader.ranks());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void testInvalidMatch() throws IOException {
+        Path path = directory.resolve("matches");
+        try (MatchLogWriter writer = MatchLogWriter.open(path)) {
+            assertAll(
+                    () -> assertThrows(MathIllegalArgumentException.class,
+                            () -> writer.write(1, new long[]{1, 2, 3}, new int[]{1, 1})),
+                    () -> assertThrows(MathIllegalArgumentException.class,
+                            () -> writer.write(1, new long[]{1, 2}, new int[]{1, 1}, new double[]{1}, true))
+            );
+        }
+        try (MatchLogReader reader = MatchLogReader.open(path)) {
+            assertFalse(reader.next());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.toveri.openskill.matchmaking;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.models.PlackettLuce;
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TeamBalancerTest {
+    static final double DELTA = 1e-12;
+
+    @Test
+    void testBalanceTwoTeamsFindsBestSplit() {
+        List<Rating> players = createPlayers(10, 1);
+        Model model = new PlackettLuce();
+        List<TeamSplit> splits = new TeamBalancer(model).balance(players, List.of(5, 5), 5);
+        assertAll(
+                () -> assertEquals(5, splits.size()),
+                () -> assertEquals(bruteForceBest(model, players, List.of(5, 5)),
+                        splits.getFirst().drawProbability(), DELTA)
+        );
+        for (int i = 0; i < splits.size(); i++) {
+            TeamSplit split = splits.get(i);
+            assertEquals(model.predictDraw(new Match(split.teams())), split.drawProbability(), DELTA);
+            assertEquals(List.of(5, 5), split.teams().stream().map(List::size).toList());
+            if (i > 0) {
+                assertTrue(split.drawProbability() <= splits.get(i - 1).drawProbability());
+            }
+        }
+    }
+
+    @Test
+    void testBalanceUnevenAndManyTeams() {
+        List<Rating> players = createPlayers(7, 2);
+        Model model = new PlackettLuce();
+        TeamBalancer balancer = new TeamBalancer(model);
+        List<TeamSplit> uneven = balancer.balance(players, List.of(3, 4), 1);
+        List<TeamSplit> three = balancer.balance(players, List.of(2, 2, 3), 1);
+        assertAll(
+                () -> assertEquals(bruteForceBest(model, players, List.of(3, 4)),
+                        uneven.getFirst().drawProbability(), DELTA),
+                () -> assertEquals(bruteForceBest(model, players, List.of(2, 2, 3)),
+                        three.getFirst().drawProbability(), DELTA)
+        );
+    }
+
+    @Test
+    void testBalanceIndependentOfParallelism() {
+        List<Rating> players = createPlayers(12, 3);
+        Model model = new PlackettLuce();
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool parallel = new ForkJoinPool(4);
+        try {
+            List<TeamSplit> expected = new TeamBalancer(model, single).balance(players, List.of(6, 6), 10);
+            List<TeamSplit> actual = new TeamBalancer(model, parallel).balance(players, List.of(6, 6), 10);
+            assertEquals(expected, actual);
+        } finally {
+            single.shutdown();
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    void testBalanceUnlimited() {
+        List<Rating> players = createPlayers(8, 5);
+        TeamBalancer balancer = new TeamBalancer(new PlackettLuce());
+        List<TeamSplit> splits = balancer.balance(players, List.of(4, 4), Integer.MAX_VALUE);
+        // Every way to split eight players into two teams of four, where swapping the teams gives the same split.
+        assertEquals(35, splits.size());
+    }
+
+    @Test
+    void testBalanceInvalidSizes() {
+        List<Rating> players = createPlayers(4, 4);
+        TeamBalancer balancer = new TeamBalancer(new PlackettLuce());
+        assertAll(
+                () -> assertThrows(MathIllegalArgumentException.class,
+                        () -> balancer.balance(players, List.of(2, 3), 1)),
+                () -> assertThrows(MathIllegalArgumentException.class,
+                        () -> balancer.balance(players, List.of(4), 1)),
+                () -> assertThrows(MathIllegalArgumentException.class,
+                        () -> balancer.balance(players, List.of(2, 2), 0))
+        );
+    }
+
+    private static List<Rating> createPlayers(int count, long seed) {
+        Random random = new Random(seed);
+        List<Rating> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(new Rating(15 + 20 * random.nextDouble(), 1 + 7 * random.nextDouble()));
+        }
+        return players;
+    }
+
+    private static double bruteForceBest(Model model, List<Rating> players, List<Integer> teamSizes) {
+        return bruteForce(model, players, teamSizes, new int[players.size()], 0);
+    }
+
+    private static double bruteForce(Model model, List<Rating> players, List<Integer> teamSizes,
+                                     int[] assignment, int p) {
+        if (p == players.size()) {
+            List<List<Rating>> teams = new ArrayList<>();
+            for (int t = 0; t < teamSizes.size(); t++) {
+                teams.add(new ArrayList<>());
+            }
+            for (int i = 0; i < players.size(); i++) {
+                teams.get(assignment[i]).add(players.get(i));
+            }
+            for (int t = 0; t < teamSizes.size(); t++) {
+                if (teams.get(t).size() != teamSizes.get(t)) {
+                    return Double.NEGATIVE_INFINITY;
+                }
+            }
+            return model.predictDraw(new Match(teams));
+        }
+        double best = Double.NEGATIVE_INFINITY;
+        for (int t = 0; t < teamSizes.size(); t++) {
+            assignment[p] = t;
+            best = Math.max(best, bruteForce(model, players, teamSizes, assignment, p + 1));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.toveri.openskill.metrics;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.models.ModelOptionsBuilder;
+import io.github.toveri.openskill.models.PlackettLuce;
+import io.github.toveri.openskill.models.ThurstoneMostellerFull;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.github.toveri.openskill.metrics.RatingMetrics.Branch;
+import static io.github.toveri.openskill.metrics.RatingMetrics.Operation;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecordingMetricsTest {
+    @Test
+    void testHistogram() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+        histogram.record(-5);
+        assertAll(
+                () -> assertEquals(1001, histogram.count()),
+                () -> assertEquals(1000000, histogram.max()),
+                () -> assertEquals(1, histogram.countAt(0)),
+                () -> assertEquals(500000, histogram.valueAtPercentile(50), 500000 / 32.0),
+                () -> assertEquals(990000, histogram.valueAtPercentile(99), 990000 / 32.0),
+                () -> assertEquals(1000000, histogram.valueAtPercentile(100)),
+                () -> assertEquals(0, new Histogram().valueAtPercentile(50))
+        );
+    }
+
+    @Test
+    void testRecordsOperations() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        Model model = new PlackettLuce(new ModelOptionsBuilder().metrics(metrics).build());
+        Match match = new Match(List.of(List.of(model.rating()), List.of(model.rating()), List.of(model.rating())));
+        model.rate(match);
+        model.rateInPlace(match);
+        model.predictWin(match);
+        model.predict(match);
+        assertAll(
+                () -> assertEquals(2, metrics.latency("PlackettLuce", Operation.RATE).count()),
+                () -> assertEquals(2, metrics.teamCounts("PlackettLuce", Operation.RATE).countAt(3)),
+                () -> assertEquals(1, metrics.latency("PlackettLuce", Operation.PREDICT_WIN).count()),
+                () -> assertEquals(1, metrics.latency("PlackettLuce", Operation.PREDICT).count()),
+                () -> assertEquals(0, metrics.latency("PlackettLuce", Operation.PREDICT_DRAW).count()),
+                () -> assertEquals(0, metrics.kappaClamps("PlackettLuce")),
+                () -> assertEquals(0, metrics.kappaClamps("BradleyTerryFull"))
+        );
+    }
+
+    @Test
+    void testRecordsKappaClampsAndDegenerateBranches() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        Model model = new ThurstoneMostellerFull(new ModelOptionsBuilder().kappa(0.999).metrics(metrics).build());
+        Match match = new Match(List.of(List.of(new Rating(-1000, 1)), List.of(new Rating(1000, 1))));
+        model.rateInPlace(match);
+        assertAll(
+                () -> assertEquals(2, metrics.kappaClamps("ThurstoneMostellerFull")),
+                () -> assertEquals(2, metrics.degenerateBranches("ThurstoneMostellerFull", Branch.V)),
+                () -> assertEquals(0, metrics.degenerateBranches("ThurstoneMostellerFull", Branch.VT)),
+                () -> assertEquals(List.of("ThurstoneMostellerFull"), List.copyOf(metrics.models()))
+        );
+    }
+
+    @Test
+    void testNoMetricsGivesSameRatings() {
+        Model recorded = new ThurstoneMostellerFull(new ModelOptionsBuilder().metrics(new RecordingMetrics()).build());
+        Model plain = new ThurstoneMostellerFull();
+        Match match = new Match(List.of(List.of(new Rating(20, 3)), List.of(new Rating(30, 8))));
+        assertEquals(plain.rate(match).getTeams(), recorded.rate(match).getTeams());
+    }
+}
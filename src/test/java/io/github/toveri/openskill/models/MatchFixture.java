@@ -0,0 +1,149 @@
+package io.github.toveri.openskill.models;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.Rating;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A match shared by the model tests, both as objects and as flat arrays, with the placements of its teams.
+ */
+final class MatchFixture {
+    final double[] mu;
+    final double[] sigma;
+    final int[] teamOffsets;
+    final int teamCount;
+    final double[] ranks;
+
+    private MatchFixture(double[] mu, double[] sigma, int[] teamOffsets, double[] ranks) {
+        this.mu = mu;
+        this.sigma = sigma;
+        this.teamOffsets = teamOffsets;
+        this.teamCount = teamOffsets.length - 1;
+        this.ranks = ranks;
+    }
+
+    /**
+     * Create a match of four teams of one to three players, where the second and third team draw.
+     * @return The match.
+     */
+    static MatchFixture fourTeams() {
+        return new MatchFixture(new double[]{27.1, 22.4, 31.6, 19.8, 25.0, 24.2, 29.3},
+                new double[]{7.9, 8.2, 3.3, 6.1, 8.333, 1.2, 4.4}, new int[]{0, 2, 3, 6, 7},
+                new double[]{1.0, 2.0, 2.0, 4.0});
+    }
+
+    /**
+     * Create a free for all of random players, where some placements are shared by two teams.
+     * @param seed The seed of the random ratings.
+     * @param teamCount The count of teams, each of one player.
+     * @param tieEvery The count of placements between each shared one.
+     * @return The match.
+     */
+    static MatchFixture freeForAll(long seed, int teamCount, int tieEvery) {
+        Random random = new Random(seed);
+        double[] mu = new double[teamCount];
+        double[] sigma = new double[teamCount];
+        int[] teamOffsets = new int[teamCount + 1];
+        double[] ranks = new double[teamCount];
+        for (int i = 0; i < teamCount; i++) {
+            mu[i] = 25 + random.nextGaussian() * 5;
+            sigma[i] = 1 + random.nextDouble() * 7;
+            teamOffsets[i + 1] = i + 1;
+            ranks[i] = i % tieEvery == 0 ? i + 1 : i;
+        }
+        return new MatchFixture(mu, sigma, teamOffsets, ranks);
+    }
+
+    /**
+     * Create the match as objects, with new ratings every time.
+     * @return The match.
+     */
+    Match match() {
+        List<List<Rating>> teams = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            List<Rating> team = new ArrayList<>(teamOffsets[i + 1] - teamOffsets[i]);
+            for (int j = teamOffsets[i]; j < teamOffsets[i + 1]; j++) {
+                team.add(new Rating(mu[j], sigma[j]));
+            }
+            teams.add(team);
+        }
+        return new Match(teams);
+    }
+
+    /**
+     * Get the placements of the teams as a list.
+     * @return The placements.
+     */
+    List<Double> rankList() {
+        List<Double> rankList = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            rankList.add(ranks[i]);
+        }
+        return rankList;
+    }
+
+    /**
+     * Get how far the flat-array path of a model may differ from its match path.
+     * Plackett-Luce sums in a different order, so it is only equal up to rounding.
+     * @param model The model.
+     * @return The tolerance.
+     */
+    static double tolerance(Model model) {
+        return model instanceof PlackettLuce ? 1e-12 : 0.0;
+    }
+
+    /**
+     * Check that flat arrays hold the ratings of a match, team after team.
+     * @param expected The expected ratings.
+     * @param mu The mean values.
+     * @param sigma The standard deviations.
+     * @param delta The largest difference allowed.
+     */
+    static void assertRatings(Match expected, double[] mu, double[] sigma, double delta) {
+        int j = 0;
+        for (List<Rating> team : expected.getTeams()) {
+            for (Rating rating : team) {
+                assertEquals(rating.mu, mu[j], delta);
+                assertEquals(rating.sigma, sigma[j], delta);
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Check that flat arrays hold the ratings of a match, team after team, up to a relative rounding error.
+     * @param expected The expected ratings.
+     * @param mu The mean values.
+     * @param sigma The standard deviations.
+     */
+    static void assertRatingsClose(Match expected, double[] mu, double[] sigma) {
+        int j = 0;
+        for (List<Rating> team : expected.getTeams()) {
+            for (Rating rating : team) {
+                assertEquals(rating.mu, mu[j], 1e-12 * Math.abs(rating.mu));
+                assertEquals(rating.sigma, sigma[j], 1e-12 * rating.sigma);
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Check that two matches hold the same ratings.
+     * @param expected The expected ratings.
+     * @param actual The actual ratings.
+     * @param delta The largest difference allowed.
+     */
+    static void assertRatings(Match expected, Match actual, double delta) {
+        for (int i = 0; i < expected.teamCount(); i++) {
+            for (int j = 0; j < expected.getTeam(i).size(); j++) {
+                assertEquals(expected.getTeam(i).get(j).mu, actual.getTeam(i).get(j).mu, delta);
+                assertEquals(expected.getTeam(i).get(j).sigma, actual.getTeam(i).get(j).sigma, delta);
+            }
+        }
+    }
+}
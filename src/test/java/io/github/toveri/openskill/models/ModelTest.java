@@ -1,18 +1,39 @@
 package io.github.toveri.openskill.models;
 
+import io.github.toveri.openskill.Gamma;
 import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.MatchPrediction;
+import io.github.toveri.openskill.PrimitiveGamma;
+import io.github.toveri.openskill.RateOptions;
 import io.github.toveri.openskill.TeamRating;
+import org.hipparchus.exception.MathIllegalArgumentException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import io.github.toveri.openskill.Rating;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ModelTest {
     static final double DELTA = 1e-15;
 
+    /**
+     * Create one model of each kind with the default options.
+     * @return The models.
+     */
+    static List<Model> allModels() {
+        return List.of(
+                new PlackettLuce(),
+                new BradleyTerryFull(),
+                new BradleyTerryPart(),
+                new ThurstoneMostellerFull(),
+                new ThurstoneMostellerPart()
+        );
+    }
+
     @Test
     void testCalculateTeamRatingsAggregates() {
         List<Rating> t1 = List.of(new Rating());
@@ -284,6 +305,176 @@ public class ModelTest {
         );
     }
 
+    @Test
+    void testPredictMatchesPredictions() {
+        Rating r1 = new Rating();
+        Rating r2 = new Rating(32.444, 1.123);
+        Rating r3 = new Rating(35.881, 0.0001);
+        Rating r4 = new Rating(25.188, 0.0001);
+        List<Rating> t1 = List.of(r1, r2);
+        List<Rating> t2 = List.of(r3, r4);
+        Model model = getInstance();
+        List<Match> matches = List.of(
+                new Match(List.of(t1, t2)),
+                new Match(List.of(t1, t2, List.of(r1), List.of(r2), List.of(r3)))
+        );
+        for (Match match : matches) {
+            MatchPrediction prediction = model.predict(match);
+            assertAll(
+                    () -> assertEquals(model.predictWin(match), prediction.winProbabilities()),
+                    () -> assertEquals(model.predictDraw(match), prediction.drawProbability()),
+                    () -> assertEquals(model.predictRank(match), prediction.rankPredictions())
+            );
+        }
+    }
+
+    @Test
+    void testComputePrimitiveMatchesCompute() {
+        MatchFixture fixture = MatchFixture.fourTeams();
+        Workspace workspace = new Workspace();
+        for (Model model : allModels()) {
+            Match expected = model.compute(fixture.match(), fixture.rankList());
+            double[] muOut = new double[fixture.mu.length];
+            double[] sigmaOut = new double[fixture.sigma.length];
+            model.compute(fixture.mu, fixture.sigma, fixture.teamOffsets, fixture.teamCount, fixture.ranks, workspace,
+                    muOut, sigmaOut);
+            MatchFixture.assertRatings(expected, muOut, sigmaOut, MatchFixture.tolerance(model));
+        }
+    }
+
+    @Test
+    void testRateInPlaceMatchesRate() {
+        List<Model> models = allModels();
+        List<RateOptions> rateOptions = List.of(
+                new RateOptions(List.of(1.0, 2.0, 3.0, 4.0)),
+                new RateOptions(List.of(3.0, 1.0, 3.0, 2.0)),
+                new RateOptions(List.of(10.0, 42.5, 7.0, 42.5), false)
+        );
+        for (Model model : models) {
+            for (RateOptions options : rateOptions) {
+                Match match = MatchFixture.fourTeams().match();
+                Match expected = model.rate(match, options);
+                model.rateInPlace(match, options);
+                MatchFixture.assertRatings(expected, match, MatchFixture.tolerance(model));
+            }
+        }
+    }
+
+    @Test
+    void testPrimitiveGammaMatchesGamma() {
+        Gamma gamma = (c, k, mu, sigmaSq, team, rank) -> Math.sqrt(sigmaSq) / c * team.get(team.size() - 1).sigma / 8;
+        PrimitiveGamma primitiveGamma = (c, k, mu, sigmaSq, ratingMu, ratingSigma, from, to, rank) ->
+                Math.sqrt(sigmaSq) / c * ratingSigma[to - 1] / 8;
+        ModelOptions listOptions = new ModelOptionsBuilder().gamma(gamma).build();
+        ModelOptions primitiveOptions = new ModelOptionsBuilder().gamma(primitiveGamma).build();
+        List<List<Model>> models = List.of(
+                List.of(new PlackettLuce(listOptions), new PlackettLuce(primitiveOptions)),
+                List.of(new BradleyTerryFull(listOptions), new BradleyTerryFull(primitiveOptions)),
+                List.of(new BradleyTerryPart(listOptions), new BradleyTerryPart(primitiveOptions)),
+                List.of(new ThurstoneMostellerFull(listOptions), new ThurstoneMostellerFull(primitiveOptions)),
+                List.of(new ThurstoneMostellerPart(listOptions), new ThurstoneMostellerPart(primitiveOptions))
+        );
+        MatchFixture fixture = MatchFixture.fourTeams();
+        Workspace workspace = new Workspace();
+        for (List<Model> pair : models) {
+            Match expected = pair.get(0).compute(fixture.match(), fixture.rankList());
+            double[] muOut = new double[fixture.mu.length];
+            double[] sigmaOut = new double[fixture.sigma.length];
+            pair.get(1).compute(fixture.mu, fixture.sigma, fixture.teamOffsets, fixture.teamCount, fixture.ranks,
+                    workspace, muOut, sigmaOut);
+            MatchFixture.assertRatings(expected, muOut, sigmaOut, MatchFixture.tolerance(pair.get(0)));
+            MatchFixture.assertRatings(expected, pair.get(1).compute(fixture.match(), fixture.rankList()), 0.0);
+        }
+    }
+
+    @Test
+    void testTwoTeamPathMatchesGeneralPath() {
+        // An equal gamma function which is not the default one takes the general path.
+        ModelOptions general = new ModelOptionsBuilder()
+                .gamma((c, k, mu, sigmaSq, team, rank) -> Math.sqrt(sigmaSq) / c).build();
+        List<List<Model>> models = List.of(
+                List.of(new PlackettLuce(), new PlackettLuce(general)),
+                List.of(new BradleyTerryFull(), new BradleyTerryFull(general)),
+                List.of(new BradleyTerryPart(), new BradleyTerryPart(general)),
+                List.of(new ThurstoneMostellerFull(), new ThurstoneMostellerFull(general)),
+                List.of(new ThurstoneMostellerPart(), new ThurstoneMostellerPart(general))
+        );
+        List<RateOptions> rateOptions = List.of(
+                new RateOptions(List.of(1.0, 2.0)),
+                new RateOptions(List.of(2.0, 1.0)),
+                new RateOptions(List.of(1.0, 1.0)),
+                new RateOptions(List.of(3.0, 7.5), false)
+        );
+        Random random = new Random(23);
+        Workspace workspace = new Workspace();
+        for (int m = 0; m < 40; m++) {
+            // Start with 1v1 matches before uneven and larger teams.
+            int sizeA = m < 10 ? 1 : 1 + random.nextInt(5);
+            int sizeB = m < 10 ? 1 : 1 + random.nextInt(5);
+            double[] mu = new double[sizeA + sizeB];
+            double[] sigma = new double[sizeA + sizeB];
+            List<List<Rating>> teams = List.of(new ArrayList<>(), new ArrayList<>());
+            for (int j = 0; j < mu.length; j++) {
+                mu[j] = 10 + random.nextDouble() * 30;
+                sigma[j] = 0.5 + random.nextDouble() * 8;
+                teams.get(j < sizeA ? 0 : 1).add(new Rating(mu[j], sigma[j]));
+            }
+            Match match = new Match(teams);
+            int[] teamOffsets = {0, sizeA, sizeA + sizeB};
+            for (List<Model> pair : models) {
+                for (RateOptions options : rateOptions) {
+                    Match expected = pair.get(1).rate(match, options);
+                    Match actual = pair.get(0).rate(match, options);
+                    double[] ranks = options.ranks().stream().mapToDouble(Double::doubleValue).toArray();
+                    double[] expectedMu = mu.clone();
+                    double[] expectedSigma = sigma.clone();
+                    pair.get(1).rate(expectedMu, expectedSigma, teamOffsets, 2, ranks.clone(),
+                            options.lowerIsBetter(), workspace);
+                    double[] actualMu = mu.clone();
+                    double[] actualSigma = sigma.clone();
+                    pair.get(0).rate(actualMu, actualSigma, teamOffsets, 2, ranks.clone(),
+                            options.lowerIsBetter(), workspace);
+                    for (int j = 0; j < mu.length; j++) {
+                        int i = j < sizeA ? 0 : 1;
+                        int k = j < sizeA ? j : j - sizeA;
+                        // Only the match path of Plackett-Luce sums its terms in another order.
+                        assertEquals(expected.getTeam(i).get(k).mu, actual.getTeam(i).get(k).mu, 1e-12);
+                        assertEquals(expected.getTeam(i).get(k).sigma, actual.getTeam(i).get(k).sigma, 1e-12);
+                        assertEquals(expectedMu[j], actualMu[j]);
+                        assertEquals(expectedSigma[j], actualSigma[j]);
+                    }
+                }
+            }
+        }
+        Match match = new Match(new Rating(25, 8), new Rating(20, 8));
+        RateOptions nanOptions = new RateOptions(List.of(1.0, Double.NaN));
+        for (List<Model> pair : models) {
+            assertAll(
+                    () -> assertThrows(MathIllegalArgumentException.class, () -> pair.get(0).rate(match, nanOptions)),
+                    () -> assertThrows(MathIllegalArgumentException.class, () -> pair.get(0).rate(
+                            new double[]{25, 20}, new double[]{8, 8}, new int[]{0, 1, 2}, 2,
+                            new double[]{1, Double.NaN}, true, workspace))
+            );
+        }
+    }
+
+    @Test
+    void testObjectOnlyModelRatesFlatArrays() {
+        // A model that only computes matches as objects rates flat arrays through them.
+        PlackettLuce plackettLuce = new PlackettLuce();
+        Model model = new Model() {
+            @Override
+            public Match compute(Match match, List<Double> ranks) {
+                return plackettLuce.compute(match, ranks);
+            }
+        };
+        RateOptions options = new RateOptions(List.of(3.0, 1.0, 3.0, 2.0));
+        Match match = MatchFixture.fourTeams().match();
+        Match expected = model.rate(match, options);
+        model.rateInPlace(match, options);
+        MatchFixture.assertRatings(expected, match, 0.0);
+    }
+
     private Model getInstance() {
         return new Model() {
             @Override
@@ -0,0 +1,20 @@
+package io.github.toveri.openskill.models;
+
+import io.github.toveri.openskill.Match;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class PairKernelTest {
+    @Test
+    void testComputeManyTeamsVectorized() {
+        // Only run where the Vector API is available and enabled.
+        assumeTrue(PairKernel.VECTOR != null);
+        Model model = new BradleyTerryFull();
+        MatchFixture fixture = MatchFixture.freeForAll(7, 37, 4);
+        Match expected = model.compute(fixture.match(), fixture.rankList());
+        model.compute(fixture.mu, fixture.sigma, fixture.teamOffsets, fixture.teamCount, fixture.ranks, new Workspace(),
+                fixture.mu, fixture.sigma);
+        MatchFixture.assertRatingsClose(expected, fixture.mu, fixture.sigma);
+    }
+}
@@ -9,6 +9,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class PlackettLuceTest {
     @Test
@@ -67,4 +68,14 @@ public class PlackettLuceTest {
                 () -> assertEquals(11.249240904583088, match3TeamsWithDraw.getTeam(2).get(2).sigma)
         );
     }
+
+    @Test
+    void testComputeLargeFreeForAll() {
+        Model model = new PlackettLuce();
+        MatchFixture fixture = MatchFixture.freeForAll(42, 100, 5);
+        Match expected = model.compute(fixture.match(), fixture.rankList());
+        model.compute(fixture.mu, fixture.sigma, fixture.teamOffsets, fixture.teamCount, fixture.ranks, new Workspace(),
+                fixture.mu, fixture.sigma);
+        MatchFixture.assertRatingsClose(expected, fixture.mu, fixture.sigma);
+    }
 }
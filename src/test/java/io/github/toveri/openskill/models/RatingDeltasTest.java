@@ -0,0 +1,61 @@
+package io.github.toveri.openskill.models;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.RateOptions;
+import io.github.toveri.openskill.Rating;
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RatingDeltasTest {
+    @Test
+    void testDeltasMatchRate() {
+        List<Model> models = ModelTest.allModels();
+        RateOptions options = new RateOptions(List.of(3.0, 1.0, 3.0, 2.0));
+        for (Model model : models) {
+            Match match = MatchFixture.fourTeams().match();
+            List<Rating> before = match.getTeams().stream().flatMap(List::stream).map(Rating::new).toList();
+            RatingDeltas deltas = model.rateDeltas(match, options);
+            model.rateInPlace(match, options);
+            List<Rating> after = match.getTeams().stream().flatMap(List::stream).toList();
+            assertEquals(after.size(), deltas.count());
+            for (int j = 0; j < deltas.count(); j++) {
+                assertEquals(before.get(j).mu, deltas.previousMu(j));
+                assertEquals(before.get(j).sigma, deltas.previousSigma(j));
+                assertEquals(after.get(j).mu, deltas.previousMu(j) + deltas.deltaMu(j));
+                assertEquals(after.get(j).sigma, deltas.previousSigma(j) + deltas.deltaSigma(j));
+            }
+        }
+    }
+
+    @Test
+    void testArraysAndApply() {
+        Model model = new ThurstoneMostellerFull();
+        MatchFixture fixture = MatchFixture.fourTeams();
+        double[] mu = fixture.mu;
+        double[] sigma = fixture.sigma;
+        int[] teamOffsets = fixture.teamOffsets;
+        double[] ranks = fixture.ranks;
+        RatingDeltas deltas = new RatingDeltas();
+        model.rateDeltas(mu, sigma, teamOffsets, fixture.teamCount, ranks, true, deltas, new Workspace());
+        double[] expectedMu = mu.clone();
+        double[] expectedSigma = sigma.clone();
+        model.rate(expectedMu, expectedSigma, teamOffsets, fixture.teamCount, ranks, true, new Workspace());
+        double[] actualMu = mu.clone();
+        double[] actualSigma = sigma.clone();
+        deltas.applyTo(actualMu, actualSigma);
+        assertAll(
+                () -> assertArrayEquals(MatchFixture.fourTeams().mu, mu),
+                () -> assertArrayEquals(expectedMu, actualMu),
+                () -> assertArrayEquals(expectedSigma, actualSigma),
+                () -> assertFalse(deltas.hasPrevious()),
+                () -> assertThrows(IllegalStateException.class, () -> deltas.previousMu(0)),
+                () -> assertThrows(MathIllegalArgumentException.class, () -> deltas.deltaMu(7)),
+                () -> assertThrows(MathIllegalArgumentException.class,
+                        () -> deltas.applyTo(new double[6], new double[7]))
+        );
+    }
+}
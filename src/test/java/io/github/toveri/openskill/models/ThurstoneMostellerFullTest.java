@@ -4,6 +4,7 @@ import io.github.toveri.openskill.Match;
 import org.junit.jupiter.api.Test;
 import io.github.toveri.openskill.RateOptions;
 import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.StandardNormal;
 
 import java.util.List;
 
@@ -67,4 +68,15 @@ public class ThurstoneMostellerFullTest {
                 () -> assertEquals(6.508263154659147, match3TeamsWithDraw.getTeam(2).get(2).sigma)
         );
     }
+
+    @Test
+    void testRateFastNormal() {
+        Model exact = new ThurstoneMostellerFull();
+        Model fast = new ThurstoneMostellerFull(new ModelOptionsBuilder().normal(StandardNormal.FAST).build());
+        Match match = MatchFixture.fourTeams().match();
+        RateOptions options = new RateOptions(List.of(3.0, 1.0, 3.0, 2.0));
+        // The update divides the pdf by the cdf, which magnifies their rounding differences far in the tails.
+        MatchFixture.assertRatings(exact.rate(match, options), fast.rate(match, options), 1e-9);
+        assertEquals(exact.predictDraw(match), fast.predictDraw(match), 1e-8);
+    }
 }
@@ -0,0 +1,135 @@
+package io.github.toveri.openskill.store;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.RateOptions;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.models.PlackettLuce;
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedRatingStoreTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRateMatchesRegistry() throws IOException {
+        Model model = new PlackettLuce();
+        RatingRegistry registry = new RatingRegistry(model);
+        try (MappedRatingStore store = MappedRatingStore.create(directory.resolve("ratings"), model, 1000)) {
+            for (int i = 0; i < 300; i++) {
+                long[] players = {i % 50, (i * 7 + 1) % 50 + 50, (i * 3 + 2) % 50 + 100};
+                double[] ranks = {i % 3, (i + 1) % 3, (i + 2) % 3};
+                registry.rate(players, new int[]{1, 2}, new double[]{ranks[0], ranks[1]});
+                store.rate(players, new int[]{1, 2}, new double[]{ranks[0], ranks[1]});
+            }
+            assertEquals(registry.size(), store.size());
+            for (long id = 0; id < 150; id++) {
+                assertEquals(registry.get(id), store.get(id));
+            }
+        }
+    }
+
+    @Test
+    void testApplyMatchesRate() throws IOException {
+        Model model = new PlackettLuce();
+        try (MappedRatingStore store = MappedRatingStore.create(directory.resolve("applied"), model, 100)) {
+            RatingRegistry registry = new RatingRegistry(model);
+            long[] players = {1, 2, 3};
+            registry.rate(players, new int[]{2, 1}, new double[]{1, 2}, true, 5);
+            Match match = new Match(List.of(List.of(model.rating(), model.rating()), List.of(model.rating())));
+            store.apply(players, model.rateDeltas(match, new RateOptions(List.of(1.0, 2.0))), 5);
+            for (long id : players) {
+                assertEquals(registry.get(id), store.get(id));
+                assertEquals(5, store.lastPlayed(id));
+                assertEquals(2, store.version(id));
+            }
+        }
+    }
+
+    @Test
+    void testReopen() throws IOException {
+        Model model = new PlackettLuce();
+        Path path = directory.resolve("ratings");
+        try (MappedRatingStore store = MappedRatingStore.create(path, model, 100, 4)) {
+            store.put(7, new Rating(30, 4));
+            store.rate(new long[]{7, 1L << 40}, new int[]{1, 1}, null, true, 1234);
+        }
+        try (MappedRatingStore store = MappedRatingStore.open(path, model)) {
+            Rating r1 = new Rating(30, 4);
+            Rating r2 = model.rating();
+            model.rateInPlace(new Match(r1, r2));
+            assertAll(
+                    () -> assertEquals(2, store.size()),
+                    () -> assertEquals(r1, store.get(7)),
+                    () -> assertEquals(r2, store.get(1L << 40)),
+                    () -> assertEquals(1234, store.lastPlayed(7)),
+                    () -> assertEquals(2, store.version(7)),
+                    () -> assertEquals(2, store.version(1L << 40)),
+                    () -> assertEquals(RatingStore.NEVER_PLAYED, store.lastPlayed(8)),
+                    () -> assertFalse(store.contains(8))
+            );
+        }
+    }
+
+    @Test
+    void testListener() throws IOException {
+        Model model = new PlackettLuce();
+        Path path = directory.resolve("listened");
+        List<Long> versions = new ArrayList<>();
+        RatingListener listener = (id, mu, sigma, lastPlayed, version) -> versions.add(id * 10 + version);
+        try (MappedRatingStore store = MappedRatingStore.create(path, model, 100, 4, null, listener)) {
+            store.put(1, new Rating(30, 4));
+            store.rate(new long[]{1, 2}, new int[]{1, 1}, null, true, 5);
+        }
+        try (MappedRatingStore store = MappedRatingStore.open(path, model, null, listener)) {
+            store.put(2, new Rating());
+        }
+        assertEquals(List.of(11L, 12L, 22L, 23L), versions);
+    }
+
+    @Test
+    void testFullAndInvalid() throws IOException {
+        Model model = new PlackettLuce();
+        try (MappedRatingStore store = MappedRatingStore.create(directory.resolve("small"), model, 1, 1)) {
+            for (long id = 0; id < 12; id++) {
+                store.put(id, new Rating());
+            }
+            assertThrows(IllegalStateException.class, () -> store.put(12, new Rating()));
+            store.put(0, new Rating(30, 4));
+            assertEquals(new Rating(30, 4), store.get(0));
+        }
+        try (MappedRatingStore store = MappedRatingStore.create(directory.resolve("filled"), model, 1, 1)) {
+            for (long id = 0; id < 11; id++) {
+                store.put(id, new Rating());
+            }
+            // Only one of the two new players fits, so neither is added and no rating changes.
+            assertThrows(IllegalStateException.class,
+                    () -> store.rate(new long[]{0, 11, 12}, new int[]{1, 2}, null, true, 5));
+            assertAll(
+                    () -> assertEquals(11, store.size()),
+                    () -> assertFalse(store.contains(11)),
+                    () -> assertEquals(new Rating(), store.get(0)),
+                    () -> assertEquals(RatingStore.NEVER_PLAYED, store.lastPlayed(0))
+            );
+            assertThrows(MathIllegalArgumentException.class,
+                    () -> store.rate(new long[]{0, 11, 11}, new int[]{1, 2}, null, true, 5));
+            store.rate(new long[]{0, 11}, new int[]{1, 1}, null, true, 5);
+            assertEquals(12, store.size());
+            assertThrows(MathIllegalArgumentException.class,
+                    () -> store.rate(new long[]{0, 1}, new int[]{1, 2}, null, true, 5));
+        }
+        Path invalid = directory.resolve("invalid");
+        Files.write(invalid, new byte[64]);
+        assertThrows(IOException.class, () -> MappedRatingStore.open(invalid, model));
+    }
+}
@@ -0,0 +1,223 @@
+package io.github.toveri.openskill.store;
+
+import io.github.toveri.openskill.Decay;
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.RateOptions;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.models.Model;
+import io.github.toveri.openskill.models.PlackettLuce;
+import io.github.toveri.openskill.models.RatingDeltas;
+import org.hipparchus.exception.MathIllegalArgumentException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RatingRegistryTest {
+    @Test
+    void testPutGet() {
+        RatingRegistry registry = new RatingRegistry(new PlackettLuce(), 4);
+        for (long id = 0; id < 10000; id++) {
+            registry.put(id * 1024, new Rating(id, 1));
+        }
+        assertAll(
+                () -> assertEquals(10000, registry.size()),
+                () -> assertEquals(new Rating(1234, 1), registry.get(1234 * 1024)),
+                () -> assertTrue(registry.contains(9999 * 1024)),
+                () -> assertFalse(registry.contains(1)),
+                () -> assertNull(registry.get(1))
+        );
+    }
+
+    @Test
+    void testRateMatchesModel() {
+        Model model = new PlackettLuce();
+        RatingRegistry registry = new RatingRegistry(model);
+        registry.put(3, new Rating(30, 5));
+        List<Rating> t1 = List.of(new Rating(30, 5), model.rating());
+        List<Rating> t2 = List.of(model.rating());
+        List<Rating> t3 = List.of(model.rating(), model.rating());
+        Match match = new Match(List.of(t1, t2, t3));
+        model.rateInPlace(match, new RateOptions(List.of(2.0, 1.0, 3.0)));
+        registry.rate(new long[]{3, 4, 5, 6, 7}, new int[]{2, 1, 2}, new double[]{2, 1, 3});
+        assertAll(
+                () -> assertEquals(t1.get(0), registry.get(3)),
+                () -> assertEquals(t1.get(1), registry.get(4)),
+                () -> assertEquals(t2.get(0), registry.get(5)),
+                () -> assertEquals(t3.get(0), registry.get(6)),
+                () -> assertEquals(t3.get(1), registry.get(7))
+        );
+    }
+
+    @Test
+    void testApplyMatchesRate() {
+        Model model = new PlackettLuce();
+        RatingRegistry rated = new RatingRegistry(model);
+        List<long[]> changed = new ArrayList<>();
+        RatingRegistry applied = new RatingRegistry(model, 4,
+                (id, mu, sigma, lastPlayed, version) -> changed.add(new long[]{id, lastPlayed, version}));
+        rated.put(3, new Rating(30, 5));
+        applied.put(3, new Rating(30, 5));
+        long[] players = {3, 4, 5};
+        rated.rate(players, new int[]{1, 2}, new double[]{2, 1}, true, 10);
+        Match match = new Match(List.of(List.of(applied.get(3)), List.of(model.rating(), model.rating())));
+        RatingDeltas deltas = model.rateDeltas(match, new RateOptions(List.of(2.0, 1.0)));
+        applied.apply(players, deltas, 10);
+        assertAll(
+                () -> assertEquals(rated.get(3), applied.get(3)),
+                () -> assertEquals(rated.get(4), applied.get(4)),
+                () -> assertEquals(rated.get(5), applied.get(5)),
+                () -> assertEquals(10, applied.lastPlayed(5)),
+                () -> assertEquals(4, changed.size()),
+                () -> assertArrayEquals(new long[]{3, RatingStore.NEVER_PLAYED, 1}, changed.get(0)),
+                () -> assertArrayEquals(new long[]{3, 10, 2}, changed.get(1)),
+                () -> assertThrows(MathIllegalArgumentException.class,
+                        () -> applied.apply(new long[]{3, 4}, deltas, 11))
+        );
+    }
+
+    @Test
+    void testApplyWithDecay() {
+        Model model = new PlackettLuce();
+        Decay decay = new Decay(100, 1);
+        RatingRegistry rated = new RatingRegistry(model, 4, null, decay);
+        RatingRegistry applied = new RatingRegistry(model, 4, null, decay);
+        long[] players = {1, 2};
+        rated.rate(players, new int[]{1, 1}, null, true, 100);
+        applied.rate(players, new int[]{1, 1}, null, true, 100);
+        rated.rate(players, new int[]{1, 1}, null, true, 700);
+        // The deltas are rated from the inflated ratings, and added to them.
+        Match match = new Match(applied.get(1, 700), applied.get(2, 700));
+        applied.apply(players, model.rateDeltas(match, null), 700);
+        assertAll(
+                () -> assertEquals(rated.get(1).mu, applied.get(1).mu, 1e-12),
+                () -> assertEquals(rated.get(1).sigma, applied.get(1).sigma, 1e-12),
+                () -> assertEquals(rated.get(2).sigma, applied.get(2).sigma, 1e-12),
+                () -> assertEquals(700, applied.lastPlayed(2))
+        );
+    }
+
+    @Test
+    void testRateConcurrently() throws Exception {
+        Model model = new PlackettLuce();
+        RatingRegistry registry = new RatingRegistry(model, 8);
+        int threadCount = 8;
+        int groupSize = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int g = 0; g < threadCount; g++) {
+                long first = (long) g * groupSize;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        long a = first + i % groupSize;
+                        long b = first + (i * 3 + 1) % groupSize;
+                        if (a != b) {
+                            registry.rate(new long[]{a, b}, new int[]{1, 1}, null);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // Each group is rated by one thread, so it must end up as if rated alone.
+        List<Rating> expected = new ArrayList<>();
+        for (int j = 0; j < groupSize; j++) {
+            expected.add(model.rating());
+        }
+        for (int i = 0; i < 500; i++) {
+            int a = i % groupSize;
+            int b = (i * 3 + 1) % groupSize;
+            if (a != b) {
+                model.rateInPlace(new Match(expected.get(a), expected.get(b)));
+            }
+        }
+        for (int g = 0; g < threadCount; g++) {
+            for (int j = 0; j < groupSize; j++) {
+                assertEquals(expected.get(j), registry.get((long) g * groupSize + j));
+            }
+        }
+    }
+
+    @Test
+    void testPlayedAtTimeZero() {
+        Decay decay = new Decay(100, 1);
+        RatingRegistry registry = new RatingRegistry(new PlackettLuce(), 4, null, decay);
+        registry.put(1, new Rating(30, 2));
+        assertEquals(RatingStore.NEVER_PLAYED, registry.lastPlayed(1));
+        registry.rate(new long[]{1, 2}, new int[]{1, 1}, null, true, 0);
+        Rating rating = registry.get(1);
+        assertAll(
+                () -> assertEquals(0, registry.lastPlayed(1)),
+                () -> assertEquals(decay.apply(rating, 0, 300), registry.get(1, 300))
+        );
+    }
+
+    @Test
+    void testInvalidMatch() {
+        RatingRegistry registry = new RatingRegistry(new PlackettLuce());
+        assertAll(
+                () -> assertThrows(MathIllegalArgumentException.class,
+                        () -> registry.rate(new long[]{1, 2, 3}, new int[]{1, 1}, null)),
+                () -> assertThrows(MathIllegalArgumentException.class,
+                        () -> registry.rate(new long[]{1, 2}, new int[]{1, 1}, new double[]{1})),
+                () -> assertThrows(MathIllegalArgumentException.class,
+                        () -> registry.rate(new long[]{1, 2}, new int[]{3, -1}, null)),
+                () -> assertThrows(MathIllegalArgumentException.class,
+                        () -> registry.rate(new long[]{1, 2, 1}, new int[]{2, 1}, null)),
+                () -> assertThrows(MathIllegalArgumentException.class,
+                        () -> registry.apply(new long[]{3, 3}, new PlackettLuce().rateDeltas(
+                                new Match(new Rating(), new Rating()), null), 0)),
+                () -> assertEquals(0, registry.size())
+        );
+    }
+
+    @Test
+    void testRateGivesWrittenRatings() {
+        RatingRegistry registry = new RatingRegistry(new PlackettLuce());
+        registry.put(2, new Rating(30, 4));
+        double[] mu = new double[3];
+        double[] sigma = new double[3];
+        registry.rate(new long[]{1, 2, 3}, new int[]{2, 1}, new double[]{2, 1}, true, 10, mu, sigma);
+        long[] players = {1, 2, 3};
+        for (int j = 0; j < players.length; j++) {
+            assertEquals(registry.get(players[j]), new Rating(mu[j], sigma[j]));
+        }
+        assertThrows(MathIllegalArgumentException.class,
+                () -> registry.rate(new long[]{1, 2}, new int[]{1, 1}, null, true, 10, new double[1], null));
+    }
+
+    @Test
+    void testDecay() {
+        Model model = new PlackettLuce();
+        Decay decay = new Decay(100, 1);
+        RatingRegistry registry = new RatingRegistry(model, 4, null, decay);
+        registry.put(1, new Rating(30, 2));
+        registry.rate(new long[]{1, 2}, new int[]{1, 1}, null, true, 150);
+        Rating afterFirst = registry.get(1);
+        registry.rate(new long[]{1, 2}, new int[]{1, 1}, null, true, 450);
+        // The first rating does not decay as the player had not played, the second from 150 to 450.
+        Rating expected = new Rating(30, 2);
+        Rating other = model.rating();
+        model.rateInPlace(new Match(expected, other));
+        Rating decayed = decay.apply(expected, 150, 450);
+        model.rateInPlace(new Match(decayed, decay.apply(other, 150, 450)));
+        assertAll(
+                () -> assertEquals(expected, afterFirst),
+                () -> assertEquals(decayed, registry.get(1)),
+                () -> assertEquals(450, registry.lastPlayed(1)),
+                () -> assertEquals(RatingStore.NEVER_PLAYED, registry.lastPlayed(3)),
+                () -> assertEquals(decay.apply(decayed, 450, 1000), registry.get(1, 1000)),
+                () -> assertEquals(decayed, registry.get(1, 499))
+        );
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.toveri.openskill.stream;
+
+import io.github.toveri.openskill.models.PlackettLuce;
+import io.github.toveri.openskill.store.RatingRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RatingPipelineTest {
+    @Test
+    void testRatesInOrder() throws Exception {
+        PlackettLuce model = new PlackettLuce();
+        RatingRegistry expected = new RatingRegistry(model);
+        RatingRegistry actual = new RatingRegistry(model);
+        List<MatchEvent> rejected = Collections.synchronizedList(new ArrayList<>());
+        RatingPipeline pipeline = new RatingPipeline(actual, 16, 8, ForkJoinPool.commonPool(), rejected::add);
+        Sink sink = new Sink();
+        pipeline.subscribe(sink);
+        Random random = new Random(5);
+        try (SubmissionPublisher<MatchEvent> source = new SubmissionPublisher<>()) {
+            source.subscribe(pipeline);
+            for (int m = 0; m < 2000; m++) {
+                long[] players = {random.nextInt(50), 50 + random.nextInt(50), 100 + random.nextInt(50)};
+                double[] ranks = {random.nextInt(3), random.nextInt(3)};
+                MatchEvent event = new MatchEvent(m, players, new int[]{1, 2}, ranks, true);
+                expected.rate(players, event.teamSizes(), ranks, true, m);
+                source.submit(event);
+            }
+            source.submit(new MatchEvent(0, new long[]{1, 2}, new int[]{1, 2}));
+        }
+        List<MatchEvent> rated = sink.done.get(10, TimeUnit.SECONDS);
+        assertAll(
+                () -> assertEquals(2000, rated.size()),
+                () -> assertEquals(1, rejected.size()),
+                () -> assertEquals(expected.size(), actual.size())
+        );
+        for (long id = 0; id < 150; id++) {
+            assertEquals(expected.get(id), actual.get(id));
+        }
+    }
+
+    @Test
+    void testPropagatesError() {
+        RatingPipeline pipeline = new RatingPipeline(new RatingRegistry(new PlackettLuce()));
+        Sink sink = new Sink();
+        pipeline.subscribe(sink);
+        try (SubmissionPublisher<MatchEvent> source = new SubmissionPublisher<>()) {
+            source.subscribe(pipeline);
+            source.submit(new MatchEvent(1, new long[]{1, 2}, new int[]{1, 1}));
+            source.closeExceptionally(new IllegalStateException("queue lost"));
+        }
+        ExecutionException e = assertThrows(ExecutionException.class, () -> sink.done.get(10, TimeUnit.SECONDS));
+        assertEquals("queue lost", e.getCause().getMessage());
+    }
+
+    @Test
+    void testEventValidity() {
+        assertAll(
+                () -> assertTrue(new MatchEvent(0, new long[]{1, 2}, new int[]{1, 1}).isValid()),
+                () -> assertFalse(new MatchEvent(0, new long[]{1, 1}, new int[]{1, 1}).isValid()),
+                () -> assertFalse(new MatchEvent(0, new long[]{1, 2, 3}, new int[]{1, 1}).isValid()),
+                () -> assertFalse(new MatchEvent(0, new long[]{1, 2}, new int[]{1, 1}, new double[]{1, Double.NaN},
+                        true).isValid())
+        );
+    }
+
+    @Test
+    void testEventEquality() {
+        MatchEvent event = new MatchEvent(3, new long[]{1, 2}, new int[]{1, 1}, new double[]{2, 1}, false);
+        MatchEvent same = new MatchEvent(3, new long[]{1, 2}, new int[]{1, 1}, new double[]{2, 1}, false);
+        assertEquals(event, same);
+        assertEquals(event.hashCode(), same.hashCode());
+        assertNotEquals(event, new MatchEvent(3, new long[]{1, 2}, new int[]{1, 1}, new double[]{1, 2}, false));
+        assertNotEquals(event, new MatchEvent(3, new long[]{2, 1}, new int[]{1, 1}, new double[]{2, 1}, false));
+    }
+
+    private static final class Sink implements Flow.Subscriber<MatchEvent> {
+        final List<MatchEvent> events = new ArrayList<>();
+        final CompletableFuture<List<MatchEvent>> done = new CompletableFuture<>();
+        Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(MatchEvent event) {
+            events.add(event);
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(events);
+        }
+    }
+}
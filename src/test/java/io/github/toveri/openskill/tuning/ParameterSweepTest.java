@@ -0,0 +1,122 @@
+package io.github.toveri.openskill.tuning;
+
+import io.github.toveri.openskill.Match;
+import io.github.toveri.openskill.Rating;
+import io.github.toveri.openskill.log.MatchLogReader;
+import io.github.toveri.openskill.log.MatchLogWriter;
+import io.github.toveri.openskill.metrics.RatingMetrics;
+import io.github.toveri.openskill.metrics.RecordingMetrics;
+import io.github.toveri.openskill.models.ModelOptions;
+import io.github.toveri.openskill.models.ModelOptionsBuilder;
+import io.github.toveri.openskill.models.PlackettLuce;
+import io.github.toveri.openskill.store.RatingRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParameterSweepTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRunScoresCandidates() throws IOException {
+        Path path = directory.resolve("matches");
+        Random random = new Random(5);
+        double[] skill = new double[50];
+        for (int i = 0; i < skill.length; i++) {
+            skill[i] = random.nextGaussian() * 5;
+        }
+        List<long[]> matches = new ArrayList<>();
+        List<double[]> matchRanks = new ArrayList<>();
+        try (MatchLogWriter writer = MatchLogWriter.open(path)) {
+            for (int m = 0; m < 2000; m++) {
+                long a = random.nextInt(50);
+                long b = (a + 1 + random.nextInt(49)) % 50;
+                boolean aWins = skill[(int) a] + random.nextGaussian() * 4 > skill[(int) b] + random.nextGaussian() * 4;
+                double[] ranks = aWins ? new double[]{1, 2} : new double[]{2, 1};
+                writer.write(m, new long[]{a, b}, new int[]{1, 1}, ranks, true);
+                matches.add(new long[]{a, b});
+                matchRanks.add(ranks);
+            }
+        }
+        ModelOptions base = new ModelOptionsBuilder().build();
+        List<ModelOptions> candidates = ParameterSweep.grid(base, new double[]{1, 4.1667, 12},
+                new double[]{0.01, 0.0833}, new double[]{0.0001}, List.of(base.gammaFun()));
+        List<SweepResult> results;
+        try (MatchLogReader reader = MatchLogReader.open(path)) {
+            results = new ParameterSweep(PlackettLuce::new, candidates).run(reader);
+        }
+        assertEquals(6, results.size());
+        for (int i = 1; i < results.size(); i++) {
+            assertTrue(results.get(i - 1).logLoss() <= results.get(i).logLoss());
+        }
+        // Check one candidate against predicting and rating each match on its own.
+        SweepResult result = results.getFirst();
+        PlackettLuce model = new PlackettLuce(result.options());
+        RatingRegistry registry = new RatingRegistry(model);
+        double logLoss = 0.0;
+        double brier = 0.0;
+        for (int m = 0; m < matches.size(); m++) {
+            long[] players = matches.get(m);
+            Rating a = registry.contains(players[0]) ? registry.get(players[0]) : model.rating();
+            Rating b = registry.contains(players[1]) ? registry.get(players[1]) : model.rating();
+            List<Double> win = model.predictWin(new Match(a, b));
+            int winner = matchRanks.get(m)[0] < matchRanks.get(m)[1] ? 0 : 1;
+            logLoss -= Math.log(win.get(winner));
+            brier += Math.pow(win.get(winner) - 1, 2) + Math.pow(win.get(1 - winner), 2);
+            registry.rate(players, new int[]{1, 1}, matchRanks.get(m));
+        }
+        double expectedLogLoss = logLoss / 2000;
+        double expectedBrier = brier / 2000;
+        assertAll(
+                () -> assertEquals(2000, result.matchCount()),
+                () -> assertEquals(expectedLogLoss, result.logLoss(), 1e-12),
+                () -> assertEquals(expectedBrier, result.brierScore(), 1e-12)
+        );
+    }
+
+    @Test
+    void testEmptyAndOneTeamLogs() throws IOException {
+        Path path = directory.resolve("empty");
+        try (MatchLogWriter ignored = MatchLogWriter.open(path)) {
+            // Write no matches.
+        }
+        Path oneTeam = directory.resolve("one-team");
+        try (MatchLogWriter writer = MatchLogWriter.open(oneTeam)) {
+            writer.write(0, new long[]{1, 2}, new int[]{2}, null, true);
+        }
+        for (Path log : List.of(path, oneTeam)) {
+            assertScoresNothing(log);
+        }
+    }
+
+    @Test
+    void testGridRecordsNoMetrics() {
+        ModelOptions base = new ModelOptionsBuilder().metrics(new RecordingMetrics()).build();
+        List<ModelOptions> grid = ParameterSweep.grid(base, new double[]{1, 2}, new double[]{0.1},
+                new double[]{0.0001}, List.of(base.gammaFun()));
+        for (ModelOptions options : grid) {
+            assertSame(RatingMetrics.NONE, options.metrics());
+        }
+    }
+
+    private static void assertScoresNothing(Path path) throws IOException {
+        List<SweepResult> results;
+        try (MatchLogReader reader = MatchLogReader.open(path)) {
+            results = new ParameterSweep(PlackettLuce::new, List.of(new ModelOptionsBuilder().build())).run(reader);
+        }
+        SweepResult result = results.getFirst();
+        assertAll(
+                () -> assertEquals(0, result.matchCount()),
+                () -> assertEquals(0.0, result.logLoss()),
+                () -> assertEquals(0.0, result.brierScore())
+        );
+    }
+}